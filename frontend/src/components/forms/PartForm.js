@@ -9,7 +9,8 @@ const PartForm = ({ open, onClose, onSave, initialData = {} }) => {
         name: '',
         code: '',
         unitPrice: '',
-        stock: ''
+        stock: '',
+        reorderThreshold: ''
     });
 
     useEffect(() => {
@@ -18,7 +19,9 @@ const PartForm = ({ open, onClose, onSave, initialData = {} }) => {
                 name: initialData.name || '',
                 code: initialData.code || '',
                 unitPrice: initialData.unitPrice || '',
-                stock: initialData.stock || ''
+                stock: initialData.stock || '',
+                // Enviado de volta no PUT: sem ele, o backend zera o ponto de reposição
+                reorderThreshold: initialData.reorderThreshold ?? ''
             });
         }
     }, [open, initialData]);
@@ -57,6 +60,11 @@ console.log("Debug: PartForm rendered");
                             name="stock" label="Stock Quantity" type="number" fullWidth required
                             value={formData.stock} onChange={handleChange}
                         />
+                        <TextField
+                            name="reorderThreshold" label="Reorder Threshold" type="number" fullWidth
+                            helperText="0 = no low-stock alert"
+                            value={formData.reorderThreshold} onChange={handleChange}
+                        />
                     </Box>
                 </DialogContent>
                 <DialogActions>
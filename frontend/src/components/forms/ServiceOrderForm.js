@@ -41,9 +41,10 @@ const ServiceOrderForm = ({ open, onClose, onSave, initialData = {} }) => {
                 status: initialData?.status || 'PENDING'
             });
 
-            // Preencher Serviços ao Editar
+            // Preencher Serviços ao Editar (o id da linha permite ao backend atualizar em vez de recriar)
             if (initialData?.serviceItems && Array.isArray(initialData.serviceItems)) {
                 setItems(initialData.serviceItems.map(i => ({
+                    id: i.id,
                     description: i.description || '',
                     laborCost: i.laborCost || 0,
                     quantity: i.quantity || 1
@@ -53,6 +54,7 @@ const ServiceOrderForm = ({ open, onClose, onSave, initialData = {} }) => {
             // Preencher Peças ao Editar
             if (initialData?.parts && Array.isArray(initialData.parts)) {
                 setPartsUsed(initialData.parts.map(p => ({
+                    id: p.id,
                     partId: p.partId,
                     quantity: p.quantity || 1,
                     unitPrice: p.unitPrice || 0
@@ -171,8 +173,9 @@ const ServiceOrderForm = ({ open, onClose, onSave, initialData = {} }) => {
             technicianId: formData.technicianId || null,
             
             totalCost: calculateTotal(),
-            serviceItems: items,
-            parts: partsUsed.map(p => ({ partId: p.partId, quantity: p.quantity }))
+            // Linhas existentes vão com id; linhas novas, sem id
+            serviceItems: items.map(i => ({ id: i.id, description: i.description, laborCost: i.laborCost, quantity: i.quantity })),
+            parts: partsUsed.map(p => ({ id: p.id, partId: p.partId, quantity: p.quantity }))
         };
         onSave(payload);
         onClose();
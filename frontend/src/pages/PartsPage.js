@@ -46,6 +46,11 @@ const PartsPage = () => {
         try {
             if (selectedPart) {
                 await partService.updatePart(selectedPart.id, formData);
+                // O PUT da peça não altera o estoque: a diferença vai como ajuste (positivo baixa)
+                const quantity = Number(selectedPart.stock) - Number(formData.stock);
+                if (quantity !== 0) {
+                    await partService.updateStock(selectedPart.id, quantity);
+                }
                 toast.success('Part updated successfully');
             } else {
                 await partService.createPart(formData);
@@ -21,6 +21,8 @@ const getStatusColor = (status) => {
 
 const ServiceOrdersPage = () => {
     const [orders, setOrders] = useState([]);
+    const [nextCursor, setNextCursor] = useState(null);
+    const [loadingMore, setLoadingMore] = useState(false);
     const [filteredOrders, setFilteredOrders] = useState([]);
     const [deleteDialogOpen, setDeleteDialogOpen] = useState(false);
     const [orderToDelete, setOrderToDelete] = useState(null);
@@ -34,7 +36,7 @@ const ServiceOrdersPage = () => {
 
     useEffect(() => { loadOrders(); }, []);
 
-    // Filtragem (Client-Side por enquanto, já que baixamos o Resumo leve)
+    // Filtragem (Client-Side, sobre as páginas já carregadas)
     useEffect(() => {
         const lowerTerm = searchTerm.toLowerCase();
         const filtered = orders.filter(o =>
@@ -47,14 +49,29 @@ const ServiceOrdersPage = () => {
         setPage(0); // Voltar para primeira página ao filtrar
     }, [searchTerm, orders]);
 
+    // Primeira página do resumo (leve); as seguintes só são buscadas em "Load more"
     const loadOrders = async () => {
         try {
-            // Agora retorna a lista de DTOs de Resumo (leve)
-            const res = await serviceOrderService.getAllServiceOrders();
+            const res = await serviceOrderService.getServiceOrdersPage();
             setOrders(res.data);
+            setNextCursor(res.headers['x-next-cursor'] || null);
         } catch (error) { toast.error('Failed to load orders'); }
     };
 
+    const loadMoreOrders = async () => {
+        if (!nextCursor) return;
+        setLoadingMore(true);
+        try {
+            const res = await serviceOrderService.getServiceOrdersPage(nextCursor);
+            setOrders(prev => [...prev, ...res.data]);
+            setNextCursor(res.headers['x-next-cursor'] || null);
+        } catch (error) {
+            toast.error('Failed to load orders');
+        } finally {
+            setLoadingMore(false);
+        }
+    };
+
     const handleSave = async (data) => {
         try {
             if (selectedOrder) {
@@ -156,6 +173,14 @@ const ServiceOrdersPage = () => {
                 />
             </TableContainer>
 
+            {nextCursor && (
+                <Box sx={{ display: 'flex', justifyContent: 'center', mt: 2 }}>
+                    <Button variant="outlined" onClick={loadMoreOrders} disabled={loadingMore}>
+                        {loadingMore ? 'Loading...' : 'Load more'}
+                    </Button>
+                </Box>
+            )}
+
             {/* Renderização Condicional para garantir estado limpo */}
             {formOpen && (
                 <ServiceOrderForm
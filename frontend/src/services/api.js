@@ -58,7 +58,8 @@ export const technicianService = {
 };
 
 export const serviceOrderService = {
-    getAllServiceOrders: () => api.get('/service-orders'),
+    // Listagem paginada por cursor: o token da próxima página vem no header X-Next-Cursor
+    getServiceOrdersPage: (cursor, limit = 50) => api.get('/service-orders', { params: { cursor, limit } }),
     getServiceOrderById: (id) => api.get(`/service-orders/${id}`),
     createServiceOrder: (order) => api.post('/service-orders', order),
     // CORREÇÃO: Removida a duplicação e mantido apenas este update completo
@@ -74,6 +75,7 @@ export const partService = {
     getPartById: (id) => api.get(`/parts/${id}`),
     createPart: (part) => api.post('/parts', part),
     updatePart: (id, part) => api.put(`/parts/${id}`, part),
+    updateStock: (id, quantity) => api.put(`/parts/${id}/stock`, null, { params: { quantity } }),
     deletePart: (id) => api.delete(`/parts/${id}`)
 };
 
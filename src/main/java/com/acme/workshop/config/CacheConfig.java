@@ -0,0 +1,11 @@
+package com.acme.workshop.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+// Habilita o CacheManager (Caffeine). Os caches são declarados em spring.cache.cache-names
+// para que o actuator publique as métricas de hit/miss/eviction desde a inicialização.
+@Configuration
+@EnableCaching
+public class CacheConfig {
+}
@@ -0,0 +1,222 @@
+package com.acme.workshop.config;
+
+import com.acme.workshop.service.idempotency.IdempotencyStore;
+import com.acme.workshop.service.idempotency.IdempotentResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+// Idempotency-Key nas criações que um cliente pode repetir após timeout: criação de OS (simples e em
+// lote) e inclusão de peça na OS. A primeira requisição com a chave executa e tem a resposta 2xx
+// gravada; as repetições recebem a mesma resposta sem executar o controller de novo.
+// Requisições sem o cabeçalho seguem como antes. O corpo é lido inteiro para o hash, então a
+// importação NDJSON, feita para arquivos grandes lidos em streaming, não passa pelo filtro.
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final Pattern IDEMPOTENT_PATHS =
+        Pattern.compile("/api/service-orders(/bulk|/\\d+/parts)?/?");
+
+    private final IdempotencyStore idempotencyStore;
+
+    @Autowired
+    public IdempotencyFilter(IdempotencyStore idempotencyStore) {
+        this.idempotencyStore = idempotencyStore;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+            || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null
+            || !IDEMPOTENT_PATHS.matcher(request.getRequestURI()).matches()
+            || isNdjson(request.getContentType());
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        String header = request.getHeader(IDEMPOTENCY_KEY_HEADER).trim();
+        if (header.isEmpty() || header.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(),
+                "Idempotency-Key deve ter entre 1 e " + MAX_KEY_LENGTH + " caracteres");
+            return;
+        }
+        // A mesma chave em endpoints diferentes são operações diferentes
+        String key = request.getRequestURI() + " " + header;
+
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        String requestHash = cachedRequest.hash();
+
+        Optional<IdempotentResponse> stored = idempotencyStore.find(key);
+        if (stored.isPresent()) {
+            replayOrReject(stored.get(), requestHash, response);
+            return;
+        }
+        if (!idempotencyStore.claim(key, requestHash)) {
+            // Outra requisição reservou a chave entre a consulta e a reserva
+            Optional<IdempotentResponse> concurrent = idempotencyStore.find(key);
+            if (concurrent.isPresent()) {
+                replayOrReject(concurrent.get(), requestHash, response);
+            } else {
+                response.sendError(HttpStatus.CONFLICT.value(), "Requisição com esta Idempotency-Key em andamento");
+            }
+            return;
+        }
+
+        ContentCachingResponseWrapper cachedResponse = new ContentCachingResponseWrapper(response);
+        boolean completed = false;
+        try {
+            filterChain.doFilter(cachedRequest, cachedResponse);
+            int status = cachedResponse.getStatus();
+            if (status >= 200 && status < 300) {
+                idempotencyStore.complete(key, new IdempotentResponse(requestHash, status,
+                    cachedResponse.getContentType(), cachedResponse.getHeader(HttpHeaders.LOCATION),
+                    new String(cachedResponse.getContentAsByteArray(), StandardCharsets.UTF_8)));
+                completed = true;
+            }
+        } finally {
+            // Erros não são gravados: o cliente pode corrigir a causa e repetir com a mesma chave
+            if (!completed) {
+                idempotencyStore.release(key);
+            }
+            cachedResponse.copyBodyToResponse();
+        }
+    }
+
+    private static boolean isNdjson(String contentType) {
+        try {
+            return contentType != null && NDJSON.isCompatibleWith(MediaType.parseMediaType(contentType));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    private void replayOrReject(IdempotentResponse stored, String requestHash, HttpServletResponse response)
+            throws IOException {
+        if (!stored.requestHash().equals(requestHash)) {
+            response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                "Idempotency-Key já usada com uma requisição diferente");
+            return;
+        }
+        if (!stored.completed()) {
+            response.sendError(HttpStatus.CONFLICT.value(), "Requisição com esta Idempotency-Key em andamento");
+            return;
+        }
+
+        response.setStatus(stored.statusCode());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.location() != null) {
+            response.setHeader(HttpHeaders.LOCATION, stored.location());
+        }
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        if (stored.body() != null) {
+            byte[] body = stored.body().getBytes(StandardCharsets.UTF_8);
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+
+    // Lê o corpo uma vez para calcular o hash e o entrega de novo ao controller. Os parâmetros são
+    // lidos antes do corpo: num formulário eles vêm do próprio corpo (addPartToOrder usa parâmetros).
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final Map<String, String[]> parameters;
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.parameters = request.getParameterMap();
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        String hash() {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                for (Map.Entry<String, String[]> parameter : new TreeMap<>(parameters).entrySet()) {
+                    digest.update(parameter.getKey().getBytes(StandardCharsets.UTF_8));
+                    for (String value : parameter.getValue()) {
+                        digest.update((byte) 0);
+                        digest.update(value.getBytes(StandardCharsets.UTF_8));
+                    }
+                    digest.update((byte) '\n');
+                }
+                digest.update(body);
+                return HexFormat.of().formatHex(digest.digest());
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
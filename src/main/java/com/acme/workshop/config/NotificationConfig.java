@@ -0,0 +1,28 @@
+package com.acme.workshop.config;
+
+import com.acme.workshop.service.notification.ConsoleNotificationSink;
+import com.acme.workshop.service.notification.NotificationBatcher;
+import com.acme.workshop.service.notification.NotificationSink;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class NotificationConfig {
+
+    // Sink local por padrão; um bean NotificationSink próprio (SMTP, fila...) substitui este
+    @Bean
+    @ConditionalOnMissingBean(NotificationSink.class)
+    public NotificationSink notificationSink() {
+        return new ConsoleNotificationSink();
+    }
+
+    @Bean(destroyMethod = "close")
+    public NotificationBatcher notificationBatcher(NotificationSink notificationSink,
+                                                   MeterRegistry meterRegistry,
+                                                   @Value("${workshop.notifications.window-ms:5000}") long windowMs) {
+        return new NotificationBatcher(notificationSink, windowMs, meterRegistry);
+    }
+}
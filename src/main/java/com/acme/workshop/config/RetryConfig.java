@@ -0,0 +1,66 @@
+package com.acme.workshop.config;
+
+import com.acme.workshop.service.RetryOnOptimisticLock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.annotation.EnableRetry;
+import org.springframework.retry.interceptor.RetryInterceptorBuilder;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// O advice de retry roda por fora do @Transactional (ordem padrão do @EnableRetry),
+// então cada tentativa abre uma transação nova e relê as entidades
+@Configuration
+@EnableRetry
+public class RetryConfig {
+
+    // Com uma transação já aberta pelo chamador, o método apenas participa dela: repetir ali não
+    // adianta (a transação externa já está marcada para rollback), então a exceção segue para cima
+    // até a fronteira que abriu a transação
+    @Bean(RetryOnOptimisticLock.INTERCEPTOR)
+    public MethodInterceptor optimisticLockRetryInterceptor(
+            @Qualifier(RetryOnOptimisticLock.LISTENER) RetryListener listener) {
+        RetryTemplate retryTemplate = RetryTemplate.builder()
+            .retryOn(OptimisticLockingFailureException.class)
+            .maxAttempts(RetryOnOptimisticLock.MAX_ATTEMPTS)
+            .exponentialBackoff(20, 2, 200, true)
+            .withListener(listener)
+            .build();
+        MethodInterceptor retry = RetryInterceptorBuilder.stateless().retryOperations(retryTemplate).build();
+        return invocation -> TransactionSynchronizationManager.isActualTransactionActive()
+            ? invocation.proceed()
+            : retry.invoke(invocation);
+    }
+
+    @Bean(RetryOnOptimisticLock.LISTENER)
+    public RetryListener optimisticLockRetryListener(MeterRegistry meterRegistry) {
+        Counter conflicts = Counter.builder("workshop.optimistic_lock.conflicts")
+            .description("Tentativas abortadas por conflito de versão")
+            .register(meterRegistry);
+        Counter exhausted = Counter.builder("workshop.optimistic_lock.exhausted")
+            .description("Operações que falharam após esgotar as tentativas")
+            .register(meterRegistry);
+
+        return new RetryListener() {
+            @Override
+            public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+                conflicts.increment();
+            }
+
+            @Override
+            public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+                if (throwable instanceof OptimisticLockingFailureException) {
+                    exhausted.increment();
+                }
+            }
+        };
+    }
+}
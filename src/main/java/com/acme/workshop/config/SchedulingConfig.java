@@ -0,0 +1,12 @@
+package com.acme.workshop.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Tarefas em segundo plano (ex.: reconciliação de totais); desligadas no perfil de testes
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "workshop.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
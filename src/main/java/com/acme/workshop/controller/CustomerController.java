@@ -1,13 +1,13 @@
 package com.acme.workshop.controller;
 
 import com.acme.workshop.dto.CustomerDTO;
-import com.acme.workshop.dto.CustomerSelectDTO;
 import com.acme.workshop.facade.WorkshopFacade;
 import com.acme.workshop.model.Customer;
 import com.acme.workshop.service.CustomerService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
@@ -72,11 +72,29 @@ public class CustomerController {
         return ResponseEntity.noContent().build();
     }
 
+    // ?name= mantém a busca por trecho do nome; ?q= usa o índice de digitação e devolve os
+    // "limit" clientes mais relevantes por nome, email ou telefone. Sem parâmetro de busca ou com
+    // limite fora do permitido, responde 400.
     @GetMapping("/search")
-    public List<CustomerDTO> searchCustomers(@RequestParam String name) {
-        return customerService.searchByName(name).stream()
+    public ResponseEntity<List<CustomerDTO>> searchCustomers(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<Customer> customers;
+        try {
+            if (q != null) {
+                customers = customerService.searchRanked(q, limit);
+            } else if (name != null) {
+                customers = customerService.searchByName(name);
+            } else {
+                return ResponseEntity.badRequest().build();
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(customers.stream()
             .map(this::convertToDTO)
-            .collect(Collectors.toList());
+            .collect(Collectors.toList()));
     }
 
     private CustomerDTO convertToDTO(Customer customer) {
@@ -99,7 +117,7 @@ public class CustomerController {
         return customer;
     }
     @GetMapping("/select") // Endpoint: /api/customers/select
-    public ResponseEntity<List<CustomerSelectDTO>> getCustomersForDropdown() {
-        return ResponseEntity.ok(workshopFacade.getCustomersForSelect());
+    public ResponseEntity<byte[]> getCustomersForDropdown(WebRequest request) {
+        return SelectSnapshotResponses.of(workshopFacade.getCustomersForSelect(), request);
     }
 }
\ No newline at end of file
@@ -1,14 +1,19 @@
 package com.acme.workshop.controller;
 
+import com.acme.workshop.dto.LowStockPartDTO;
 import com.acme.workshop.dto.PartDTO;
+import com.acme.workshop.dto.PartStockAtDTO;
+import com.acme.workshop.dto.StockMovementDTO;
 import com.acme.workshop.model.Part;
 import com.acme.workshop.service.PartService;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -39,7 +44,7 @@ public class PartController {
 
     @GetMapping("/{id}")
     public ResponseEntity<PartDTO> getPart(@PathVariable Long id) {
-        return partService.findById(id)
+        return partService.findCatalogPartById(id)
             .map(this::convertToDTO)
             .map(ResponseEntity::ok)
             .orElse(ResponseEntity.notFound().build());
@@ -53,9 +58,19 @@ public class PartController {
         return ResponseEntity.ok(parts);
     }
 
+    // Peças no ponto de reposição ou abaixo, das mais críticas para as menos críticas
+    @GetMapping("/low-stock")
+    public ResponseEntity<List<LowStockPartDTO>> getLowStockParts(@RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(partService.findLowStock(limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/code/{code}")
     public ResponseEntity<PartDTO> getPartByCode(@PathVariable String code) {
-        return partService.findByCode(code)
+        return partService.findCatalogPartByCode(code)
             .map(this::convertToDTO)
             .map(ResponseEntity::ok)
             .orElse(ResponseEntity.notFound().build());
@@ -66,8 +81,7 @@ public class PartController {
             @PathVariable Long id,
             @Valid @RequestBody PartDTO partDTO) {
         Part part = convertToEntity(partDTO);
-        part.setId(id);
-        Part updatedPart = partService.save(part);
+        Part updatedPart = partService.update(id, part);
         return ResponseEntity.ok(convertToDTO(updatedPart));
     }
 
@@ -79,6 +93,26 @@ public class PartController {
         return ResponseEntity.ok(convertToDTO(updatedPart));
     }
 
+    // Saldo numa data (padrão: agora) calculado pelo histórico de movimentos
+    @GetMapping("/{id}/stock")
+    public ResponseEntity<PartStockAtDTO> getStockAt(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return partService.findStockAt(id, at != null ? at : LocalDateTime.now())
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/movements")
+    public ResponseEntity<List<StockMovementDTO>> getStockMovements(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return partService.findStockMovements(id, from, to != null ? to : LocalDateTime.now())
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deletePart(@PathVariable Long id) {
         partService.deleteById(id);
@@ -92,6 +126,7 @@ public class PartController {
         dto.setCode(part.getCode());
         dto.setUnitPrice(part.getUnitPrice());
         dto.setStock(part.getStock());
+        dto.setReorderThreshold(part.getReorderThreshold());
         return dto;
     }
 
@@ -102,6 +137,7 @@ public class PartController {
         part.setCode(dto.getCode());
         part.setUnitPrice(dto.getUnitPrice());
         part.setStock(dto.getStock() != null ? dto.getStock() : 0);
+        part.setReorderThreshold(dto.getReorderThreshold() != null ? dto.getReorderThreshold() : 0);
         return part;
     }
 }
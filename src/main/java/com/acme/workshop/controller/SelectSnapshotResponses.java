@@ -0,0 +1,26 @@
+package com.acme.workshop.controller;
+
+import com.acme.workshop.service.SelectOptionsSnapshot;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+// Resposta dos endpoints /select: bytes já serializados com ETag forte.
+// Se o If-None-Match bater, responde 304 sem corpo e sem tocar no banco.
+final class SelectSnapshotResponses {
+
+    private SelectSnapshotResponses() {
+    }
+
+    static ResponseEntity<byte[]> of(SelectOptionsSnapshot.Snapshot snapshot, WebRequest request) {
+        if (request.checkNotModified(snapshot.etag())) {
+            return null; // o Spring já definiu o status 304 e o cabeçalho ETag
+        }
+        return ResponseEntity.ok()
+            .eTag(snapshot.etag())
+            .cacheControl(CacheControl.noCache())
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(snapshot.body());
+    }
+}
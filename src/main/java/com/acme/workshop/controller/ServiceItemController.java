@@ -2,9 +2,7 @@ package com.acme.workshop.controller;
 
 import com.acme.workshop.dto.ServiceItemDTO;
 import com.acme.workshop.model.ServiceItem;
-import com.acme.workshop.model.ServiceOrder;
 import com.acme.workshop.service.ServiceItemService;
-import com.acme.workshop.service.ServiceOrderService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -19,12 +17,9 @@ import java.util.stream.Collectors;
 public class ServiceItemController {
     
     private final ServiceItemService serviceItemService;
-    private final ServiceOrderService serviceOrderService;
 
-    public ServiceItemController(ServiceItemService serviceItemService, 
-                                ServiceOrderService serviceOrderService) {
+    public ServiceItemController(ServiceItemService serviceItemService) {
         this.serviceItemService = serviceItemService;
-        this.serviceOrderService = serviceOrderService;
     }
 
     @PostMapping
@@ -67,21 +62,7 @@ public class ServiceItemController {
     public ResponseEntity<ServiceItemDTO> updateServiceItem(
             @PathVariable Long id,
             @Valid @RequestBody ServiceItemDTO serviceItemDTO) {
-        // Buscar o item existente
-        ServiceOrder order = serviceOrderService.findById(serviceItemDTO.getServiceOrderId())
-            .orElseThrow(() -> new IllegalArgumentException("Ordem de serviço não encontrada"));
-        
-        ServiceItem existingItem = order.getServiceItems().stream()
-            .filter(item -> item.getId().equals(id))
-            .findFirst()
-            .orElseThrow(() -> new IllegalArgumentException("Item de serviço não encontrado"));
-        
-        // Atualizar os campos
-        existingItem.setDescription(serviceItemDTO.getDescription());
-        existingItem.setLaborCost(serviceItemDTO.getLaborCost());
-        existingItem.setQuantity(serviceItemDTO.getQuantity());
-        
-        ServiceItem updatedItem = serviceItemService.save(existingItem);
+        ServiceItem updatedItem = serviceItemService.update(id, convertToEntity(serviceItemDTO));
         return ResponseEntity.ok(convertToDTO(updatedItem));
     }
 
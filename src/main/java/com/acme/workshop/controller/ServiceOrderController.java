@@ -4,29 +4,98 @@ import com.acme.workshop.dto.*;
 import com.acme.workshop.facade.WorkshopFacade;
 import com.acme.workshop.model.ServiceOrder;
 import com.acme.workshop.service.ServiceOrderService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/service-orders")
 public class ServiceOrderController {
     
+    static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
+
     private final WorkshopFacade workshopFacade;
     private final ServiceOrderService serviceOrderService;
+    private final ObjectMapper objectMapper;
 
-    public ServiceOrderController(WorkshopFacade workshopFacade, ServiceOrderService serviceOrderService) {
+    public ServiceOrderController(WorkshopFacade workshopFacade, ServiceOrderService serviceOrderService,
+                                  ObjectMapper objectMapper) {
         this.workshopFacade = workshopFacade;
         this.serviceOrderService = serviceOrderService;
+        this.objectMapper = objectMapper;
     }
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
+    // Listagem paginada por cursor; o token da próxima página vai no header X-Next-Cursor
     @GetMapping
-    public ResponseEntity<List<ServiceOrderSummaryDTO>> getAllServiceOrders() {
-        return ResponseEntity.ok(workshopFacade.getServiceOrderSummaries());
+    public ResponseEntity<List<ServiceOrderSummaryDTO>> getAllServiceOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) ServiceOrder.ServiceStatus status,
+            @RequestParam(required = false) Long technicianId,
+            @RequestParam(required = false) Long customerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        ServiceOrderFilterDTO filter = new ServiceOrderFilterDTO();
+        filter.setStatus(status);
+        filter.setTechnicianId(technicianId);
+        filter.setCustomerId(customerId);
+        filter.setFrom(from);
+        filter.setTo(to);
+
+        ServiceOrderSummaryPageDTO page;
+        try {
+            page = workshopFacade.getServiceOrderSummaries(filter, cursor, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+
+    // Exportação de todas as OS em NDJSON (uma OS completa por linha), escrita direto no output stream
+    @GetMapping(value = "/export", produces = NDJSON_CONTENT_TYPE)
+    public void exportServiceOrders(HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON_CONTENT_TYPE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"service-orders.ndjson\"");
+
+        OutputStream out = response.getOutputStream();
+        workshopFacade.exportServiceOrders(order -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(order));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        out.flush();
     }
 
     // --- O MÉTODO QUE FALTAVA (POST) ---
@@ -45,12 +114,67 @@ public class ServiceOrderController {
     }
     // -----------------------------------
 
+    // Importação em lote: lista JSON ou NDJSON (uma OS por linha). Responde 200 com o resultado de
+    // cada linha, na ordem recebida; linhas recusadas não impedem a criação das demais.
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<ServiceOrderImportResultDTO>> importServiceOrders(
+            @RequestBody List<ServiceOrderRequestDTO> rows) {
+        return importRows(rows);
+    }
+
+    @PostMapping(value = "/bulk", consumes = NDJSON_CONTENT_TYPE)
+    public ResponseEntity<List<ServiceOrderImportResultDTO>> importServiceOrdersNdjson(
+            HttpServletRequest request) throws IOException {
+        List<ServiceOrderRequestDTO> rows = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            if (rows.size() == WorkshopFacade.MAX_IMPORT_ROWS) {
+                return ResponseEntity.badRequest().build();
+            }
+            // Linha com JSON inválido vira uma linha recusada no resultado, não um erro da requisição
+            ServiceOrderRequestDTO row;
+            try {
+                row = objectMapper.readValue(line, ServiceOrderRequestDTO.class);
+            } catch (JsonProcessingException e) {
+                row = null;
+            }
+            rows.add(row);
+        }
+        return importRows(rows);
+    }
+
+    private ResponseEntity<List<ServiceOrderImportResultDTO>> importRows(List<ServiceOrderRequestDTO> rows) {
+        try {
+            return ResponseEntity.ok(workshopFacade.importServiceOrders(rows));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PutMapping("/{id}/status")
     public ResponseEntity<ServiceOrderResponseDTO> updateServiceOrderStatus(
             @PathVariable Long id,
             @RequestBody ServiceOrder.ServiceStatus newStatus) {
-        ServiceOrderResponseDTO updatedOrder = workshopFacade.updateServiceOrderStatus(id, newStatus);
-        return ResponseEntity.ok(updatedOrder);
+        try {
+            return ResponseEntity.ok(workshopFacade.updateServiceOrderStatus(id, newStatus));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Troca de status em lote: um resultado por OS (aplicada ou recusada com o motivo)
+    @PutMapping("/status")
+    public ResponseEntity<List<ServiceOrderStatusResultDTO>> updateServiceOrderStatuses(
+            @Valid @RequestBody ServiceOrderStatusBatchRequestDTO requestDTO) {
+        try {
+            return ResponseEntity.ok(workshopFacade.updateServiceOrderStatuses(requestDTO));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/customer/{customerId}")
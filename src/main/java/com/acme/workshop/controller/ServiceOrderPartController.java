@@ -1,7 +1,9 @@
 package com.acme.workshop.controller;
 
+import com.acme.workshop.dto.PartCatalogEntry;
 import com.acme.workshop.dto.ServiceOrderPartDTO;
 import com.acme.workshop.model.ServiceOrderPart;
+import com.acme.workshop.service.PartCatalog;
 import com.acme.workshop.service.ServiceOrderPartService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -16,9 +18,11 @@ import java.util.stream.Collectors;
 public class ServiceOrderPartController {
     
     private final ServiceOrderPartService serviceOrderPartService;
+    private final PartCatalog partCatalog;
 
-    public ServiceOrderPartController(ServiceOrderPartService serviceOrderPartService) {
+    public ServiceOrderPartController(ServiceOrderPartService serviceOrderPartService, PartCatalog partCatalog) {
         this.serviceOrderPartService = serviceOrderPartService;
+        this.partCatalog = partCatalog;
     }
 
     @PostMapping
@@ -26,7 +30,12 @@ public class ServiceOrderPartController {
             @PathVariable Long orderId,
             @RequestParam Long partId,
             @RequestParam Integer quantity) {
-        ServiceOrderPart orderPart = serviceOrderPartService.addPartToOrder(orderId, partId, quantity);
+        ServiceOrderPart orderPart;
+        try {
+            orderPart = serviceOrderPartService.addPartToOrder(orderId, partId, quantity);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
         ServiceOrderPartDTO responseDTO = convertToDTO(orderPart);
         
         URI location = ServletUriComponentsBuilder
@@ -51,25 +60,33 @@ public class ServiceOrderPartController {
             @PathVariable Long orderId,
             @PathVariable Long orderPartId,
             @RequestParam Integer quantity) {
-        ServiceOrderPart updatedPart = serviceOrderPartService.updateQuantity(orderPartId, quantity);
-        return ResponseEntity.ok(convertToDTO(updatedPart));
+        try {
+            return ResponseEntity.ok(convertToDTO(serviceOrderPartService.updateQuantity(orderPartId, quantity)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @DeleteMapping("/{orderPartId}")
     public ResponseEntity<Void> removePartFromOrder(
             @PathVariable Long orderId,
             @PathVariable Long orderPartId) {
-        serviceOrderPartService.removePartFromOrder(orderPartId);
+        try {
+            serviceOrderPartService.removePartFromOrder(orderPartId);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
         return ResponseEntity.noContent().build();
     }
 
     private ServiceOrderPartDTO convertToDTO(ServiceOrderPart orderPart) {
+        PartCatalogEntry part = partCatalog.describe(orderPart.getPart());
         ServiceOrderPartDTO dto = new ServiceOrderPartDTO();
         dto.setId(orderPart.getId());
         dto.setServiceOrderId(orderPart.getServiceOrder().getId());
-        dto.setPartId(orderPart.getPart().getId());
-        dto.setPartName(orderPart.getPart().getName());
-        dto.setPartCode(orderPart.getPart().getCode());
+        dto.setPartId(part.id());
+        dto.setPartName(part.name());
+        dto.setPartCode(part.code());
         dto.setQuantity(orderPart.getQuantity());
         dto.setUnitPrice(orderPart.getUnitPrice());
         dto.setTotalCost(orderPart.getTotalCost());
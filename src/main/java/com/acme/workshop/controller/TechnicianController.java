@@ -4,10 +4,10 @@ import com.acme.workshop.dto.TechnicianDTO;
 import com.acme.workshop.model.Technician;
 import com.acme.workshop.service.TechnicianService;
 import com.acme.workshop.facade.WorkshopFacade;
-import com.acme.workshop.dto.TechnicianSelectDTO;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
@@ -95,9 +95,9 @@ public class TechnicianController {
         technician.setSpecialization(dto.getSpecialization());
         return technician;
     }
-    @GetMapping("/select") // Endpoint: /api/customers/select
-        public ResponseEntity<List<TechnicianSelectDTO>> getCustomersForDropdown() {
-            return ResponseEntity.ok(workshopFacade.getTechniciansForSelect());
+    @GetMapping("/select") // Endpoint: /api/technicians/select
+    public ResponseEntity<byte[]> getTechniciansForDropdown(WebRequest request) {
+        return SelectSnapshotResponses.of(workshopFacade.getTechniciansForSelect(), request);
     }
 
 }
\ No newline at end of file
@@ -1,11 +1,12 @@
 package com.acme.workshop.controller;
 
 import com.acme.workshop.dto.VehicleDTO;
-import com.acme.workshop.dto.VehicleSelectDTO;
+import com.acme.workshop.dto.VehiclePlateMatchDTO;
 import com.acme.workshop.facade.WorkshopFacade;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -39,14 +40,27 @@ public class VehicleController {
     public ResponseEntity<List<VehicleDTO>> getVehiclesByCustomer(@PathVariable Long customerId) {
         return ResponseEntity.ok(workshopFacade.getVehiclesByCustomer(customerId));
     }
+    // Busca por trecho da placa: primeiro as que começam com ele, depois as que terminam com ele
+    @GetMapping("/search/plate")
+    public ResponseEntity<List<VehiclePlateMatchDTO>> searchByPlate(
+            @RequestParam String plate,
+            @RequestParam(defaultValue = "10") int limit) {
+        // Limite fora do permitido: 400
+        try {
+            return ResponseEntity.ok(workshopFacade.searchVehiclesByPlate(plate, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<VehicleDTO> updateVehicle(@PathVariable Long id, @RequestBody VehicleDTO vehicleDTO) {
         // Lembre-se de adicionar o método updateVehicle no WorkshopFacade também
         return ResponseEntity.ok(workshopFacade.updateVehicle(id, vehicleDTO));
     }
-    @GetMapping("/select") // Endpoint: /api/customers/select
-    public ResponseEntity<List<VehicleSelectDTO>> getVehiclesForDropdown() {
-        return ResponseEntity.ok(workshopFacade.getVehiclesForSelect());
+    @GetMapping("/select") // Endpoint: /api/vehicles/select
+    public ResponseEntity<byte[]> getVehiclesForDropdown(WebRequest request) {
+        return SelectSnapshotResponses.of(workshopFacade.getVehiclesForSelect(), request);
     }
 
     @DeleteMapping("/{id}")
@@ -0,0 +1,5 @@
+package com.acme.workshop.dto;
+
+// Campos do cliente que alimentam o índice de busca por digitação
+public record CustomerSearchEntry(Long id, String name, String email, String phone) {
+}
@@ -0,0 +1,7 @@
+package com.acme.workshop.dto;
+
+// Peça com estoque igual ou abaixo do ponto de reposição, com o consumo diário estimado (EWMA)
+// e a quantidade sugerida para reposição
+public record LowStockPartDTO(Long partId, String code, String name, int stock, int reorderThreshold,
+                              double dailyConsumption, int suggestedReorderQuantity) {
+}
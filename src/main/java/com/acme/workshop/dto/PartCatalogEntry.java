@@ -0,0 +1,8 @@
+package com.acme.workshop.dto;
+
+import java.math.BigDecimal;
+
+// Dados estáveis de uma peça, próprios para cache. O estoque fica de fora de propósito:
+// ele muda a cada OS e é sempre lido do banco.
+public record PartCatalogEntry(Long id, String code, String name, BigDecimal unitPrice, Integer reorderThreshold) {
+}
@@ -8,6 +8,7 @@ public class PartDTO {
     private String code;
     private BigDecimal unitPrice;
     private Integer stock;
+    private Integer reorderThreshold;
 
     // Getters and Setters
     public Long getId() {
@@ -49,5 +50,12 @@ public class PartDTO {
     public void setStock(Integer stock) {
         this.stock = stock;
     }
-}
 
+    public Integer getReorderThreshold() {
+        return reorderThreshold;
+    }
+
+    public void setReorderThreshold(Integer reorderThreshold) {
+        this.reorderThreshold = reorderThreshold;
+    }
+}
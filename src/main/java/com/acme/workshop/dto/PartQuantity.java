@@ -0,0 +1,5 @@
+package com.acme.workshop.dto;
+
+// Quantidade total de uma peça somada sobre várias linhas de OS
+public record PartQuantity(Long partId, Long quantity) {
+}
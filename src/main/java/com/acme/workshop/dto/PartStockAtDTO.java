@@ -0,0 +1,8 @@
+package com.acme.workshop.dto;
+
+import java.time.LocalDateTime;
+
+// Saldo de uma peça numa data, montado a partir do último snapshot até ela (snapshotAt nulo se
+// não havia nenhum) e dos tailMovements movimentos posteriores
+public record PartStockAtDTO(Long partId, LocalDateTime at, int stock, LocalDateTime snapshotAt, int tailMovements) {
+}
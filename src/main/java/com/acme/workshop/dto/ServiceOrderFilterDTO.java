@@ -0,0 +1,25 @@
+package com.acme.workshop.dto;
+
+import com.acme.workshop.model.ServiceOrder.ServiceStatus;
+import java.time.LocalDateTime;
+
+// Filtros opcionais da listagem de OS (null = sem filtro)
+public class ServiceOrderFilterDTO {
+    private ServiceStatus status;
+    private Long technicianId;
+    private Long customerId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    // Getters e Setters
+    public ServiceStatus getStatus() { return status; }
+    public void setStatus(ServiceStatus status) { this.status = status; }
+    public Long getTechnicianId() { return technicianId; }
+    public void setTechnicianId(Long technicianId) { this.technicianId = technicianId; }
+    public Long getCustomerId() { return customerId; }
+    public void setCustomerId(Long customerId) { this.customerId = customerId; }
+    public LocalDateTime getFrom() { return from; }
+    public void setFrom(LocalDateTime from) { this.from = from; }
+    public LocalDateTime getTo() { return to; }
+    public void setTo(LocalDateTime to) { this.to = to; }
+}
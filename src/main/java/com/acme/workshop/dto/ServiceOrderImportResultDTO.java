@@ -0,0 +1,18 @@
+package com.acme.workshop.dto;
+
+import java.math.BigDecimal;
+
+// Resultado de uma linha da importação em lote: a OS criada ou o motivo da recusa
+public record ServiceOrderImportResultDTO(int index, Status status, Long serviceOrderId,
+                                          BigDecimal totalCost, String error) {
+
+    public enum Status { CREATED, FAILED }
+
+    public static ServiceOrderImportResultDTO created(int index, Long serviceOrderId, BigDecimal totalCost) {
+        return new ServiceOrderImportResultDTO(index, Status.CREATED, serviceOrderId, totalCost, null);
+    }
+
+    public static ServiceOrderImportResultDTO failed(int index, String error) {
+        return new ServiceOrderImportResultDTO(index, Status.FAILED, null, null, error);
+    }
+}
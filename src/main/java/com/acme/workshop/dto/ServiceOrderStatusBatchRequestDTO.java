@@ -0,0 +1,22 @@
+package com.acme.workshop.dto;
+
+import com.acme.workshop.model.ServiceOrder.ServiceStatus;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Troca de status de várias OS de uma vez (ex.: fechamento do dia)
+public class ServiceOrderStatusBatchRequestDTO {
+    @NotEmpty(message = "Informe ao menos uma OS")
+    private List<Long> ids = new ArrayList<>();
+    @NotNull(message = "Status é obrigatório")
+    private ServiceStatus status;
+
+    // Getters e Setters
+    public List<Long> getIds() { return ids; }
+    public void setIds(List<Long> ids) { this.ids = ids; }
+    public ServiceStatus getStatus() { return status; }
+    public void setStatus(ServiceStatus status) { this.status = status; }
+}
@@ -0,0 +1,17 @@
+package com.acme.workshop.dto;
+
+import com.acme.workshop.model.ServiceOrder.ServiceStatus;
+
+// Resultado da troca de status em lote para uma OS: aplicada (com o status anterior) ou recusada
+public record ServiceOrderStatusResultDTO(Long id, Status status, ServiceStatus previousStatus, String error) {
+
+    public enum Status { UPDATED, REJECTED }
+
+    public static ServiceOrderStatusResultDTO updated(Long id, ServiceStatus previousStatus) {
+        return new ServiceOrderStatusResultDTO(id, Status.UPDATED, previousStatus, null);
+    }
+
+    public static ServiceOrderStatusResultDTO rejected(Long id, ServiceStatus previousStatus, String error) {
+        return new ServiceOrderStatusResultDTO(id, Status.REJECTED, previousStatus, error);
+    }
+}
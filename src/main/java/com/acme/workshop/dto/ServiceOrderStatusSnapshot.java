@@ -0,0 +1,8 @@
+package com.acme.workshop.dto;
+
+import com.acme.workshop.model.ServiceOrder.ServiceStatus;
+
+// Status atual de uma OS e os dados do cliente que vão no evento, sem carregar a entidade
+public record ServiceOrderStatusSnapshot(Long id, ServiceStatus status, Long customerId,
+                                         String customerName, String customerEmail) {
+}
@@ -9,18 +9,20 @@ public class ServiceOrderSummaryDTO {
     private String customerName;
     private String vehicleInfo; // Ex: "Toyota Corolla (ABC-1234)"
     private String technicianName;
+    private String description;
     private ServiceStatus status;
     private LocalDateTime createdAt;
     private BigDecimal totalCost;
 
-    // Construtor
+    // Construtor (também usado pela constructor expression de ServiceOrderRepositoryImpl.findSummaryPage)
     public ServiceOrderSummaryDTO(Long id, String customerName, String vehicleInfo, 
-                                String technicianName, ServiceStatus status, 
+                                String technicianName, String description, ServiceStatus status, 
                                 LocalDateTime createdAt, BigDecimal totalCost) {
         this.id = id;
         this.customerName = customerName;
         this.vehicleInfo = vehicleInfo;
         this.technicianName = technicianName;
+        this.description = description;
         this.status = status;
         this.createdAt = createdAt;
         this.totalCost = totalCost;
@@ -35,6 +37,8 @@ public class ServiceOrderSummaryDTO {
     public void setVehicleInfo(String vehicleInfo) { this.vehicleInfo = vehicleInfo; }
     public String getTechnicianName() { return technicianName; }
     public void setTechnicianName(String technicianName) { this.technicianName = technicianName; }
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
     public ServiceStatus getStatus() { return status; }
     public void setStatus(ServiceStatus status) { this.status = status; }
     public LocalDateTime getCreatedAt() { return createdAt; }
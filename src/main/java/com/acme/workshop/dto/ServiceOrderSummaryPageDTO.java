@@ -0,0 +1,17 @@
+package com.acme.workshop.dto;
+
+import java.util.List;
+
+public class ServiceOrderSummaryPageDTO {
+    private final List<ServiceOrderSummaryDTO> items;
+    private final String nextCursor; // null quando não há mais páginas
+
+    public ServiceOrderSummaryPageDTO(List<ServiceOrderSummaryDTO> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters
+    public List<ServiceOrderSummaryDTO> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+}
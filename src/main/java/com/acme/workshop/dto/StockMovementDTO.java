@@ -0,0 +1,9 @@
+package com.acme.workshop.dto;
+
+import java.time.LocalDateTime;
+
+// Linha do histórico de estoque: quantidade negativa sai do estoque, positiva entra
+public record StockMovementDTO(Long id, Long partId, Type type, int quantity, LocalDateTime createdAt) {
+
+    public enum Type { CONSUMPTION, RETURN, ADJUSTMENT }
+}
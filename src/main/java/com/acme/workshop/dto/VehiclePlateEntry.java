@@ -0,0 +1,5 @@
+package com.acme.workshop.dto;
+
+// Placa de um veículo, usada para montar o índice de busca por placa
+public record VehiclePlateEntry(Long id, String licensePlate) {
+}
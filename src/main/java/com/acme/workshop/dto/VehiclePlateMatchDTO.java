@@ -0,0 +1,6 @@
+package com.acme.workshop.dto;
+
+// Resultado da busca por placa: dados do veículo e do dono numa única projeção
+public record VehiclePlateMatchDTO(Long id, String licensePlate, String brand, String model,
+                                   Long customerId, String customerName) {
+}
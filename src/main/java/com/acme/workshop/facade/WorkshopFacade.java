@@ -2,37 +2,71 @@ package com.acme.workshop.facade;
 
 import com.acme.workshop.dto.*;
 import com.acme.workshop.model.*;
-import com.acme.workshop.repository.PartRepository;
+import com.acme.workshop.repository.ServiceOrderRepository;
 import com.acme.workshop.service.*;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class WorkshopFacade {
-    
+
+    public static final int MAX_IMPORT_ROWS = 1000;
+
     private final CustomerService customerService;
     private final TechnicianService technicianService;
     private final VehicleService vehicleService;
     private final ServiceOrderService serviceOrderService;
-    private final PartRepository partRepository;
+    private final PartService partService;
+    private final PartCatalog partCatalog;
+    private final SelectOptionsSnapshot selectOptionsSnapshot;
     private final WorkServiceService workServiceService;
+    private final ServiceOrderRepository serviceOrderRepository;
+    private final EntityManager entityManager;
+    private final Validator validator;
 
     public WorkshopFacade(
             CustomerService customerService,
             TechnicianService technicianService,
             VehicleService vehicleService,
             ServiceOrderService serviceOrderService,
-            PartRepository partRepository,
-            WorkServiceService workServiceService) {
+            PartService partService,
+            PartCatalog partCatalog,
+            SelectOptionsSnapshot selectOptionsSnapshot,
+            WorkServiceService workServiceService,
+            ServiceOrderRepository serviceOrderRepository,
+            EntityManager entityManager,
+            Validator validator) {
         this.customerService = customerService;
         this.technicianService = technicianService;
         this.vehicleService = vehicleService;
         this.serviceOrderService = serviceOrderService;
-        this.partRepository = partRepository;
+        this.partService = partService;
+        this.partCatalog = partCatalog;
+        this.selectOptionsSnapshot = selectOptionsSnapshot;
         this.workServiceService = workServiceService;
+        this.serviceOrderRepository = serviceOrderRepository;
+        this.entityManager = entityManager;
+        this.validator = validator;
     }
 
     // ==========================================
@@ -41,11 +75,35 @@ public class WorkshopFacade {
 
     @Transactional(readOnly = true)
     public List<ServiceOrderResponseDTO> getAllServiceOrders() {
-        return serviceOrderService.findAll().stream()
+        return serviceOrderService.findAllWithLines().stream()
             .map(this::convertToDTO)
             .collect(Collectors.toList());
     }
 
+    // Exportação completa em streaming: as OS são lidas em lotes de EXPORT_FETCH_SIZE; os itens e as
+    // peças de cada lote vêm em duas consultas (ids IN lote), e o lote sai do contexto de persistência
+    // depois de convertido, mantendo o uso de heap constante independente do número de ordens
+    @Transactional(readOnly = true)
+    public void exportServiceOrders(Consumer<ServiceOrderResponseDTO> sink) {
+        try (Stream<ServiceOrder> orders = serviceOrderRepository.streamAllForExport()) {
+            Iterator<ServiceOrder> iterator = orders.iterator();
+            List<ServiceOrder> batch = new ArrayList<>(ServiceOrderRepository.EXPORT_FETCH_SIZE);
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == ServiceOrderRepository.EXPORT_FETCH_SIZE || !iterator.hasNext()) {
+                    List<Long> ids = batch.stream().map(ServiceOrder::getId).toList();
+                    serviceOrderRepository.fetchItemsByIdIn(ids);
+                    serviceOrderRepository.fetchPartsByIdIn(ids);
+                    batch.forEach(order -> sink.accept(convertToDTO(order)));
+
+                    // Clientes, veículos, técnicos e peças compartilhados saem junto com o lote
+                    batch.clear();
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
     @Transactional
     public ServiceOrderResponseDTO createServiceOrder(ServiceOrderRequestDTO requestDTO) {
         Customer customer = customerService.findById(requestDTO.getCustomerId())
@@ -65,37 +123,22 @@ public class WorkshopFacade {
 
         // Salvar Itens
         if (requestDTO.getServiceItems() != null) {
-            List<ServiceItem> items = requestDTO.getServiceItems().stream().map(itemDto -> {
-                ServiceItem item = new ServiceItem();
-                item.setDescription(itemDto.getDescription());
-                item.setLaborCost(itemDto.getLaborCost());
-                item.setQuantity(itemDto.getQuantity());
-                item.setServiceOrder(serviceOrder);
-                return item;
-            }).collect(Collectors.toList());
-            serviceOrder.setServiceItems(items);
+            serviceOrder.setServiceItems(toServiceItems(serviceOrder, requestDTO.getServiceItems()));
         }
 
-        // Salvar Peças
-        if (requestDTO.getParts() != null) {
-            List<ServiceOrderPart> parts = requestDTO.getParts().stream().map(partDto -> {
-                Part part = partRepository.findById(partDto.getPartId())
-                    .orElseThrow(() -> new IllegalArgumentException("Peça não encontrada ID: " + partDto.getPartId()));
-                
-                if (part.getStock() < partDto.getQuantity()) {
-                    throw new IllegalArgumentException("Estoque insuficiente: " + part.getName());
+        // Salvar Peças: nome e preço do catálogo em cache e baixa de estoque atômica em lote
+        if (requestDTO.getParts() != null && !requestDTO.getParts().isEmpty()) {
+            Map<Long, Integer> quantitiesByPart = partQuantities(requestDTO.getParts());
+
+            Map<Long, PartCatalogEntry> partsById = partCatalog.findAllById(quantitiesByPart.keySet());
+            quantitiesByPart.keySet().forEach(partId -> {
+                if (!partsById.containsKey(partId)) {
+                    throw new IllegalArgumentException("Peça não encontrada ID: " + partId);
                 }
-                part.setStock(part.getStock() - partDto.getQuantity());
-                partRepository.save(part);
-
-                ServiceOrderPart orderPart = new ServiceOrderPart();
-                orderPart.setPart(part);
-                orderPart.setQuantity(partDto.getQuantity());
-                orderPart.setUnitPrice(part.getUnitPrice());
-                orderPart.setServiceOrder(serviceOrder);
-                return orderPart;
-            }).collect(Collectors.toList());
-            serviceOrder.setParts(parts);
+            });
+
+            partService.reserveStock(quantitiesByPart);
+            serviceOrder.setParts(toOrderParts(serviceOrder, requestDTO.getParts(), partsById));
         }
 
         serviceOrder.updateTotalCost();
@@ -103,9 +146,177 @@ public class WorkshopFacade {
         return convertToDTO(savedOrder);
     }
 
+    // Importação em lote (frotas): clientes, veículos, técnicos e peças de todas as linhas são
+    // resolvidos com uma consulta IN por tabela, o estoque é reservado numa única passada e as OS
+    // aceitas são gravadas juntas, com INSERTs em lote JDBC. Uma linha inválida ou sem estoque é
+    // recusada sozinha; as demais seguem.
+    @Transactional
+    public List<ServiceOrderImportResultDTO> importServiceOrders(List<ServiceOrderRequestDTO> rows) {
+        if (rows.size() > MAX_IMPORT_ROWS) {
+            throw new IllegalArgumentException("Importação limitada a " + MAX_IMPORT_ROWS + " OS por requisição");
+        }
+
+        ServiceOrderImportResultDTO[] results = new ServiceOrderImportResultDTO[rows.size()];
+        List<Map<Long, Integer>> quantitiesByRow = new ArrayList<>(Collections.nCopies(rows.size(), null));
+        Set<Long> customerIds = new HashSet<>();
+        Set<Long> vehicleIds = new HashSet<>();
+        Set<Long> technicianIds = new HashSet<>();
+        Set<Long> partIds = new HashSet<>();
+        for (int i = 0; i < rows.size(); i++) {
+            ServiceOrderRequestDTO row = rows.get(i);
+            String error = validateImportRow(row);
+            if (error == null) {
+                try {
+                    quantitiesByRow.set(i, partQuantities(row.getParts()));
+                } catch (IllegalArgumentException e) {
+                    error = e.getMessage();
+                }
+            }
+            if (error != null) {
+                results[i] = ServiceOrderImportResultDTO.failed(i, error);
+                continue;
+            }
+            customerIds.add(row.getCustomerId());
+            vehicleIds.add(row.getVehicleId());
+            technicianIds.add(row.getTechnicianId());
+            partIds.addAll(quantitiesByRow.get(i).keySet());
+        }
+
+        Map<Long, Customer> customers = customerService.findAllById(customerIds).stream()
+            .collect(Collectors.toMap(Customer::getId, Function.identity()));
+        Map<Long, Vehicle> vehicles = vehicleService.findAllById(vehicleIds).stream()
+            .collect(Collectors.toMap(Vehicle::getId, Function.identity()));
+        Map<Long, Technician> technicians = technicianService.findAllById(technicianIds).stream()
+            .collect(Collectors.toMap(Technician::getId, Function.identity()));
+        Map<Long, PartCatalogEntry> partsById = partCatalog.findAllById(partIds);
+
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            ServiceOrderRequestDTO row = rows.get(i);
+            String error = null;
+            if (!customers.containsKey(row.getCustomerId())) {
+                error = "Cliente não encontrado";
+            } else if (!vehicles.containsKey(row.getVehicleId())) {
+                error = "Veículo não encontrado";
+            } else if (!technicians.containsKey(row.getTechnicianId())) {
+                error = "Técnico não encontrado";
+            } else {
+                error = quantitiesByRow.get(i).keySet().stream()
+                    .filter(partId -> !partsById.containsKey(partId))
+                    .findFirst()
+                    .map(partId -> "Peça não encontrada ID: " + partId)
+                    .orElse(null);
+            }
+            if (error != null) {
+                results[i] = ServiceOrderImportResultDTO.failed(i, error);
+            } else {
+                accepted.add(i);
+            }
+        }
+
+        List<List<Long>> shortages = partService.reserveStockInOrder(
+            accepted.stream().map(quantitiesByRow::get).collect(Collectors.toList()));
+
+        List<Integer> orderRows = new ArrayList<>();
+        List<ServiceOrder> orders = new ArrayList<>();
+        for (int k = 0; k < accepted.size(); k++) {
+            int i = accepted.get(k);
+            if (!shortages.get(k).isEmpty()) {
+                String names = shortages.get(k).stream()
+                    .map(partId -> partsById.get(partId).name())
+                    .collect(Collectors.joining(", "));
+                results[i] = ServiceOrderImportResultDTO.failed(i, "Estoque insuficiente: " + names);
+                continue;
+            }
+
+            ServiceOrderRequestDTO row = rows.get(i);
+            ServiceOrder serviceOrder = new ServiceOrderBuilder()
+                .withCustomer(customers.get(row.getCustomerId()))
+                .withVehicle(vehicles.get(row.getVehicleId()))
+                .withTechnician(technicians.get(row.getTechnicianId()))
+                .withDescription(row.getDescription())
+                .withTotalCost(java.math.BigDecimal.ZERO)
+                .build();
+            if (row.getServiceItems() != null) {
+                serviceOrder.setServiceItems(toServiceItems(serviceOrder, row.getServiceItems()));
+            }
+            if (row.getParts() != null) {
+                serviceOrder.setParts(toOrderParts(serviceOrder, row.getParts(), partsById));
+            }
+            serviceOrder.updateTotalCost();
+            orderRows.add(i);
+            orders.add(serviceOrder);
+        }
+
+        List<ServiceOrder> saved = serviceOrderService.saveAll(orders);
+        for (int k = 0; k < saved.size(); k++) {
+            ServiceOrder order = saved.get(k);
+            results[orderRows.get(k)] = ServiceOrderImportResultDTO.created(orderRows.get(k), order.getId(), order.getTotalCost());
+        }
+        return Arrays.asList(results);
+    }
+
+    // Mesmas restrições do @Valid do POST individual; linha nula = JSON inválido no NDJSON
+    private String validateImportRow(ServiceOrderRequestDTO row) {
+        if (row == null) {
+            return "Linha vazia ou com JSON inválido";
+        }
+        Set<ConstraintViolation<ServiceOrderRequestDTO>> violations = validator.validate(row);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+            .map(ConstraintViolation::getMessage)
+            .sorted()
+            .collect(Collectors.joining("; "));
+    }
+
+    private Map<Long, Integer> partQuantities(List<ServiceOrderPartDTO> parts) {
+        Map<Long, Integer> quantitiesByPart = new LinkedHashMap<>();
+        if (parts == null) {
+            return quantitiesByPart;
+        }
+        parts.forEach(partDto -> {
+            if (partDto.getPartId() == null || partDto.getQuantity() == null || partDto.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Peça e quantidade positiva são obrigatórias");
+            }
+            quantitiesByPart.merge(partDto.getPartId(), partDto.getQuantity(), Integer::sum);
+        });
+        return quantitiesByPart;
+    }
+
+    private List<ServiceItem> toServiceItems(ServiceOrder serviceOrder, List<ServiceItemDTO> itemDtos) {
+        return itemDtos.stream().map(itemDto -> {
+            ServiceItem item = new ServiceItem();
+            item.setDescription(itemDto.getDescription());
+            item.setLaborCost(itemDto.getLaborCost());
+            item.setQuantity(itemDto.getQuantity());
+            item.setServiceOrder(serviceOrder);
+            return item;
+        }).collect(Collectors.toList());
+    }
+
+    // Nome e preço vêm do catálogo; a peça entra como referência, sem SELECT
+    private List<ServiceOrderPart> toOrderParts(ServiceOrder serviceOrder, List<ServiceOrderPartDTO> partDtos,
+                                                Map<Long, PartCatalogEntry> partsById) {
+        return partDtos.stream().map(partDto -> {
+            PartCatalogEntry part = partsById.get(partDto.getPartId());
+            ServiceOrderPart orderPart = new ServiceOrderPart();
+            orderPart.setPart(partService.getReference(part.id()));
+            orderPart.setQuantity(partDto.getQuantity());
+            orderPart.setUnitPrice(part.unitPrice());
+            orderPart.setServiceOrder(serviceOrder);
+            return orderPart;
+        }).collect(Collectors.toList());
+    }
+
     @Transactional
     public ServiceOrderResponseDTO updateServiceOrder(Long id, ServiceOrderRequestDTO dto) {
-        ServiceOrder order = serviceOrderService.findById(id)
+        // Bloqueia a OS antes de ler o status: troca de status e edição das peças não correm com um cancelamento
+        ServiceOrder order = serviceOrderService.findByIdForUpdate(id)
             .orElseThrow(() -> new IllegalArgumentException("OS não encontrada"));
         
         order.setDescription(dto.getDescription());
@@ -118,56 +329,141 @@ public class WorkshopFacade {
             order = serviceOrderService.updateStatus(order.getId(), dto.getStatus());
         }
 
-        final ServiceOrder orderRef = order;
-
         if (dto.getServiceItems() != null) {
-            order.getServiceItems().clear();
-            order.getServiceItems().addAll(dto.getServiceItems().stream().map(i -> {
-                ServiceItem item = new ServiceItem();
-                item.setDescription(i.getDescription());
-                item.setLaborCost(i.getLaborCost());
-                item.setQuantity(i.getQuantity());
-                item.setServiceOrder(orderRef);
-                return item;
-            }).collect(Collectors.toList()));
+            reconcileServiceItems(order, dto.getServiceItems());
         }
 
         if (dto.getParts() != null) {
-            order.getParts().forEach(p -> {
-                p.getPart().setStock(p.getPart().getStock() + p.getQuantity());
-                partRepository.save(p.getPart());
-            });
-            order.getParts().clear();
-
-            order.getParts().addAll(dto.getParts().stream().map(pDto -> {
-                Part part = partRepository.findById(pDto.getPartId()).orElseThrow();
-                part.setStock(part.getStock() - pDto.getQuantity());
-                partRepository.save(part);
-
-                ServiceOrderPart sp = new ServiceOrderPart();
-                sp.setPart(part);
-                sp.setQuantity(pDto.getQuantity());
-                sp.setUnitPrice(part.getUnitPrice());
-                sp.setServiceOrder(orderRef);
-                return sp;
-            }).collect(Collectors.toList()));
+            reconcileParts(order, dto.getParts());
         }
 
         order.updateTotalCost();
         return convertToDTO(serviceOrderService.save(order));
     }
 
+    // Diff das linhas pelo id: linha com id é atualizada só nos campos que mudaram, linha sem id é
+    // nova e linha ausente do DTO é removida. Linhas iguais não geram UPDATE.
+    private void reconcileServiceItems(ServiceOrder order, List<ServiceItemDTO> itemDtos) {
+        Map<Long, ServiceItem> remaining = order.getServiceItems().stream()
+            .collect(Collectors.toMap(ServiceItem::getId, Function.identity()));
+        List<ServiceItemDTO> added = new ArrayList<>();
+        for (ServiceItemDTO itemDto : itemDtos) {
+            if (itemDto.getId() == null) {
+                added.add(itemDto);
+                continue;
+            }
+            ServiceItem item = remaining.remove(itemDto.getId());
+            if (item == null) {
+                throw new IllegalArgumentException("Item não pertence à OS: " + itemDto.getId());
+            }
+            if (!Objects.equals(item.getDescription(), itemDto.getDescription())) {
+                item.setDescription(itemDto.getDescription());
+            }
+            if (!sameAmount(item.getLaborCost(), itemDto.getLaborCost())) {
+                item.setLaborCost(itemDto.getLaborCost());
+            }
+            if (!Objects.equals(item.getQuantity(), itemDto.getQuantity())) {
+                item.setQuantity(itemDto.getQuantity());
+            }
+        }
+        order.getServiceItems().removeAll(remaining.values());
+        order.getServiceItems().addAll(toServiceItems(order, added));
+    }
+
+    // Mesmo diff para as peças. O estoque se move só pela diferença líquida por peça entre as
+    // linhas antigas e as novas: uma baixa e uma devolução em lote, no máximo. Linhas mantidas
+    // guardam o preço unitário da época; só linhas novas ou com outra peça leem o catálogo.
+    private void reconcileParts(ServiceOrder order, List<ServiceOrderPartDTO> partDtos) {
+        Map<Long, Integer> deltas = new HashMap<>(partQuantities(partDtos));
+        order.getParts().forEach(line -> deltas.merge(line.getPart().getId(), -line.getQuantity(), Integer::sum));
+
+        Map<Long, ServiceOrderPart> remaining = order.getParts().stream()
+            .collect(Collectors.toMap(ServiceOrderPart::getId, Function.identity()));
+        Map<ServiceOrderPart, ServiceOrderPartDTO> changed = new LinkedHashMap<>();
+        List<ServiceOrderPartDTO> added = new ArrayList<>();
+        Set<Long> repricedPartIds = new HashSet<>();
+        for (ServiceOrderPartDTO partDto : partDtos) {
+            if (partDto.getId() == null) {
+                added.add(partDto);
+                repricedPartIds.add(partDto.getPartId());
+                continue;
+            }
+            ServiceOrderPart line = remaining.remove(partDto.getId());
+            if (line == null) {
+                throw new IllegalArgumentException("Peça não pertence à OS: " + partDto.getId());
+            }
+            boolean otherPart = !line.getPart().getId().equals(partDto.getPartId());
+            if (otherPart || !line.getQuantity().equals(partDto.getQuantity())) {
+                changed.put(line, partDto);
+            }
+            if (otherPart) {
+                repricedPartIds.add(partDto.getPartId());
+            }
+        }
+        if (changed.isEmpty() && added.isEmpty() && remaining.isEmpty()) {
+            return;
+        }
+        serviceOrderService.requireStockChangesAllowed(order);
+
+        Map<Long, PartCatalogEntry> partsById = partCatalog.findAllById(repricedPartIds);
+        repricedPartIds.forEach(partId -> {
+            if (!partsById.containsKey(partId)) {
+                throw new IllegalArgumentException("Peça não encontrada ID: " + partId);
+            }
+        });
+
+        Map<Long, Integer> consumed = new HashMap<>();
+        Map<Long, Integer> returned = new HashMap<>();
+        deltas.forEach((partId, delta) -> {
+            if (delta > 0) {
+                consumed.put(partId, delta);
+            } else if (delta < 0) {
+                returned.put(partId, -delta);
+            }
+        });
+        if (!consumed.isEmpty()) {
+            partService.reserveStock(consumed);
+        }
+        if (!returned.isEmpty()) {
+            partService.returnStock(returned);
+        }
+
+        changed.forEach((line, partDto) -> {
+            if (!line.getPart().getId().equals(partDto.getPartId())) {
+                PartCatalogEntry part = partsById.get(partDto.getPartId());
+                line.setPart(partService.getReference(part.id()));
+                line.setUnitPrice(part.unitPrice());
+            }
+            if (!line.getQuantity().equals(partDto.getQuantity())) {
+                line.setQuantity(partDto.getQuantity());
+            }
+        });
+        order.getParts().removeAll(remaining.values());
+        order.getParts().addAll(toOrderParts(order, added, partsById));
+    }
+
+    private static boolean sameAmount(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
+    }
+
     @Transactional
     public ServiceOrderResponseDTO updateServiceOrderStatus(Long orderId, ServiceOrder.ServiceStatus newStatus) {
         return convertToDTO(serviceOrderService.updateStatus(orderId, newStatus));
     }
 
+    @Transactional
+    public List<ServiceOrderStatusResultDTO> updateServiceOrderStatuses(ServiceOrderStatusBatchRequestDTO dto) {
+        return serviceOrderService.updateStatuses(dto.getIds(), dto.getStatus());
+    }
+
+    @Transactional(readOnly = true)
     public List<ServiceOrderResponseDTO> getCustomerServiceOrders(Long customerId) {
-        return serviceOrderService.findByCustomerId(customerId).stream().map(this::convertToDTO).collect(Collectors.toList());
+        return serviceOrderService.findByCustomerIdWithLines(customerId).stream().map(this::convertToDTO).collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<ServiceOrderResponseDTO> getTechnicianServiceOrders(Long technicianId) {
-        return serviceOrderService.findByTechnicianId(technicianId).stream().map(this::convertToDTO).collect(Collectors.toList());
+        return serviceOrderService.findByTechnicianIdWithLines(technicianId).stream().map(this::convertToDTO).collect(Collectors.toList());
     }
 
     // --- CONVERSOR PRINCIPAL ---
@@ -201,12 +497,13 @@ public class WorkshopFacade {
         // Converter Listas de Peças (CORRIGIDO PARA INCLUIR ID E LISTA)
         if (serviceOrder.getParts() != null) {
             dto.setParts(serviceOrder.getParts().stream().map(part -> {
+                PartCatalogEntry catalogEntry = partCatalog.describe(part.getPart());
                 ServiceOrderPartDTO pDto = new ServiceOrderPartDTO();
                 pDto.setId(part.getId());
                 pDto.setServiceOrderId(serviceOrder.getId()); // ID da OS
-                pDto.setPartId(part.getPart().getId());
-                pDto.setPartName(part.getPart().getName());
-                pDto.setPartCode(part.getPart().getCode());
+                pDto.setPartId(catalogEntry.id());
+                pDto.setPartName(catalogEntry.name());
+                pDto.setPartCode(catalogEntry.code());
                 pDto.setQuantity(part.getQuantity());
                 pDto.setUnitPrice(part.getUnitPrice());
                 pDto.setTotalCost(part.getTotalCost());
@@ -275,6 +572,7 @@ public class WorkshopFacade {
         return convertToVehicleDTO(vehicleService.save(v));
     }
     public void deleteVehicle(Long id) { vehicleService.delete(id); }
+    public List<VehiclePlateMatchDTO> searchVehiclesByPlate(String plate, int limit) { return vehicleService.searchByPlate(plate, limit); }
     public List<VehicleDTO> getVehiclesByCustomer(Long id) { return vehicleService.findByCustomerId(id).stream().map(this::convertToVehicleDTO).collect(Collectors.toList()); }
 
     public List<TechnicianDTO> getAllTechnicians() { return technicianService.findAll().stream().map(this::convertToTechnicianDTO).collect(Collectors.toList()); }
@@ -284,18 +582,10 @@ public class WorkshopFacade {
     public void deleteTechnician(Long id) { technicianService.delete(id); }
     public List<TechnicianDTO> searchTechnicians(String s) { return technicianService.findBySpecialization(s).stream().map(this::convertToTechnicianDTO).collect(Collectors.toList()); }
     @Transactional(readOnly = true)
-    public List<ServiceOrderSummaryDTO> getServiceOrderSummaries() {
-        return serviceOrderService.findAll().stream()
-            .map(order -> new ServiceOrderSummaryDTO(
-                order.getId(),
-                order.getCustomer().getName(),
-                order.getVehicle().getBrand() + " " + order.getVehicle().getModel() + " (" + order.getVehicle().getLicensePlate() + ")",
-                order.getTechnician().getName(),
-                order.getStatus(),
-                order.getCreatedAt(),
-                order.getTotalCost()
-            ))
-            .collect(Collectors.toList());
+    public ServiceOrderSummaryPageDTO getServiceOrderSummaries(ServiceOrderFilterDTO filter, String cursor, int limit) {
+        // Projeção direta no repositório: um único SELECT, sem grafo de entidades no contexto de persistência
+        ServiceOrderCursor position = cursor != null && !cursor.isBlank() ? ServiceOrderCursor.decode(cursor) : null;
+        return serviceOrderService.findSummaryPage(filter, position, limit);
     }
 
     @Transactional(readOnly = true)
@@ -305,21 +595,16 @@ public class WorkshopFacade {
         return convertToDTO(order);
     }
 
-    public List<CustomerSelectDTO> getCustomersForSelect() {
-        return customerService.findAll().stream()
-            .map(c -> new CustomerSelectDTO(c.getId(), c.getName()))
-            .collect(Collectors.toList());
+    // Listas dos dropdowns servidas do snapshot em memória, já serializadas
+    public SelectOptionsSnapshot.Snapshot getCustomersForSelect() {
+        return selectOptionsSnapshot.get(SelectOptionsSnapshot.Kind.CUSTOMERS);
     }
 
-    public List<VehicleSelectDTO> getVehiclesForSelect() {
-        return vehicleService.findAll().stream()
-            .map(v -> new VehicleSelectDTO(v.getId(), v.getBrand(), v.getModel(), v.getLicensePlate(), v.getId()))
-            .collect(Collectors.toList());
+    public SelectOptionsSnapshot.Snapshot getVehiclesForSelect() {
+        return selectOptionsSnapshot.get(SelectOptionsSnapshot.Kind.VEHICLES);
     }
 
-    public List<TechnicianSelectDTO> getTechniciansForSelect() {
-        return technicianService.findAll().stream()
-            .map(t -> new TechnicianSelectDTO(t.getId(), t.getName()))
-            .collect(Collectors.toList());
+    public SelectOptionsSnapshot.Snapshot getTechniciansForSelect() {
+        return selectOptionsSnapshot.get(SelectOptionsSnapshot.Kind.TECHNICIANS);
     }
 }
\ No newline at end of file
@@ -1,15 +1,21 @@
 package com.acme.workshop.model;
 
+import com.acme.workshop.service.SelectOptionsEntityListener;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners(SelectOptionsEntityListener.class)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "customers")
 @Table(name = "customers")
 public class Customer {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customers_seq")
+    @SequenceGenerator(name = "customers_seq", sequenceName = "customers_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -25,6 +31,7 @@ public class Customer {
     private String address;
 
     @OneToMany(mappedBy = "customer", cascade = CascadeType.ALL)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "customers.vehicles")
     private List<Vehicle> vehicles = new ArrayList<>();
 
     @OneToMany(mappedBy = "customer")
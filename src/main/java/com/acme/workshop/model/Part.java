@@ -10,9 +10,13 @@ import java.util.List;
 public class Part {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "parts_seq")
+    @SequenceGenerator(name = "parts_seq", sequenceName = "parts_id_seq", allocationSize = 50)
     private Long id;
 
+    @Version
+    private Long version;
+
     @Column(nullable = false)
     private String name;
 
@@ -25,6 +29,10 @@ public class Part {
     @Column(nullable = false)
     private Integer stock;
 
+    // Ponto de reposição; 0 deixa a peça fora do alerta de estoque baixo
+    @Column(nullable = false)
+    private Integer reorderThreshold = 0;
+
     @OneToMany(mappedBy = "part", cascade = CascadeType.ALL)
     private List<ServiceOrderPart> serviceOrderParts = new ArrayList<>();
 
@@ -37,6 +45,14 @@ public class Part {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getName() {
         return name;
     }
@@ -69,6 +85,14 @@ public class Part {
         this.stock = stock;
     }
 
+    public Integer getReorderThreshold() {
+        return reorderThreshold;
+    }
+
+    public void setReorderThreshold(Integer reorderThreshold) {
+        this.reorderThreshold = reorderThreshold;
+    }
+
     public List<ServiceOrderPart> getServiceOrderParts() {
         return serviceOrderParts;
     }
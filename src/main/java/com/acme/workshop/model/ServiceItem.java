@@ -8,7 +8,8 @@ import java.math.BigDecimal;
 public class ServiceItem {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "service_items_seq")
+    @SequenceGenerator(name = "service_items_seq", sequenceName = "service_items_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 
 @Entity
@@ -11,9 +12,15 @@ import java.util.List;
 public class ServiceOrder {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Ids de sequência reservados em blocos de 50: ao contrário de IDENTITY, permite ao Hibernate
+    // agrupar os INSERTs da OS, itens e peças em lotes JDBC
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "service_orders_seq")
+    @SequenceGenerator(name = "service_orders_seq", sequenceName = "service_orders_id_seq", allocationSize = 50)
     private Long id;
 
+    @Version
+    private Long version;
+
     @ManyToOne
     @JoinColumn(name = "customer_id", nullable = false)
     private Customer customer;
@@ -77,7 +84,27 @@ public class ServiceOrder {
         PENDING,
         IN_PROGRESS,
         COMPLETED,
-        CANCELED
+        CANCELED;
+
+        // Tabela de transições pré-calculada: uma linha (EnumSet) por status de origem.
+        // Consultá-la não aloca nada; COMPLETED e CANCELED são finais.
+        private EnumSet<ServiceStatus> next;
+
+        static {
+            PENDING.next = EnumSet.of(IN_PROGRESS, COMPLETED, CANCELED);
+            IN_PROGRESS.next = EnumSet.of(COMPLETED, CANCELED);
+            COMPLETED.next = EnumSet.noneOf(ServiceStatus.class);
+            CANCELED.next = EnumSet.noneOf(ServiceStatus.class);
+        }
+
+        public boolean canTransitionTo(ServiceStatus target) {
+            return next.contains(target);
+        }
+
+        // Só OS em aberto aceitam mudanças que movem estoque (incluir, alterar ou remover peças)
+        public boolean allowsStockChanges() {
+            return !next.isEmpty();
+        }
     }
 
     // Getters and Setters
@@ -89,6 +116,14 @@ public class ServiceOrder {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Customer getCustomer() {
         return customer;
     }
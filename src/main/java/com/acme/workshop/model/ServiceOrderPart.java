@@ -8,9 +8,13 @@ import java.math.BigDecimal;
 public class ServiceOrderPart {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "service_order_parts_seq")
+    @SequenceGenerator(name = "service_order_parts_seq", sequenceName = "service_order_parts_id_seq", allocationSize = 50)
     private Long id;
 
+    @Version
+    private Long version;
+
     @ManyToOne
     @JoinColumn(name = "service_order_id", nullable = false)
     private ServiceOrder serviceOrder;
@@ -42,6 +46,14 @@ public class ServiceOrderPart {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public ServiceOrder getServiceOrder() {
         return serviceOrder;
     }
@@ -1,15 +1,21 @@
 package com.acme.workshop.model;
 
+import com.acme.workshop.service.SelectOptionsEntityListener;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners(SelectOptionsEntityListener.class)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "technicians")
 @Table(name = "technicians")
 public class Technician {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "technicians_seq")
+    @SequenceGenerator(name = "technicians_seq", sequenceName = "technicians_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
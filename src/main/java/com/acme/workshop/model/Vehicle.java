@@ -1,13 +1,19 @@
 package com.acme.workshop.model;
 
+import com.acme.workshop.service.SelectOptionsEntityListener;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@EntityListeners(SelectOptionsEntityListener.class)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "vehicles")
 @Table(name = "vehicles")
 public class Vehicle {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "vehicles_seq")
+    @SequenceGenerator(name = "vehicles_seq", sequenceName = "vehicles_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
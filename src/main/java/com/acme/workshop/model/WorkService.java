@@ -1,13 +1,17 @@
 package com.acme.workshop.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.math.BigDecimal;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "work-services")
 @Table(name = "work_services")
 public class WorkService {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "work_services_seq")
+    @SequenceGenerator(name = "work_services_seq", sequenceName = "work_services_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -1,14 +1,28 @@
 package com.acme.workshop.repository;
 
+import com.acme.workshop.dto.CustomerSearchEntry;
+import com.acme.workshop.dto.CustomerSelectDTO;
 import com.acme.workshop.model.Customer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import java.util.Optional;
+
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Override
+    List<Customer> findAll();
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Customer> findByEmail(String email);
     
     List<Customer> findByNameContainingIgnoreCase(String name);
@@ -16,4 +30,12 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
     boolean existsByEmail(String email);
     
     List<Customer> findByPhoneContaining(String phone);
-}
\ No newline at end of file
+
+    @Query("SELECT new com.acme.workshop.dto.CustomerSelectDTO(c.id, c.name) FROM Customer c ORDER BY c.id")
+    List<CustomerSelectDTO> findAllForSelect();
+
+    // Carga do índice de busca em lotes por id (keyset), sem materializar entidades
+    @Query("SELECT new com.acme.workshop.dto.CustomerSearchEntry(c.id, c.name, c.email, c.phone) " +
+           "FROM Customer c WHERE c.id > :afterId ORDER BY c.id")
+    List<CustomerSearchEntry> findSearchEntriesAfter(@Param("afterId") Long afterId, Pageable pageable);
+}
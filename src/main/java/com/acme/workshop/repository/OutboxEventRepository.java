@@ -0,0 +1,41 @@
+package com.acme.workshop.repository;
+
+import com.acme.workshop.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Seleciona um lote de eventos pendentes cuja próxima tentativa já venceu. As linhas ficam
+    // bloqueadas até o fim da transação e outras réplicas pulam as bloqueadas (SKIP LOCKED) em vez
+    // de esperar; quem reivindica grava next_attempt_at antes do commit para mantê-las reservadas.
+    @Query(value = "SELECT * FROM outbox WHERE processed_at IS NULL AND attempts < :maxAttempts " +
+                   "AND (next_attempt_at IS NULL OR next_attempt_at <= :now) " +
+                   "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> claimPending(@Param("maxAttempts") int maxAttempts, @Param("now") LocalDateTime now,
+                                   @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.processedAt = :processedAt, e.nextAttemptAt = NULL WHERE e.id IN :ids")
+    int markProcessed(@Param("ids") Collection<Long> ids, @Param("processedAt") LocalDateTime processedAt);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1, e.lastError = :error, " +
+           "e.nextAttemptAt = :nextAttemptAt WHERE e.id = :id")
+    int markFailed(@Param("id") Long id, @Param("error") String error,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    List<OutboxEvent> findByProcessedAtIsNull();
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") LocalDateTime before);
+}
@@ -1,16 +1,34 @@
 package com.acme.workshop.repository;
 
 import com.acme.workshop.model.Part;
+import com.acme.workshop.dto.PartCatalogEntry;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface PartRepository extends JpaRepository<Part, Long> {
+public interface PartRepository extends JpaRepository<Part, Long>, PartRepositoryCustom {
     
     Optional<Part> findByCode(String code);
     
     boolean existsByCode(String code);
+
+    // Dados de catálogo (sem estoque) para o cache de peças
+    @Query("SELECT new com.acme.workshop.dto.PartCatalogEntry(p.id, p.code, p.name, p.unitPrice, p.reorderThreshold) FROM Part p WHERE p.id = :id")
+    Optional<PartCatalogEntry> findCatalogEntryById(@Param("id") Long id);
+
+    @Query("SELECT new com.acme.workshop.dto.PartCatalogEntry(p.id, p.code, p.name, p.unitPrice, p.reorderThreshold) FROM Part p WHERE p.code = :code")
+    Optional<PartCatalogEntry> findCatalogEntryByCode(@Param("code") String code);
+
+    @Query("SELECT new com.acme.workshop.dto.PartCatalogEntry(p.id, p.code, p.name, p.unitPrice, p.reorderThreshold) FROM Part p WHERE p.id IN :ids")
+    List<PartCatalogEntry> findCatalogEntriesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p.stock FROM Part p WHERE p.id = :id")
+    Optional<Integer> findStockById(@Param("id") Long id);
 }
 
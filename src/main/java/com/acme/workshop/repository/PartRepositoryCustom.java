@@ -0,0 +1,17 @@
+package com.acme.workshop.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface PartRepositoryCustom {
+
+    // Baixa condicional de estoque em lote; retorna os IDs cujo estoque era insuficiente
+    List<Long> decrementStock(Map<Long, Integer> quantitiesByPartId);
+
+    // Devolução de estoque em lote (sem condição: sempre aplicada)
+    void incrementStock(Map<Long, Integer> quantitiesByPartId);
+
+    // Bloqueia as linhas das peças (SELECT ... FOR UPDATE) e retorna o estoque atual por ID
+    Map<Long, Integer> lockStock(Collection<Long> partIds);
+}
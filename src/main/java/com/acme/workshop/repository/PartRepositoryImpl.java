@@ -0,0 +1,91 @@
+package com.acme.workshop.repository;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class PartRepositoryImpl implements PartRepositoryCustom {
+
+    // Só altera a linha se houver saldo: 0 linhas afetadas significa estoque insuficiente.
+    // Incrementa a versão para invalidar cópias da peça lidas por outras transações.
+    private static final String DECREMENT_STOCK_SQL =
+        "UPDATE parts SET stock = stock - ?, version = version + 1 WHERE id = ? AND stock >= ?";
+
+    private static final String INCREMENT_STOCK_SQL =
+        "UPDATE parts SET stock = stock + ?, version = version + 1 WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    public PartRepositoryImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Long> decrementStock(Map<Long, Integer> quantitiesByPartId) {
+        if (quantitiesByPartId.isEmpty()) {
+            return List.of();
+        }
+
+        // Garante que peças pendentes no contexto de persistência já estão no banco
+        entityManager.flush();
+
+        // Ordem por ID: transações concorrentes bloqueiam as linhas sempre na mesma ordem (sem deadlock)
+        List<Map.Entry<Long, Integer>> entries = new ArrayList<>(new TreeMap<>(quantitiesByPartId).entrySet());
+        int[] updated = jdbcTemplate.batchUpdate(DECREMENT_STOCK_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setInt(1, entry.getValue());
+            ps.setLong(2, entry.getKey());
+            ps.setInt(3, entry.getValue());
+        })[0];
+
+        List<Long> insufficient = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                insufficient.add(entries.get(i).getKey());
+            }
+        }
+        return insufficient;
+    }
+
+    @Override
+    public void incrementStock(Map<Long, Integer> quantitiesByPartId) {
+        if (quantitiesByPartId.isEmpty()) {
+            return;
+        }
+
+        entityManager.flush();
+
+        List<Map.Entry<Long, Integer>> entries = new ArrayList<>(new TreeMap<>(quantitiesByPartId).entrySet());
+        jdbcTemplate.batchUpdate(INCREMENT_STOCK_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setInt(1, entry.getValue());
+            ps.setLong(2, entry.getKey());
+        });
+    }
+
+    @Override
+    public Map<Long, Integer> lockStock(Collection<Long> partIds) {
+        Map<Long, Integer> stockById = new HashMap<>();
+        if (partIds.isEmpty()) {
+            return stockById;
+        }
+
+        entityManager.flush();
+
+        // Mesma ordem por ID da baixa em lote, para não inverter a ordem de bloqueio entre transações
+        String placeholders = String.join(", ", Collections.nCopies(partIds.size(), "?"));
+        jdbcTemplate.query("SELECT id, stock FROM parts WHERE id IN (" + placeholders + ") ORDER BY id FOR UPDATE",
+            rs -> {
+                stockById.put(rs.getLong(1), rs.getInt(2));
+            },
+            partIds.toArray());
+        return stockById;
+    }
+}
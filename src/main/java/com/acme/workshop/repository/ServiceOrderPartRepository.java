@@ -1,9 +1,13 @@
 package com.acme.workshop.repository;
 
+import com.acme.workshop.dto.PartQuantity;
 import com.acme.workshop.model.ServiceOrderPart;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,5 +16,10 @@ public interface ServiceOrderPartRepository extends JpaRepository<ServiceOrderPa
     List<ServiceOrderPart> findByServiceOrderId(Long serviceOrderId);
     
     List<ServiceOrderPart> findByPartId(Long partId);
+
+    // Quantidade consumida por peça somando as linhas das OS informadas (devolução em lote no cancelamento)
+    @Query("SELECT new com.acme.workshop.dto.PartQuantity(p.part.id, SUM(p.quantity)) FROM ServiceOrderPart p " +
+           "WHERE p.serviceOrder.id IN :orderIds GROUP BY p.part.id")
+    List<PartQuantity> sumQuantitiesByPart(@Param("orderIds") Collection<Long> orderIds);
 }
 
@@ -1,14 +1,29 @@
 package com.acme.workshop.repository;
 
+import com.acme.workshop.dto.ServiceOrderStatusSnapshot;
 import com.acme.workshop.model.ServiceOrder;
 import com.acme.workshop.model.ServiceOrder.ServiceStatus;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ServiceOrderRepository extends JpaRepository<ServiceOrder, Long> {
+public interface ServiceOrderRepository extends JpaRepository<ServiceOrder, Long>, ServiceOrderRepositoryCustom {
     
     List<ServiceOrder> findByCustomerId(Long customerId);
     
@@ -23,4 +38,76 @@ public interface ServiceOrderRepository extends JpaRepository<ServiceOrder, Long
     List<ServiceOrder> findByCustomerIdAndStatus(Long customerId, ServiceStatus status);
     
     List<ServiceOrder> findByTechnicianIdAndStatus(Long technicianId, ServiceStatus status);
-}
\ No newline at end of file
+
+    // Variantes para conversão completa em DTO: relacionamentos e itens vêm no mesmo SELECT.
+    // As peças são carregadas em um segundo SELECT (fetchPartsByIdIn), pois duas coleções
+    // do tipo bag não podem ser buscadas juntas.
+    @EntityGraph(attributePaths = {"customer", "vehicle", "vehicle.customer", "technician", "serviceItems"})
+    @Query("SELECT o FROM ServiceOrder o ORDER BY o.id")
+    List<ServiceOrder> findAllWithItems();
+
+    @EntityGraph(attributePaths = {"customer", "vehicle", "vehicle.customer", "technician", "serviceItems"})
+    @Query("SELECT o FROM ServiceOrder o WHERE o.customer.id = :customerId ORDER BY o.id")
+    List<ServiceOrder> findWithItemsByCustomerId(@Param("customerId") Long customerId);
+
+    @EntityGraph(attributePaths = {"customer", "vehicle", "vehicle.customer", "technician", "serviceItems"})
+    @Query("SELECT o FROM ServiceOrder o WHERE o.technician.id = :technicianId ORDER BY o.id")
+    List<ServiceOrder> findWithItemsByTechnicianId(@Param("technicianId") Long technicianId);
+
+    // Inicializa os itens das OS já carregadas no contexto de persistência (lotes da exportação)
+    @Query("SELECT DISTINCT o FROM ServiceOrder o LEFT JOIN FETCH o.serviceItems WHERE o.id IN :ids")
+    List<ServiceOrder> fetchItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Inicializa as peças (e o cadastro de cada peça) das OS já carregadas no contexto de persistência
+    @Query("SELECT DISTINCT o FROM ServiceOrder o LEFT JOIN FETCH o.parts p LEFT JOIN FETCH p.part WHERE o.id IN :ids")
+    List<ServiceOrder> fetchPartsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Cursor forward-only para exportação: o driver traz EXPORT_FETCH_SIZE linhas por vez
+    int EXPORT_FETCH_SIZE = 500;
+
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT o FROM ServiceOrder o " +
+           "JOIN FETCH o.customer JOIN FETCH o.vehicle v JOIN FETCH v.customer JOIN FETCH o.technician " +
+           "ORDER BY o.id")
+    Stream<ServiceOrder> streamAllForExport();
+
+    // Soma o custo de uma linha incluída/alterada/removida ao total da OS em um único UPDATE.
+    // Não incrementa a versão: deltas são comutativos e não conflitam entre si. A tabela declarada
+    // na hint limita a invalidação do cache de segundo nível a service_orders (sem ela, o Hibernate
+    // descarta todas as regiões a cada UPDATE nativo).
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "service_orders"))
+    @Query(value = "UPDATE service_orders SET total_cost = total_cost + :delta WHERE id = :id", nativeQuery = true)
+    int addToTotalCost(@Param("id") Long id, @Param("delta") BigDecimal delta);
+
+    // Status atual das OS da troca em lote, com os dados do cliente para os eventos. Bloqueia as linhas
+    // até o fim da transação, então o UPDATE em lote parte exatamente do estado validado.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new com.acme.workshop.dto.ServiceOrderStatusSnapshot(o.id, o.status, c.id, c.name, c.email) " +
+           "FROM ServiceOrder o JOIN o.customer c WHERE o.id IN :ids ORDER BY o.id")
+    List<ServiceOrderStatusSnapshot> lockStatusesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Troca de status em um único UPDATE; completedAt só é gravado na conclusão.
+    // Incrementa a versão: cópias da OS lidas por outras transações passam a falhar no lock otimista.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ServiceOrder o SET o.status = :status, o.version = o.version + 1, " +
+           "o.completedAt = CASE WHEN :completing = true THEN :now ELSE o.completedAt END WHERE o.id IN :ids")
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids, @Param("status") ServiceStatus status,
+                           @Param("completing") boolean completing, @Param("now") LocalDateTime now);
+
+    // Bloqueia a linha da OS: inclusões concorrentes esperam o recálculo terminar para aplicar seus deltas
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM ServiceOrder o WHERE o.id = :id")
+    Optional<ServiceOrder> findByIdForUpdate(@Param("id") Long id);
+
+    // OS cujo total gravado diverge da soma de itens e peças, em lotes ordenados por id
+    @Query("SELECT o.id FROM ServiceOrder o WHERE o.id > :afterId AND o.totalCost <> " +
+           "COALESCE((SELECT SUM(i.laborCost * i.quantity) FROM ServiceItem i WHERE i.serviceOrder = o), 0) + " +
+           "COALESCE((SELECT SUM(p.unitPrice * p.quantity) FROM ServiceOrderPart p WHERE p.serviceOrder = o), 0) " +
+           "ORDER BY o.id")
+    List<Long> findIdsWithInconsistentTotal(@Param("afterId") Long afterId, Pageable pageable);
+}
@@ -0,0 +1,15 @@
+package com.acme.workshop.repository;
+
+import com.acme.workshop.dto.ServiceOrderFilterDTO;
+import com.acme.workshop.dto.ServiceOrderSummaryDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ServiceOrderRepositoryCustom {
+
+    // Página de resumos por keyset em (createdAt, id) decrescente: as páginas seguintes partem do
+    // cursor (cursorCreatedAt/cursorId, ambos null na primeira página), sem OFFSET
+    List<ServiceOrderSummaryDTO> findSummaryPage(ServiceOrderFilterDTO filter, LocalDateTime cursorCreatedAt,
+                                                 Long cursorId, int limit);
+}
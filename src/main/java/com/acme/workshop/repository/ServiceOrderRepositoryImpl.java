@@ -0,0 +1,65 @@
+package com.acme.workshop.repository;
+
+import com.acme.workshop.dto.ServiceOrderFilterDTO;
+import com.acme.workshop.dto.ServiceOrderSummaryDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ServiceOrderRepositoryImpl implements ServiceOrderRepositoryCustom {
+
+    private static final String SUMMARY_SELECT =
+        "SELECT new com.acme.workshop.dto.ServiceOrderSummaryDTO(" +
+        "o.id, c.name, concat(v.brand, ' ', v.model, ' (', v.licensePlate, ')'), t.name, " +
+        "o.description, o.status, o.createdAt, o.totalCost) " +
+        "FROM ServiceOrder o JOIN o.customer c JOIN o.vehicle v JOIN o.technician t WHERE 1 = 1";
+
+    private final EntityManager entityManager;
+
+    public ServiceOrderRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    // Só os filtros informados entram no WHERE (nada de ":p IS NULL OR ..."): cada combinação vira
+    // uma consulta própria, e o banco escolhe o índice composto (coluna, created_at, id) do filtro
+    @Override
+    public List<ServiceOrderSummaryDTO> findSummaryPage(ServiceOrderFilterDTO filter, LocalDateTime cursorCreatedAt,
+                                                        Long cursorId, int limit) {
+        StringBuilder jpql = new StringBuilder(SUMMARY_SELECT);
+        Map<String, Object> parameters = new HashMap<>();
+        if (filter.getStatus() != null) {
+            jpql.append(" AND o.status = :status");
+            parameters.put("status", filter.getStatus());
+        }
+        if (filter.getTechnicianId() != null) {
+            jpql.append(" AND o.technician.id = :technicianId");
+            parameters.put("technicianId", filter.getTechnicianId());
+        }
+        if (filter.getCustomerId() != null) {
+            jpql.append(" AND o.customer.id = :customerId");
+            parameters.put("customerId", filter.getCustomerId());
+        }
+        if (filter.getFrom() != null) {
+            jpql.append(" AND o.createdAt >= :from");
+            parameters.put("from", filter.getFrom());
+        }
+        if (filter.getTo() != null) {
+            jpql.append(" AND o.createdAt < :to");
+            parameters.put("to", filter.getTo());
+        }
+        if (cursorCreatedAt != null) {
+            jpql.append(" AND (o.createdAt < :cursorCreatedAt OR (o.createdAt = :cursorCreatedAt AND o.id < :cursorId))");
+            parameters.put("cursorCreatedAt", cursorCreatedAt);
+            parameters.put("cursorId", cursorId);
+        }
+        jpql.append(" ORDER BY o.createdAt DESC, o.id DESC");
+
+        TypedQuery<ServiceOrderSummaryDTO> query = entityManager.createQuery(jpql.toString(), ServiceOrderSummaryDTO.class);
+        parameters.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+}
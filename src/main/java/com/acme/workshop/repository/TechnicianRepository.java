@@ -1,19 +1,34 @@
 package com.acme.workshop.repository;
 
+import com.acme.workshop.dto.TechnicianSelectDTO;
 import com.acme.workshop.model.Technician;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
-import java.util.Optional;
+
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TechnicianRepository extends JpaRepository<Technician, Long> {
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Override
+    List<Technician> findAll();
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Technician> findByEmail(String email);
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Technician> findBySpecialization(String specialization);
     
     List<Technician> findByNameContainingIgnoreCase(String name);
     
     boolean existsByEmail(String email);
-}
\ No newline at end of file
+
+    @Query("SELECT new com.acme.workshop.dto.TechnicianSelectDTO(t.id, t.name) FROM Technician t ORDER BY t.id")
+    List<TechnicianSelectDTO> findAllForSelect();
+}
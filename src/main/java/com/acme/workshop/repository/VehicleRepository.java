@@ -1,16 +1,31 @@
 package com.acme.workshop.repository;
 
+import com.acme.workshop.dto.VehiclePlateEntry;
+import com.acme.workshop.dto.VehiclePlateMatchDTO;
+import com.acme.workshop.dto.VehicleSelectDTO;
 import com.acme.workshop.model.Vehicle;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import java.util.Optional;
+
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Override
+    List<Vehicle> findAll();
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Vehicle> findByLicensePlate(String licensePlate);
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Vehicle> findByCustomerId(Long customerId);
     
     List<Vehicle> findByBrandAndModel(String brand, String model);
@@ -18,4 +33,16 @@ public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
     List<Vehicle> findByModelYear(Integer modelYear);
     
     boolean existsByLicensePlate(String licensePlate);
-}
\ No newline at end of file
+
+    @Query("SELECT new com.acme.workshop.dto.VehicleSelectDTO(v.id, v.brand, v.model, v.licensePlate, v.customer.id) FROM Vehicle v ORDER BY v.id")
+    List<VehicleSelectDTO> findAllForSelect();
+
+    // Carga do índice de placas
+    @Query("SELECT new com.acme.workshop.dto.VehiclePlateEntry(v.id, v.licensePlate) FROM Vehicle v")
+    List<VehiclePlateEntry> findAllPlates();
+
+    // Resultado da busca por placa com o nome do dono, numa consulta só e sem carregar entidades
+    @Query("SELECT new com.acme.workshop.dto.VehiclePlateMatchDTO(v.id, v.licensePlate, v.brand, v.model, c.id, c.name) " +
+           "FROM Vehicle v LEFT JOIN v.customer c WHERE v.id IN :ids")
+    List<VehiclePlateMatchDTO> findPlateMatchesByIdIn(@Param("ids") List<Long> ids);
+}
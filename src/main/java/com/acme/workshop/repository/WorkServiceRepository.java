@@ -1,7 +1,18 @@
 package com.acme.workshop.repository;
+
 import com.acme.workshop.model.WorkService;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
-public interface WorkServiceRepository extends JpaRepository<WorkService, Long> { }
\ No newline at end of file
+public interface WorkServiceRepository extends JpaRepository<WorkService, Long> {
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Override
+    List<WorkService> findAll();
+}
\ No newline at end of file
@@ -2,35 +2,51 @@ package com.acme.workshop.service;
 
 import com.acme.workshop.model.Customer;
 import com.acme.workshop.repository.CustomerRepository;
+import com.acme.workshop.service.search.CustomerSearchIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class CustomerService {
     
+    // Limite de resultados da busca por digitação
+    public static final int MAX_SEARCH_RESULTS = 50;
+
     private final CustomerRepository customerRepository;
+    private final CustomerSearchIndex customerSearchIndex;
 
     @Autowired
-    public CustomerService(CustomerRepository customerRepository) {
+    public CustomerService(CustomerRepository customerRepository, CustomerSearchIndex customerSearchIndex) {
         this.customerRepository = customerRepository;
+        this.customerSearchIndex = customerSearchIndex;
     }
 
     public Customer save(Customer customer) {
         if (customerRepository.existsByEmail(customer.getEmail())) {
             throw new IllegalArgumentException("Email já cadastrado");
         }
-        return customerRepository.save(customer);
+        Customer saved = customerRepository.save(customer);
+        customerSearchIndex.indexAfterCommit(saved);
+        return saved;
     }
 
     public Optional<Customer> findById(Long id) {
         return customerRepository.findById(id);
     }
 
+    public List<Customer> findAllById(Collection<Long> ids) {
+        return customerRepository.findAllById(ids);
+    }
+
     public List<Customer> findAll() {
         return customerRepository.findAll();
     }
@@ -43,8 +59,28 @@ public class CustomerService {
         return customerRepository.findByNameContainingIgnoreCase(name);
     }
 
+    // Busca por digitação em nome, email e telefone, ordenada por relevância. O índice em memória
+    // escolhe os ids; o banco só é consultado pela chave primária dos clientes retornados.
+    @Transactional(readOnly = true)
+    public List<Customer> searchRanked(String query, int limit) {
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            throw new IllegalArgumentException("O limite deve estar entre 1 e " + MAX_SEARCH_RESULTS);
+        }
+        List<Long> ids = customerSearchIndex.search(query, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Customer> byId = customerRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(Customer::getId, Function.identity()));
+        return ids.stream()
+            .map(byId::get)
+            .filter(c -> c != null)
+            .collect(Collectors.toList());
+    }
+
     public void delete(Long id) {
         customerRepository.deleteById(id);
+        customerSearchIndex.removeAfterCommit(id);
     }
 
     public Customer update(Long id, Customer customerDetails) {
@@ -62,6 +98,8 @@ public class CustomerService {
         customer.setPhone(customerDetails.getPhone());
         customer.setAddress(customerDetails.getAddress());
 
-        return customerRepository.save(customer);
+        Customer saved = customerRepository.save(customer);
+        customerSearchIndex.indexAfterCommit(saved);
+        return saved;
     }
 }
\ No newline at end of file
@@ -0,0 +1,125 @@
+package com.acme.workshop.service;
+
+import com.acme.workshop.dto.PartCatalogEntry;
+import com.acme.workshop.model.Part;
+import com.acme.workshop.repository.PartRepository;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+// Cache read-through do catálogo de peças, indexado por id e por código.
+// Tamanho máximo, TTL e estatísticas vêm de spring.cache.caffeine.spec.
+@Component
+public class PartCatalog {
+
+    public static final String BY_ID = "partsById";
+    public static final String BY_CODE = "partsByCode";
+
+    private final PartRepository partRepository;
+    private final Cache byId;
+    private final Cache byCode;
+
+    @Autowired
+    public PartCatalog(PartRepository partRepository, CacheManager cacheManager) {
+        this.partRepository = partRepository;
+        this.byId = Objects.requireNonNull(cacheManager.getCache(BY_ID));
+        this.byCode = Objects.requireNonNull(cacheManager.getCache(BY_CODE));
+    }
+
+    public Optional<PartCatalogEntry> findById(Long id) {
+        PartCatalogEntry cached = byId.get(id, PartCatalogEntry.class);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<PartCatalogEntry> loaded = partRepository.findCatalogEntryById(id);
+        loaded.ifPresent(this::put);
+        return loaded;
+    }
+
+    public Optional<PartCatalogEntry> findByCode(String code) {
+        PartCatalogEntry cached = byCode.get(code, PartCatalogEntry.class);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<PartCatalogEntry> loaded = partRepository.findCatalogEntryByCode(code);
+        loaded.ifPresent(this::put);
+        return loaded;
+    }
+
+    // Busca várias peças; as ausentes do cache vêm em um único SELECT
+    public Map<Long, PartCatalogEntry> findAllById(Collection<Long> ids) {
+        Map<Long, PartCatalogEntry> result = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long id : ids) {
+            PartCatalogEntry cached = byId.get(id, PartCatalogEntry.class);
+            if (cached != null) {
+                result.put(id, cached);
+            } else {
+                misses.add(id);
+            }
+        }
+        if (!misses.isEmpty()) {
+            for (PartCatalogEntry entry : partRepository.findCatalogEntriesByIdIn(misses)) {
+                put(entry);
+                result.put(entry.id(), entry);
+            }
+        }
+        return result;
+    }
+
+    // Usa a entidade se já estiver carregada; se for um proxy, evita o SELECT recorrendo ao cache
+    public PartCatalogEntry describe(Part part) {
+        if (Hibernate.isInitialized(part)) {
+            return new PartCatalogEntry(part.getId(), part.getCode(), part.getName(), part.getUnitPrice(),
+                part.getReorderThreshold());
+        }
+        return findById(part.getId())
+            .orElseThrow(() -> new IllegalArgumentException("Peça não encontrada"));
+    }
+
+    // Remove a peça do cache agora e de novo ao fim da transação, para que uma leitura concorrente
+    // não deixe no cache o valor anterior ao commit (ou um valor de uma transação desfeita)
+    public void evict(Long id, String... codes) {
+        doEvict(id, codes);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    doEvict(id, codes);
+                }
+            });
+        }
+    }
+
+    private void doEvict(Long id, String... codes) {
+        if (id != null) {
+            PartCatalogEntry cached = byId.get(id, PartCatalogEntry.class);
+            byId.evict(id);
+            if (cached != null) {
+                byCode.evict(cached.code());
+            }
+        }
+        for (String code : codes) {
+            if (code != null) {
+                byCode.evict(code);
+            }
+        }
+    }
+
+    private void put(PartCatalogEntry entry) {
+        byId.put(entry.id(), entry);
+        byCode.put(entry.code(), entry);
+    }
+}
@@ -1,27 +1,65 @@
 package com.acme.workshop.service;
 
+import com.acme.workshop.dto.LowStockPartDTO;
+import com.acme.workshop.dto.PartCatalogEntry;
+import com.acme.workshop.dto.PartStockAtDTO;
+import com.acme.workshop.dto.StockMovementDTO;
 import com.acme.workshop.model.Part;
 import com.acme.workshop.repository.PartRepository;
+import com.acme.workshop.service.stock.ConsumptionEstimator;
+import com.acme.workshop.service.stock.LowStockIndex;
+import com.acme.workshop.service.stock.StockLedger;
+import com.acme.workshop.service.stock.StockReservationEngine;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class PartService {
     
+    // Limite de peças no alerta de estoque baixo
+    public static final int MAX_LOW_STOCK_RESULTS = 50;
+
     private final PartRepository partRepository;
+    private final PartCatalog partCatalog;
+    private final StockReservationEngine stockReservations;
+    private final StockLedger stockLedger;
+    private final LowStockIndex lowStockIndex;
+    private final ConsumptionEstimator consumptionEstimator;
 
     @Autowired
-    public PartService(PartRepository partRepository) {
+    public PartService(PartRepository partRepository, PartCatalog partCatalog,
+                       StockReservationEngine stockReservations, StockLedger stockLedger,
+                       LowStockIndex lowStockIndex, ConsumptionEstimator consumptionEstimator) {
         this.partRepository = partRepository;
+        this.partCatalog = partCatalog;
+        this.stockReservations = stockReservations;
+        this.stockLedger = stockLedger;
+        this.lowStockIndex = lowStockIndex;
+        this.consumptionEstimator = consumptionEstimator;
     }
 
     public Part save(Part part) {
-        return partRepository.save(part);
+        boolean created = part.getId() == null;
+        Part saved = partRepository.save(part);
+        partCatalog.evict(saved.getId(), saved.getCode());
+        if (created && saved.getStock() != null) {
+            // Estoque inicial: primeiro movimento do histórico da peça
+            stockLedger.record(saved.getId(), saved.getStock(), StockMovementDTO.Type.ADJUSTMENT);
+        }
+        lowStockIndex.refreshAfterCommit(saved.getId());
+        return saved;
     }
 
     public Optional<Part> findById(Long id) {
@@ -36,25 +74,269 @@ public class PartService {
         return partRepository.findByCode(code);
     }
 
+    // Leituras de consulta: nome, código e preço vêm do cache; o estoque é sempre lido do banco
+    // (ou do motor de reservas, quando ligado). A peça retornada não é gerenciada.
+    @Transactional(readOnly = true)
+    public Optional<Part> findCatalogPartById(Long id) {
+        return partCatalog.findById(id).flatMap(this::withCurrentStock);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Part> findCatalogPartByCode(String code) {
+        Optional<Part> part = partCatalog.findByCode(code).flatMap(this::withCurrentStock);
+        // Entrada do cache apontando para uma peça que não existe mais: tenta de novo a partir do banco
+        return part.isPresent() ? part : partCatalog.findByCode(code).flatMap(this::withCurrentStock);
+    }
+
+    private Optional<Part> withCurrentStock(PartCatalogEntry entry) {
+        Optional<Integer> stock = partRepository.findStockById(entry.id());
+        if (stock.isEmpty()) {
+            partCatalog.evict(entry.id(), entry.code());
+            return Optional.empty();
+        }
+
+        Part part = new Part();
+        part.setId(entry.id());
+        part.setCode(entry.code());
+        part.setName(entry.name());
+        part.setUnitPrice(entry.unitPrice());
+        part.setReorderThreshold(entry.reorderThreshold());
+        part.setStock((int) stockReservations.available(entry.id()).orElse(stock.get()));
+        return Optional.of(part);
+    }
+
+    // Saldo para validar uma baixa antes de fazê-la: com o motor de reservas ligado, parts.stock
+    // só é atualizado no flush e o saldo vem dos contadores
+    public int availableStock(Part part) {
+        return (int) stockReservations.available(part.getId()).orElse(part.getStock());
+    }
+
+    // Referência para associações, sem SELECT
+    public Part getReference(Long id) {
+        return partRepository.getReferenceById(id);
+    }
+
     public boolean existsByCode(String code) {
         return partRepository.existsByCode(code);
     }
 
     public void deleteById(Long id) {
         partRepository.deleteById(id);
+        partCatalog.evict(id);
+        stockReservations.forget(id);
+        lowStockIndex.refreshAfterCommit(id);
     }
 
-    public Part updateStock(Long id, Integer quantity) {
+    // Só o cadastro: o estoque enviado é ignorado. Gravar o saldo lido pelo cliente desfaria as baixas
+    // feitas depois da leitura; ajustes de estoque passam por updateStock, que aplica a diferença.
+    public Part update(Long id, Part partDetails) {
         Part part = partRepository.findById(id)
             .orElseThrow(() -> new IllegalArgumentException("Peça não encontrada"));
-        
-        int newStock = part.getStock() - quantity;
-        if (newStock < 0) {
-            throw new IllegalArgumentException("Estoque insuficiente. Disponível: " + part.getStock());
+        // Com o código alterado, a entrada do código antigo também sai do cache
+        String previousCode = part.getCode();
+
+        part.setName(partDetails.getName());
+        part.setCode(partDetails.getCode());
+        part.setUnitPrice(partDetails.getUnitPrice());
+        if (partDetails.getReorderThreshold() != null) {
+            part.setReorderThreshold(partDetails.getReorderThreshold());
         }
-        
-        part.setStock(newStock);
-        return partRepository.save(part);
+
+        Part saved = partRepository.save(part);
+        partCatalog.evict(id, previousCode, partDetails.getCode());
+        lowStockIndex.refreshAfterCommit(id);
+        if (stockReservations.isEnabled()) {
+            Part current = findCatalogPartById(id).orElseThrow();
+            current.setStock(availableStock(saved));
+            return current;
+        }
+        return saved;
+    }
+
+    // Ajuste manual (PUT /api/parts/{id}/stock): quantidade positiva baixa, negativa devolve
+    @RetryOnOptimisticLock
+    public Part updateStock(Long id, Integer quantity) {
+        return changeStock(id, quantity, StockMovementDTO.Type.ADJUSTMENT);
+    }
+
+    // Mesma alteração, registrada no histórico com o motivo informado (ex.: linha de OS)
+    @RetryOnOptimisticLock
+    public Part updateStock(Long id, Integer quantity, StockMovementDTO.Type type) {
+        return changeStock(id, quantity, type);
+    }
+
+    // Estoque não é cacheado, então a baixa não precisa invalidar o catálogo
+    private Part changeStock(Long id, int quantity, StockMovementDTO.Type type) {
+        Part updated;
+        if (stockReservations.isEnabled()) {
+            updated = updateReservedStock(id, quantity);
+        } else {
+            Part part = partRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Peça não encontrada"));
+
+            int newStock = part.getStock() - quantity;
+            if (newStock < 0) {
+                throw new IllegalArgumentException("Estoque insuficiente. Disponível: " + part.getStock());
+            }
+
+            part.setStock(newStock);
+            updated = partRepository.save(part);
+        }
+        recordMovement(Map.of(id, -quantity), type);
+        return updated;
+    }
+
+    private Part updateReservedStock(Long id, int quantity) {
+        Part part = findCatalogPartById(id)
+            .orElseThrow(() -> new IllegalArgumentException("Peça não encontrada"));
+        if (quantity > 0 && !stockReservations.reserve(Map.of(id, quantity)).isEmpty()) {
+            throw new IllegalArgumentException("Estoque insuficiente. Disponível: "
+                + stockReservations.available(id).orElse(part.getStock()));
+        }
+        if (quantity < 0) {
+            stockReservations.release(Map.of(id, -quantity));
+        }
+        part.setStock(part.getStock() - quantity);
+        return part;
+    }
+
+    // Baixa atômica de estoque para várias peças (UPDATE condicional em lote, ou CAS nos contadores
+    // do motor de reservas quando ligado).
+    // As entidades Part já carregadas não são atualizadas em memória.
+    public void reserveStock(Map<Long, Integer> quantitiesByPartId) {
+        quantitiesByPartId.forEach((partId, quantity) -> {
+            if (quantity == null || quantity <= 0) {
+                throw new IllegalArgumentException("Quantidade inválida para a peça ID: " + partId);
+            }
+        });
+
+        List<Long> insufficient = stockReservations.isEnabled()
+            ? stockReservations.reserve(quantitiesByPartId)
+            : partRepository.decrementStock(quantitiesByPartId);
+        if (!insufficient.isEmpty()) {
+            String names = partRepository.findAllById(insufficient).stream()
+                .map(Part::getName)
+                .collect(Collectors.joining(", "));
+            throw new IllegalArgumentException("Estoque insuficiente: " + names);
+        }
+        recordMovement(negated(quantitiesByPartId), StockMovementDTO.Type.CONSUMPTION);
+    }
+
+    // Devolve ao estoque as quantidades informadas em um único lote (ex.: cancelamento de OS)
+    public void returnStock(Map<Long, Integer> quantitiesByPartId) {
+        recordMovement(quantitiesByPartId, StockMovementDTO.Type.RETURN);
+        if (stockReservations.isEnabled()) {
+            stockReservations.release(quantitiesByPartId);
+            return;
+        }
+        partRepository.incrementStock(quantitiesByPartId);
+    }
+
+    // Reserva de vários pedidos independentes (importação em lote): bloqueia as peças envolvidas uma
+    // vez e atende os pedidos na ordem recebida enquanto houver saldo. Um pedido sem saldo não impede
+    // os seguintes. Retorna, para cada pedido, as peças que faltaram (lista vazia = reservado).
+    public List<List<Long>> reserveStockInOrder(List<Map<Long, Integer>> requests) {
+        Set<Long> partIds = new HashSet<>();
+        requests.forEach(request -> request.forEach((partId, quantity) -> {
+            if (quantity == null || quantity <= 0) {
+                throw new IllegalArgumentException("Quantidade inválida para a peça ID: " + partId);
+            }
+            partIds.add(partId);
+        }));
+
+        // Com o motor de reservas, cada pedido é uma reserva tudo-ou-nada, sem bloquear as linhas
+        if (stockReservations.isEnabled()) {
+            List<List<Long>> shortages = requests.stream().map(stockReservations::reserve).collect(Collectors.toList());
+            Map<Long, Integer> reserved = new HashMap<>();
+            for (int i = 0; i < requests.size(); i++) {
+                if (shortages.get(i).isEmpty()) {
+                    requests.get(i).forEach((partId, quantity) -> reserved.merge(partId, quantity, Integer::sum));
+                }
+            }
+            recordMovement(negated(reserved), StockMovementDTO.Type.CONSUMPTION);
+            return shortages;
+        }
+
+        Map<Long, Integer> available = partRepository.lockStock(partIds);
+        Map<Long, Integer> reserved = new HashMap<>();
+        List<List<Long>> shortages = new ArrayList<>(requests.size());
+        for (Map<Long, Integer> request : requests) {
+            List<Long> missing = request.entrySet().stream()
+                .filter(entry -> available.getOrDefault(entry.getKey(), 0) < entry.getValue())
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+            if (missing.isEmpty()) {
+                request.forEach((partId, quantity) -> {
+                    available.merge(partId, -quantity, Integer::sum);
+                    reserved.merge(partId, quantity, Integer::sum);
+                });
+            }
+            shortages.add(missing);
+        }
+
+        // Linhas bloqueadas acima: a baixa condicional não tem como falhar aqui
+        List<Long> insufficient = partRepository.decrementStock(reserved);
+        if (!insufficient.isEmpty()) {
+            throw new IllegalStateException("Estoque alterado durante a reserva das peças: " + insufficient);
+        }
+        recordMovement(negated(reserved), StockMovementDTO.Type.CONSUMPTION);
+        return shortages;
+    }
+
+    // Saldo numa data a partir do histórico (último snapshot até a data + movimentos seguintes).
+    // Vazio para peça inexistente: o histórico de uma peça excluída não fica consultável.
+    @Transactional(readOnly = true)
+    public Optional<PartStockAtDTO> findStockAt(Long id, LocalDateTime at) {
+        if (!partRepository.existsById(id)) {
+            return Optional.empty();
+        }
+        return Optional.of(stockLedger.stockAt(id, at));
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<List<StockMovementDTO>> findStockMovements(Long id, LocalDateTime from, LocalDateTime to) {
+        if (!partRepository.existsById(id)) {
+            return Optional.empty();
+        }
+        return Optional.of(stockLedger.movements(id, from, to));
+    }
+
+    // Peças com estoque no ponto de reposição ou abaixo, das mais críticas para as menos críticas
+    // (menor razão estoque / ponto de reposição), com a reposição sugerida pelo consumo recente
+    @Transactional(readOnly = true)
+    public List<LowStockPartDTO> findLowStock(int limit) {
+        if (limit < 1 || limit > MAX_LOW_STOCK_RESULTS) {
+            throw new IllegalArgumentException("O limite deve estar entre 1 e " + MAX_LOW_STOCK_RESULTS);
+        }
+        List<LowStockIndex.LowStockEntry> atRisk = lowStockIndex.topAtRisk(limit);
+        List<Long> ids = atRisk.stream().map(LowStockIndex.LowStockEntry::partId).collect(Collectors.toList());
+        Map<Long, PartCatalogEntry> catalog = partCatalog.findAllById(ids);
+        Map<Long, Double> consumption = consumptionEstimator.dailyConsumption(ids);
+
+        List<LowStockPartDTO> result = new ArrayList<>(atRisk.size());
+        for (LowStockIndex.LowStockEntry entry : atRisk) {
+            PartCatalogEntry part = catalog.get(entry.partId());
+            if (part == null) {
+                // Removida depois da carga do índice
+                continue;
+            }
+            double daily = consumption.getOrDefault(entry.partId(), 0.0);
+            result.add(new LowStockPartDTO(entry.partId(), part.code(), part.name(), entry.stock(),
+                entry.reorderThreshold(), daily,
+                consumptionEstimator.suggestedReorderQuantity(daily, entry.stock(), entry.reorderThreshold())));
+        }
+        return result;
     }
-}
 
+    // Cada alteração de estoque entra no histórico e faz o índice de estoque baixo reler as peças
+    private void recordMovement(Map<Long, Integer> deltasByPartId, StockMovementDTO.Type type) {
+        stockLedger.record(deltasByPartId, type);
+        lowStockIndex.refreshAfterCommit(deltasByPartId.keySet());
+    }
+
+    private static Map<Long, Integer> negated(Map<Long, Integer> quantitiesByPartId) {
+        Map<Long, Integer> negated = new HashMap<>();
+        quantitiesByPartId.forEach((partId, quantity) -> negated.put(partId, -quantity));
+        return negated;
+    }
+}
@@ -0,0 +1,27 @@
+package com.acme.workshop.service;
+
+import org.springframework.retry.annotation.Retryable;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Reexecuta o método (em uma nova transação) quando outra transação alterou a mesma versão da entidade.
+// Backoff exponencial com jitter, limitado a MAX_ATTEMPTS tentativas. Só vale na fronteira
+// transacional mais externa: chamado dentro da transação de outro método, o conflito sobe para quem
+// abriu a transação (ela já está marcada para rollback e nenhuma nova tentativa teria sucesso).
+// O interceptor está em RetryConfig.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Retryable(interceptor = RetryOnOptimisticLock.INTERCEPTOR)
+public @interface RetryOnOptimisticLock {
+
+    int MAX_ATTEMPTS = 5;
+
+    String INTERCEPTOR = "optimisticLockRetryInterceptor";
+
+    String LISTENER = "optimisticLockRetryListener";
+}
@@ -0,0 +1,31 @@
+package com.acme.workshop.service;
+
+import com.acme.workshop.service.support.AfterCommit;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+// Listener JPA de Customer, Vehicle e Technician: repassa ao SelectOptionsSnapshot as alterações
+// que chegaram a ser confirmadas. Instanciado pelo Hibernate através do container do Spring;
+// o snapshot é resolvido sob demanda porque depende dos repositórios (e do próprio EntityManagerFactory).
+public class SelectOptionsEntityListener {
+
+    private final ObjectProvider<SelectOptionsSnapshot> snapshot;
+
+    public SelectOptionsEntityListener(ObjectProvider<SelectOptionsSnapshot> snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Object entity) {
+        // O estado é capturado agora: a entidade ainda pode mudar antes do commit
+        AfterCommit.run(snapshot.getObject().prepareUpsert(entity));
+    }
+
+    @PostRemove
+    public void onRemoved(Object entity) {
+        AfterCommit.run(snapshot.getObject().prepareRemove(entity));
+    }
+}
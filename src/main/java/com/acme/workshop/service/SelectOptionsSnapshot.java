@@ -0,0 +1,196 @@
+package com.acme.workshop.service;
+
+import com.acme.workshop.dto.CustomerSelectDTO;
+import com.acme.workshop.dto.TechnicianSelectDTO;
+import com.acme.workshop.dto.VehicleSelectDTO;
+import com.acme.workshop.model.Customer;
+import com.acme.workshop.model.Technician;
+import com.acme.workshop.model.Vehicle;
+import com.acme.workshop.repository.CustomerRepository;
+import com.acme.workshop.repository.TechnicianRepository;
+import com.acme.workshop.repository.VehicleRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Listas dos dropdowns (/select) mantidas em memória já serializadas em JSON, com ETag forte.
+// A primeira leitura carrega do banco pelas projeções findAllForSelect dos repositórios (só as
+// colunas exibidas, sem carregar entidades); depois cada alteração confirmada de cliente, veículo ou
+// técnico (SelectOptionsEntityListener) substitui só o trecho JSON daquela linha.
+// Alterações feitas por fora do JPA ou em outra instância aparecem no próximo refresh periódico.
+@Component
+public class SelectOptionsSnapshot {
+
+    public enum Kind { CUSTOMERS, VEHICLES, TECHNICIANS }
+
+    // Corpo imutável pronto para envio e o ETag correspondente (hash do conteúdo)
+    public record Snapshot(byte[] body, String etag) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Map<Kind, Board> boards = new EnumMap<>(Kind.class);
+
+    @Autowired
+    public SelectOptionsSnapshot(CustomerRepository customerRepository,
+                                 VehicleRepository vehicleRepository,
+                                 TechnicianRepository technicianRepository,
+                                 ObjectMapper objectMapper,
+                                 PlatformTransactionManager transactionManager) {
+        this.objectMapper = objectMapper;
+
+        // Transação própria: a carga só enxerga dados confirmados, nunca os da transação de quem chamou
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        boards.put(Kind.CUSTOMERS, new Board(customerRepository::findAllForSelect, o -> ((CustomerSelectDTO) o).getId()));
+        boards.put(Kind.VEHICLES, new Board(vehicleRepository::findAllForSelect, o -> ((VehicleSelectDTO) o).getId()));
+        boards.put(Kind.TECHNICIANS, new Board(technicianRepository::findAllForSelect, o -> ((TechnicianSelectDTO) o).getId()));
+    }
+
+    public Snapshot get(Kind kind) {
+        return boards.get(kind).get();
+    }
+
+    // Monta a alteração com o estado atual da entidade; o Runnable é aplicado após o commit
+    public Runnable prepareUpsert(Object entity) {
+        if (entity instanceof Customer c) {
+            CustomerSelectDTO dto = new CustomerSelectDTO(c.getId(), c.getName());
+            return () -> boards.get(Kind.CUSTOMERS).put(dto.getId(), dto);
+        }
+        if (entity instanceof Vehicle v) {
+            Long customerId = v.getCustomer() != null ? v.getCustomer().getId() : null;
+            VehicleSelectDTO dto = new VehicleSelectDTO(v.getId(), v.getBrand(), v.getModel(), v.getLicensePlate(), customerId);
+            return () -> boards.get(Kind.VEHICLES).put(dto.getId(), dto);
+        }
+        if (entity instanceof Technician t) {
+            TechnicianSelectDTO dto = new TechnicianSelectDTO(t.getId(), t.getName());
+            return () -> boards.get(Kind.TECHNICIANS).put(dto.getId(), dto);
+        }
+        return () -> { };
+    }
+
+    public Runnable prepareRemove(Object entity) {
+        if (entity instanceof Customer c) {
+            Long id = c.getId();
+            return () -> boards.get(Kind.CUSTOMERS).remove(id);
+        }
+        if (entity instanceof Vehicle v) {
+            Long id = v.getId();
+            return () -> boards.get(Kind.VEHICLES).remove(id);
+        }
+        if (entity instanceof Technician t) {
+            Long id = t.getId();
+            return () -> boards.get(Kind.TECHNICIANS).remove(id);
+        }
+        return () -> { };
+    }
+
+    // Descarta tudo; a próxima leitura recarrega do banco
+    @Scheduled(fixedDelayString = "${workshop.select-snapshot.refresh-interval-ms:60000}",
+               initialDelayString = "${workshop.select-snapshot.refresh-interval-ms:60000}")
+    public void invalidateAll() {
+        boards.values().forEach(Board::invalidate);
+    }
+
+    private final class Board {
+        private final Supplier<List<?>> loader;
+        private final Function<Object, Long> idOf;
+
+        // Trechos JSON por id, na ordem de exibição; só acessado sob o lock do Board
+        private TreeMap<Long, byte[]> entries;
+        private volatile Snapshot snapshot;
+
+        Board(Supplier<List<?>> loader, Function<Object, Long> idOf) {
+            this.loader = loader;
+            this.idOf = idOf;
+        }
+
+        Snapshot get() {
+            Snapshot current = snapshot;
+            return current != null ? current : load();
+        }
+
+        private synchronized Snapshot load() {
+            if (snapshot == null) {
+                List<?> rows = readOnlyTransaction.execute(status -> loader.get());
+                TreeMap<Long, byte[]> fresh = new TreeMap<>();
+                for (Object row : rows) {
+                    fresh.put(idOf.apply(row), serialize(row));
+                }
+                entries = fresh;
+                publish();
+            }
+            return snapshot;
+        }
+
+        synchronized void put(Long id, Object dto) {
+            // Ainda não carregado: a primeira leitura já trará o valor confirmado
+            if (entries != null) {
+                entries.put(id, serialize(dto));
+                publish();
+            }
+        }
+
+        synchronized void remove(Long id) {
+            if (entries != null && entries.remove(id) != null) {
+                publish();
+            }
+        }
+
+        synchronized void invalidate() {
+            entries = null;
+            snapshot = null;
+        }
+
+        private void publish() {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(entries.size() * 64 + 2);
+            out.write('[');
+            boolean first = true;
+            for (byte[] entry : entries.values()) {
+                if (!first) {
+                    out.write(',');
+                }
+                out.writeBytes(entry);
+                first = false;
+            }
+            out.write(']');
+            byte[] body = out.toByteArray();
+            snapshot = new Snapshot(body, hash(body));
+        }
+    }
+
+    private byte[] serialize(Object dto) {
+        try {
+            return objectMapper.writeValueAsBytes(dto);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Não foi possível serializar a opção de seleção", e);
+        }
+    }
+
+    private static String hash(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -3,11 +3,11 @@ package com.acme.workshop.service;
 import com.acme.workshop.model.ServiceItem;
 import com.acme.workshop.model.ServiceOrder;
 import com.acme.workshop.repository.ServiceItemRepository;
-import com.acme.workshop.repository.ServiceOrderRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @Service
@@ -15,28 +15,49 @@ import java.util.List;
 public class ServiceItemService {
     
     private final ServiceItemRepository serviceItemRepository;
-    private final ServiceOrderRepository serviceOrderRepository;
+    private final ServiceOrderService serviceOrderService;
 
     @Autowired
     public ServiceItemService(ServiceItemRepository serviceItemRepository, 
-                             ServiceOrderRepository serviceOrderRepository) {
+                             ServiceOrderService serviceOrderService) {
         this.serviceItemRepository = serviceItemRepository;
-        this.serviceOrderRepository = serviceOrderRepository;
+        this.serviceOrderService = serviceOrderService;
     }
 
+    @RetryOnOptimisticLock
     public ServiceItem save(ServiceItem serviceItem) {
+        if (serviceItem.getId() != null) {
+            return update(serviceItem.getId(), serviceItem);
+        }
+
         ServiceItem saved = serviceItemRepository.save(serviceItem);
         
-        // Atualiza o custo total da ordem de serviço
-        ServiceOrder order = saved.getServiceOrder();
-        order.updateTotalCost();
-        serviceOrderRepository.save(order);
+        // Soma o custo do novo item ao total da ordem de serviço
+        serviceOrderService.applyTotalCostDelta(saved.getServiceOrder(), saved.getTotalCost());
         
         return saved;
     }
 
+    @RetryOnOptimisticLock
+    public ServiceItem update(Long id, ServiceItem itemDetails) {
+        ServiceItem item = findById(id);
+        BigDecimal oldCost = item.getTotalCost();
+
+        item.setDescription(itemDetails.getDescription());
+        item.setLaborCost(itemDetails.getLaborCost());
+        item.setQuantity(itemDetails.getQuantity());
+
+        ServiceItem saved = serviceItemRepository.save(item);
+
+        // Aplica ao total apenas a diferença entre o custo novo e o antigo do item
+        serviceOrderService.applyTotalCostDelta(saved.getServiceOrder(), saved.getTotalCost().subtract(oldCost));
+
+        return saved;
+    }
+
+    @RetryOnOptimisticLock
     public ServiceItem addServiceItem(Long orderId, ServiceItem serviceItem) {
-        ServiceOrder order = serviceOrderRepository.findById(orderId)
+        ServiceOrder order = serviceOrderService.findById(orderId)
             .orElseThrow(() -> new IllegalArgumentException("Ordem de serviço não encontrada"));
         
         serviceItem.setServiceOrder(order);
@@ -52,23 +73,13 @@ public class ServiceItemService {
             .orElseThrow(() -> new IllegalArgumentException("Item de serviço não encontrado"));
     }
 
-    @Transactional
+    @RetryOnOptimisticLock
     public void deleteById(Long id) {
-        ServiceItem item = serviceItemRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Item de serviço não encontrado"));
-
-        Long orderId = item.getServiceOrder().getId();
+        ServiceItem item = findById(id);
 
-        // Deleta o item
-        serviceItemRepository.deleteById(id);
-        serviceItemRepository.flush();  // ✅ Commita a deleção
+        serviceItemRepository.delete(item);
 
-        // Busca a ordem novamente (fresh do banco, sem itens deletados)
-        ServiceOrder order = serviceOrderRepository.findById(orderId).orElseThrow();
-
-        // Atualiza o custo total
-        order.updateTotalCost();
-        serviceOrderRepository.save(order);
+        // Subtrai o custo do item removido do total da ordem de serviço
+        serviceOrderService.applyTotalCostDelta(item.getServiceOrder(), item.getTotalCost().negate());
     }
 }
-
@@ -1,62 +1,61 @@
 package com.acme.workshop.service;
 
+import com.acme.workshop.dto.PartCatalogEntry;
+import com.acme.workshop.dto.StockMovementDTO;
 import com.acme.workshop.model.Part;
 import com.acme.workshop.model.ServiceOrder;
 import com.acme.workshop.model.ServiceOrderPart;
 import com.acme.workshop.repository.ServiceOrderPartRepository;
-import com.acme.workshop.repository.ServiceOrderRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @Transactional
 public class ServiceOrderPartService {
     
     private final ServiceOrderPartRepository serviceOrderPartRepository;
-    private final ServiceOrderRepository serviceOrderRepository;
+    private final ServiceOrderService serviceOrderService;
     private final PartService partService;
+    private final PartCatalog partCatalog;
 
     @Autowired
     public ServiceOrderPartService(ServiceOrderPartRepository serviceOrderPartRepository,
-                                   ServiceOrderRepository serviceOrderRepository,
-                                   PartService partService) {
+                                   ServiceOrderService serviceOrderService,
+                                   PartService partService,
+                                   PartCatalog partCatalog) {
         this.serviceOrderPartRepository = serviceOrderPartRepository;
-        this.serviceOrderRepository = serviceOrderRepository;
+        this.serviceOrderService = serviceOrderService;
         this.partService = partService;
+        this.partCatalog = partCatalog;
     }
 
+    @RetryOnOptimisticLock
     public ServiceOrderPart addPartToOrder(Long orderId, Long partId, Integer quantity) {
-        ServiceOrder order = serviceOrderRepository.findById(orderId)
-            .orElseThrow(() -> new IllegalArgumentException("Ordem de serviço não encontrada"));
+        ServiceOrder order = serviceOrderService.findByIdForStockChanges(orderId);
         
-        Part part = partService.findById(partId)
+        // Nome e preço vêm do catálogo em cache; a peça em si não é lida
+        PartCatalogEntry part = partCatalog.findById(partId)
             .orElseThrow(() -> new IllegalArgumentException("Peça não encontrada"));
         
-        // Verificar estoque
-        if (part.getStock() < quantity) {
-            throw new IllegalArgumentException(
-                "Estoque insuficiente. Disponível: " + part.getStock() + ", Solicitado: " + quantity
-            );
-        }
+        // Baixar estoque com UPDATE condicional (falha se não houver saldo)
+        partService.reserveStock(Map.of(partId, quantity));
         
         // Criar associação
         ServiceOrderPart orderPart = new ServiceOrderPart();
         orderPart.setServiceOrder(order);
-        orderPart.setPart(part);
+        orderPart.setPart(partService.getReference(partId));
         orderPart.setQuantity(quantity);
-        orderPart.setUnitPrice(part.getUnitPrice()); // Snapshot do preço
+        orderPart.setUnitPrice(part.unitPrice()); // Snapshot do preço
         
         ServiceOrderPart saved = serviceOrderPartRepository.save(orderPart);
         
-        // Atualizar estoque
-        partService.updateStock(partId, quantity);
-        
-        // Atualizar custo total da ordem
-        order.updateTotalCost();
-        serviceOrderRepository.save(order);
+        // Somar o custo da peça ao total da ordem
+        serviceOrderService.applyTotalCostDelta(order, saved.getTotalCost());
         
         return saved;
     }
@@ -65,11 +64,13 @@ public class ServiceOrderPartService {
         return serviceOrderPartRepository.findByServiceOrderId(serviceOrderId);
     }
 
+    @RetryOnOptimisticLock
     public void removePartFromOrder(Long orderPartId) {
         ServiceOrderPart orderPart = serviceOrderPartRepository.findById(orderPartId)
             .orElseThrow(() -> new IllegalArgumentException("Associação não encontrada"));
         
         ServiceOrder order = orderPart.getServiceOrder();
+        serviceOrderService.lockForStockChanges(order);
         Part part = orderPart.getPart();
         Integer quantity = orderPart.getQuantity();
         
@@ -77,42 +78,45 @@ public class ServiceOrderPartService {
         serviceOrderPartRepository.deleteById(orderPartId);
         
         // Devolver ao estoque
-        part.setStock(part.getStock() + quantity);
-        partService.save(part);
+        partService.updateStock(part.getId(), -quantity, StockMovementDTO.Type.RETURN);
         
-        // Atualizar custo total da ordem
-        order.updateTotalCost();
-        serviceOrderRepository.save(order);
+        // Subtrair o custo da peça do total da ordem
+        serviceOrderService.applyTotalCostDelta(order, orderPart.getTotalCost().negate());
     }
 
+    @RetryOnOptimisticLock
     public ServiceOrderPart updateQuantity(Long orderPartId, Integer newQuantity) {
         ServiceOrderPart orderPart = serviceOrderPartRepository.findById(orderPartId)
             .orElseThrow(() -> new IllegalArgumentException("Associação não encontrada"));
+        serviceOrderService.lockForStockChanges(orderPart.getServiceOrder());
         
         Part part = orderPart.getPart();
         Integer oldQuantity = orderPart.getQuantity();
         int quantityDifference = newQuantity - oldQuantity;
         
         // Verificar estoque se estiver aumentando a quantidade
-        if (quantityDifference > 0 && part.getStock() < quantityDifference) {
-            throw new IllegalArgumentException(
-                "Estoque insuficiente. Disponível: " + part.getStock() + ", Necessário: " + quantityDifference
-            );
+        if (quantityDifference > 0) {
+            int available = partService.availableStock(part);
+            if (available < quantityDifference) {
+                throw new IllegalArgumentException(
+                    "Estoque insuficiente. Disponível: " + available + ", Necessário: " + quantityDifference
+                );
+            }
         }
         
         // Atualizar quantidade
+        BigDecimal oldCost = orderPart.getTotalCost();
         orderPart.setQuantity(newQuantity);
         ServiceOrderPart saved = serviceOrderPartRepository.save(orderPart);
         
-        // Atualizar estoque
+        // Atualizar estoque (diferença positiva consome, negativa devolve)
         if (quantityDifference != 0) {
-            partService.updateStock(part.getId(), -quantityDifference);
+            partService.updateStock(part.getId(), quantityDifference, quantityDifference > 0
+                ? StockMovementDTO.Type.CONSUMPTION : StockMovementDTO.Type.RETURN);
         }
         
-        // Atualizar custo total da ordem
-        ServiceOrder order = orderPart.getServiceOrder();
-        order.updateTotalCost();
-        serviceOrderRepository.save(order);
+        // Aplicar ao total da ordem apenas a diferença de custo da linha
+        serviceOrderService.applyTotalCostDelta(orderPart.getServiceOrder(), saved.getTotalCost().subtract(oldCost));
         
         return saved;
     }
@@ -1,48 +1,74 @@
 package com.acme.workshop.service;
 
+import com.acme.workshop.dto.PartQuantity;
+import com.acme.workshop.dto.ServiceOrderCursor;
+import com.acme.workshop.dto.ServiceOrderFilterDTO;
+import com.acme.workshop.dto.ServiceOrderStatusResultDTO;
+import com.acme.workshop.dto.ServiceOrderStatusSnapshot;
+import com.acme.workshop.dto.ServiceOrderSummaryDTO;
+import com.acme.workshop.dto.ServiceOrderSummaryPageDTO;
 import com.acme.workshop.model.*;
+import com.acme.workshop.repository.ServiceOrderPartRepository;
 import com.acme.workshop.repository.ServiceOrderRepository;
-import com.acme.workshop.service.observer.ServiceOrderObserver;
+import com.acme.workshop.service.observer.ServiceOrderStatusBatchChangedEvent;
+import com.acme.workshop.service.observer.ServiceOrderStatusChangedEvent;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class ServiceOrderService {
-    
+
+    public static final int MAX_STATUS_BATCH_SIZE = 1000;
+    public static final int FETCH_PARTS_BATCH_SIZE = 1000;
+
     private final ServiceOrderRepository serviceOrderRepository;
-    private final List<ServiceOrderObserver> observers = new ArrayList<>();
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ServiceOrderPartRepository serviceOrderPartRepository;
+    private final PartService partService;
 
     @Autowired
     public ServiceOrderService(ServiceOrderRepository serviceOrderRepository,
-                               List<ServiceOrderObserver> observers) { // <--- CORREÇÃO AQUI
+                               EntityManager entityManager,
+                               ApplicationEventPublisher eventPublisher,
+                               ServiceOrderPartRepository serviceOrderPartRepository,
+                               PartService partService) {
         this.serviceOrderRepository = serviceOrderRepository;
-        this.observers.addAll(observers); // O Spring injeta e nós adicionamos à lista
-    }
-
-    // ... (O resto do arquivo permanece IGUAL) ...
-
-    public void addObserver(ServiceOrderObserver observer) {
-        observers.add(observer);
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.serviceOrderPartRepository = serviceOrderPartRepository;
+        this.partService = partService;
     }
 
     public ServiceOrder save(ServiceOrder serviceOrder) {
         return serviceOrderRepository.save(serviceOrder);
     }
 
-    public void removeObserver(ServiceOrderObserver observer) {
-        observers.remove(observer);
+    public List<ServiceOrder> saveAll(List<ServiceOrder> serviceOrders) {
+        return serviceOrderRepository.saveAll(serviceOrders);
     }
 
     private void notifyObservers(ServiceOrder serviceOrder, ServiceOrder.ServiceStatus oldStatus) {
-        // Agora esta lista terá o EmailNotificationObserver dentro!
-        observers.forEach(observer -> observer.onServiceOrderStatusChange(serviceOrder, oldStatus));
+        // Publica uma fotografia da mudança; o ServiceOrderEventDispatcher entrega aos observers após o commit
+        eventPublisher.publishEvent(ServiceOrderStatusChangedEvent.of(serviceOrder, oldStatus));
     }
 
     public ServiceOrder createServiceOrder(Customer customer, Vehicle vehicle, 
@@ -58,15 +84,22 @@ public class ServiceOrderService {
         return serviceOrderRepository.save(serviceOrder);
     }
 
+    // Bloqueia a linha da OS antes de validar a transição: um cancelamento espera as alterações de peças
+    // em andamento (que bloqueiam a mesma linha) e só então devolve as quantidades ao estoque
     public ServiceOrder updateStatus(Long id, ServiceOrder.ServiceStatus newStatus) {
-        ServiceOrder serviceOrder = serviceOrderRepository.findById(id)
+        ServiceOrder serviceOrder = serviceOrderRepository.findByIdForUpdate(id)
             .orElseThrow(() -> new IllegalArgumentException("Ordem de serviço não encontrada"));
 
         ServiceOrder.ServiceStatus oldStatus = serviceOrder.getStatus();
+        if (!oldStatus.canTransitionTo(newStatus)) {
+            throw new IllegalArgumentException(transitionNotAllowed(oldStatus, newStatus));
+        }
         serviceOrder.setStatus(newStatus);
 
         if (newStatus == ServiceOrder.ServiceStatus.COMPLETED) {
             serviceOrder.setCompletedAt(LocalDateTime.now());
+        } else if (newStatus == ServiceOrder.ServiceStatus.CANCELED) {
+            returnPartsToStock(List.of(id));
         }
 
         serviceOrder = serviceOrderRepository.save(serviceOrder);
@@ -77,14 +110,153 @@ public class ServiceOrderService {
         return serviceOrder;
     }
 
+    // Troca de status em lote (fechamento do dia): valida todas as OS de uma vez, aplica as aceitas com
+    // um único UPDATE e publica os eventos juntos, gravados no outbox nesta mesma transação.
+    // OS inexistentes ou com transição não permitida são recusadas sem impedir as demais.
+    public List<ServiceOrderStatusResultDTO> updateStatuses(Collection<Long> ids, ServiceOrder.ServiceStatus newStatus) {
+        if (newStatus == null) {
+            throw new IllegalArgumentException("Status é obrigatório");
+        }
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        distinctIds.remove(null);
+        if (distinctIds.isEmpty()) {
+            return List.of();
+        }
+        if (distinctIds.size() > MAX_STATUS_BATCH_SIZE) {
+            throw new IllegalArgumentException("Troca de status limitada a " + MAX_STATUS_BATCH_SIZE + " OS por requisição");
+        }
+
+        Map<Long, ServiceOrderStatusSnapshot> current = serviceOrderRepository.lockStatusesByIdIn(distinctIds).stream()
+            .collect(Collectors.toMap(ServiceOrderStatusSnapshot::id, Function.identity()));
+
+        List<ServiceOrderStatusResultDTO> results = new ArrayList<>(distinctIds.size());
+        List<ServiceOrderStatusSnapshot> accepted = new ArrayList<>();
+        for (Long id : distinctIds) {
+            ServiceOrderStatusSnapshot snapshot = current.get(id);
+            if (snapshot == null) {
+                results.add(ServiceOrderStatusResultDTO.rejected(id, null, "Ordem de serviço não encontrada"));
+            } else if (!snapshot.status().canTransitionTo(newStatus)) {
+                results.add(ServiceOrderStatusResultDTO.rejected(id, snapshot.status(),
+                    transitionNotAllowed(snapshot.status(), newStatus)));
+            } else {
+                results.add(ServiceOrderStatusResultDTO.updated(id, snapshot.status()));
+                accepted.add(snapshot);
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            List<Long> acceptedIds = accepted.stream().map(ServiceOrderStatusSnapshot::id).collect(Collectors.toList());
+            if (newStatus == ServiceOrder.ServiceStatus.CANCELED) {
+                returnPartsToStock(acceptedIds);
+            }
+            LocalDateTime now = LocalDateTime.now();
+            serviceOrderRepository.updateStatusByIdIn(
+                acceptedIds,
+                newStatus,
+                newStatus == ServiceOrder.ServiceStatus.COMPLETED,
+                now);
+            eventPublisher.publishEvent(new ServiceOrderStatusBatchChangedEvent(accepted.stream()
+                .map(snapshot -> ServiceOrderStatusChangedEvent.of(snapshot, newStatus, now))
+                .collect(Collectors.toList())));
+        }
+        return results;
+    }
+
+    // Carrega a OS com bloqueio para alterar suas peças; o status conferido é o lido sob o bloqueio
+    public ServiceOrder findByIdForStockChanges(Long id) {
+        ServiceOrder serviceOrder = serviceOrderRepository.findByIdForUpdate(id)
+            .orElseThrow(() -> new IllegalArgumentException("Ordem de serviço não encontrada"));
+        requireStockChangesAllowed(serviceOrder.getStatus());
+        return serviceOrder;
+    }
+
+    // Bloqueia a OS de uma linha já carregada. A entidade pode ter sido lida antes do bloqueio (vem junto
+    // com a linha), então o status conferido é o da consulta que bloqueia, não o da entidade
+    public void lockForStockChanges(ServiceOrder serviceOrder) {
+        ServiceOrderStatusSnapshot snapshot = serviceOrderRepository.lockStatusesByIdIn(List.of(serviceOrder.getId()))
+            .stream()
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Ordem de serviço não encontrada"));
+        requireStockChangesAllowed(snapshot.status());
+    }
+
+    // Peças de OS concluída ou cancelada já saíram (ou voltaram) do estoque e não podem mais ser alteradas
+    public void requireStockChangesAllowed(ServiceOrder serviceOrder) {
+        requireStockChangesAllowed(serviceOrder.getStatus());
+    }
+
+    private static void requireStockChangesAllowed(ServiceOrder.ServiceStatus status) {
+        if (!status.allowsStockChanges()) {
+            throw new IllegalArgumentException("Peças não podem ser alteradas em OS com status " + status);
+        }
+    }
+
+    private static String transitionNotAllowed(ServiceOrder.ServiceStatus from, ServiceOrder.ServiceStatus to) {
+        return "Transição de " + from + " para " + to + " não permitida";
+    }
+
+    // Cancelamento: as quantidades de todas as linhas das OS voltam ao estoque em um único lote
+    private void returnPartsToStock(Collection<Long> orderIds) {
+        Map<Long, Integer> quantitiesByPart = serviceOrderPartRepository.sumQuantitiesByPart(orderIds).stream()
+            .collect(Collectors.toMap(PartQuantity::partId, total -> total.quantity().intValue()));
+        partService.returnStock(quantitiesByPart);
+    }
+
     public Optional<ServiceOrder> findById(Long id) {
         return serviceOrderRepository.findById(id);
     }
 
+    public Optional<ServiceOrder> findByIdForUpdate(Long id) {
+        return serviceOrderRepository.findByIdForUpdate(id);
+    }
+
     public List<ServiceOrder> findAll() {
         return serviceOrderRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public ServiceOrderSummaryPageDTO findSummaryPage(ServiceOrderFilterDTO filter, ServiceOrderCursor cursor, int limit) {
+        // Busca uma linha a mais para saber se existe próxima página
+        List<ServiceOrderSummaryDTO> rows = serviceOrderRepository.findSummaryPage(filter,
+            cursor != null ? cursor.createdAt() : null,
+            cursor != null ? cursor.id() : null,
+            limit + 1);
+
+        if (rows.size() <= limit) {
+            return new ServiceOrderSummaryPageDTO(rows, null);
+        }
+
+        List<ServiceOrderSummaryDTO> page = rows.subList(0, limit);
+        ServiceOrderSummaryDTO last = page.get(limit - 1);
+        return new ServiceOrderSummaryPageDTO(page, new ServiceOrderCursor(last.getCreatedAt(), last.getId()).encode());
+    }
+
+    // Carregam as OS com itens e peças em número constante de queries (2), independente de N
+    @Transactional(readOnly = true)
+    public List<ServiceOrder> findAllWithLines() {
+        return fetchParts(serviceOrderRepository.findAllWithItems());
+    }
+
+    @Transactional(readOnly = true)
+    public List<ServiceOrder> findByCustomerIdWithLines(Long customerId) {
+        return fetchParts(serviceOrderRepository.findWithItemsByCustomerId(customerId));
+    }
+
+    @Transactional(readOnly = true)
+    public List<ServiceOrder> findByTechnicianIdWithLines(Long technicianId) {
+        return fetchParts(serviceOrderRepository.findWithItemsByTechnicianId(technicianId));
+    }
+
+    // Em lotes de FETCH_PARTS_BATCH_SIZE ids: um IN com todas as OS estoura o limite de parâmetros
+    // por comando do PostgreSQL (32767)
+    private List<ServiceOrder> fetchParts(List<ServiceOrder> orders) {
+        List<Long> ids = orders.stream().map(ServiceOrder::getId).toList();
+        for (int from = 0; from < ids.size(); from += FETCH_PARTS_BATCH_SIZE) {
+            serviceOrderRepository.fetchPartsByIdIn(ids.subList(from, Math.min(from + FETCH_PARTS_BATCH_SIZE, ids.size())));
+        }
+        return orders;
+    }
+
     public List<ServiceOrder> findByCustomerId(Long customerId) {
         return serviceOrderRepository.findByCustomerId(customerId);
     }
@@ -113,6 +285,44 @@ public class ServiceOrderService {
         return serviceOrderRepository.save(serviceOrder);
     }
 
+    // Aplica ao total da OS apenas a variação da linha afetada, sem recarregar itens e peças
+    public void applyTotalCostDelta(ServiceOrder serviceOrder, BigDecimal delta) {
+        if (delta.signum() == 0) {
+            return;
+        }
+
+        if (serviceOrderRepository.addToTotalCost(serviceOrder.getId(), delta) == 0) {
+            throw new IllegalArgumentException("Ordem de serviço não encontrada");
+        }
+
+        // O UPDATE em massa não passa pelo contexto de persistência. Se a OS já estiver carregada,
+        // aplica o delta também em memória, sem refresh (que recarregaria itens e peças em cascata).
+        // Alternar para somente leitura e de volta faz do estado atual o novo snapshot, então o flush
+        // não vê o total como alteração nem incrementa a versão; as demais alterações pendentes da OS
+        // já foram gravadas pelo flush automático antes do UPDATE.
+        if (entityManager.contains(serviceOrder) && Hibernate.isInitialized(serviceOrder)) {
+            Session session = entityManager.unwrap(Session.class);
+            session.setReadOnly(serviceOrder, true);
+            serviceOrder.setTotalCost(serviceOrder.getTotalCost().add(delta));
+            session.setReadOnly(serviceOrder, false);
+        }
+    }
+
+    // Confere o total gravado com calculateTotalCost() sob bloqueio da linha; retorna true se corrigiu
+    public boolean reconcileTotalCost(Long id) {
+        ServiceOrder serviceOrder = serviceOrderRepository.findByIdForUpdate(id)
+            .orElseThrow(() -> new IllegalArgumentException("Ordem de serviço não encontrada"));
+
+        BigDecimal expected = serviceOrder.calculateTotalCost();
+        if (serviceOrder.getTotalCost() != null && serviceOrder.getTotalCost().compareTo(expected) == 0) {
+            return false;
+        }
+
+        serviceOrder.setTotalCost(expected);
+        serviceOrderRepository.save(serviceOrder);
+        return true;
+    }
+
     public void deleteById(Long id) {
         serviceOrderRepository.deleteById(id);
     }
@@ -0,0 +1,73 @@
+package com.acme.workshop.service;
+
+import com.acme.workshop.repository.ServiceOrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Rede de segurança para a manutenção incremental do total: periodicamente procura OS cujo
+// total gravado difere da soma das linhas e recalcula apenas essas, uma transação por OS
+@Component
+public class ServiceOrderTotalReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(ServiceOrderTotalReconciler.class);
+
+    private final ServiceOrderRepository serviceOrderRepository;
+    private final ServiceOrderService serviceOrderService;
+    private final Counter corrected;
+    private final int batchSize;
+
+    @Autowired
+    public ServiceOrderTotalReconciler(ServiceOrderRepository serviceOrderRepository,
+                                       ServiceOrderService serviceOrderService,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${workshop.totals.reconcile-batch-size:500}") int batchSize) {
+        this.serviceOrderRepository = serviceOrderRepository;
+        this.serviceOrderService = serviceOrderService;
+        this.batchSize = batchSize;
+        this.corrected = Counter.builder("workshop.totals.reconciled")
+            .description("OS com total divergente corrigidas pelo reconciliador")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${workshop.totals.reconcile-interval-ms:600000}",
+               initialDelayString = "${workshop.totals.reconcile-interval-ms:600000}")
+    public void scheduledReconcile() {
+        int fixed = reconcile();
+        if (fixed > 0) {
+            log.warn("Reconciliação de totais corrigiu {} ordem(ns) de serviço", fixed);
+        }
+    }
+
+    // Percorre as OS divergentes em lotes por id (keyset); retorna quantas foram corrigidas
+    public int reconcile() {
+        int fixed = 0;
+        long afterId = 0L;
+
+        List<Long> ids;
+        do {
+            ids = serviceOrderRepository.findIdsWithInconsistentTotal(afterId, PageRequest.of(0, batchSize));
+            for (Long id : ids) {
+                try {
+                    if (serviceOrderService.reconcileTotalCost(id)) {
+                        fixed++;
+                        corrected.increment();
+                    }
+                } catch (IllegalArgumentException e) {
+                    // OS removida entre a busca e o recálculo
+                }
+                afterId = id;
+            }
+        } while (ids.size() == batchSize);
+
+        return fixed;
+    }
+}
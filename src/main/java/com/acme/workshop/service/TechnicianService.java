@@ -6,6 +6,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,6 +32,10 @@ public class TechnicianService {
         return technicianRepository.findById(id);
     }
 
+    public List<Technician> findAllById(Collection<Long> ids) {
+        return technicianRepository.findAllById(ids);
+    }
+
     public List<Technician> findAll() {
         return technicianRepository.findAll();
     }
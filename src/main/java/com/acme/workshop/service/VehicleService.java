@@ -1,36 +1,54 @@
 package com.acme.workshop.service;
 
+import com.acme.workshop.dto.VehiclePlateMatchDTO;
 import com.acme.workshop.model.Vehicle;
 import com.acme.workshop.repository.VehicleRepository;
+import com.acme.workshop.service.search.VehiclePlateIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class VehicleService {
     
+    // Limite de resultados da busca por placa
+    public static final int MAX_PLATE_RESULTS = 50;
+
     private final VehicleRepository vehicleRepository;
+    private final VehiclePlateIndex vehiclePlateIndex;
 
     @Autowired
-    public VehicleService(VehicleRepository vehicleRepository) {
+    public VehicleService(VehicleRepository vehicleRepository, VehiclePlateIndex vehiclePlateIndex) {
         this.vehicleRepository = vehicleRepository;
+        this.vehiclePlateIndex = vehiclePlateIndex;
     }
 
     public Vehicle save(Vehicle vehicle) {
         if (vehicleRepository.existsByLicensePlate(vehicle.getLicensePlate())) {
             throw new IllegalArgumentException("Placa já cadastrada");
         }
-        return vehicleRepository.save(vehicle);
+        Vehicle saved = vehicleRepository.save(vehicle);
+        vehiclePlateIndex.indexAfterCommit(saved);
+        return saved;
     }
 
     public Optional<Vehicle> findById(Long id) {
         return vehicleRepository.findById(id);
     }
 
+    public List<Vehicle> findAllById(Collection<Long> ids) {
+        return vehicleRepository.findAllById(ids);
+    }
+
     public List<Vehicle> findAll() {
         return vehicleRepository.findAll();
     }
@@ -39,8 +57,28 @@ public class VehicleService {
         return vehicleRepository.findByCustomerId(customerId);
     }
 
+    // Busca por trecho inicial ou final da placa, ignorando hífen e caixa ("abc1", "1d23").
+    // O índice escolhe os ids; uma única projeção traz veículo e nome do dono.
+    @Transactional(readOnly = true)
+    public List<VehiclePlateMatchDTO> searchByPlate(String plate, int limit) {
+        if (limit < 1 || limit > MAX_PLATE_RESULTS) {
+            throw new IllegalArgumentException("O limite deve estar entre 1 e " + MAX_PLATE_RESULTS);
+        }
+        List<Long> ids = vehiclePlateIndex.search(plate, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, VehiclePlateMatchDTO> byId = vehicleRepository.findPlateMatchesByIdIn(ids).stream()
+            .collect(Collectors.toMap(VehiclePlateMatchDTO::id, Function.identity()));
+        return ids.stream()
+            .map(byId::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    }
+
     public void delete(Long id) {
         vehicleRepository.deleteById(id);
+        vehiclePlateIndex.removeAfterCommit(id);
     }
 
     public Vehicle update(Long id, Vehicle vehicleDetails) {
@@ -59,6 +97,8 @@ public class VehicleService {
         vehicle.setLicensePlate(vehicleDetails.getLicensePlate());
         vehicle.setCustomer(vehicleDetails.getCustomer());
 
-        return vehicleRepository.save(vehicle);
+        Vehicle saved = vehicleRepository.save(vehicle);
+        vehiclePlateIndex.indexAfterCommit(saved);
+        return saved;
     }
 }
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.acme.workshop.service.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+// Respostas das requisições com Idempotency-Key: cache local com tamanho máximo e TTL na frente de
+// uma tabela compartilhada entre réplicas. Uma repetição atendida pelo cache não toca o banco.
+// Os comandos rodam em auto-commit, fora da transação da requisição: a reserva da chave fica
+// visível às outras réplicas antes de a requisição original executar. A reserva vale só pelo prazo
+// de execução (lease): se a réplica cair no meio, a chave volta a ficar livre logo, e não depois do TTL.
+@Component
+public class IdempotencyStore {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration ttl;
+    private final Duration lease;
+    private final Cache<String, IdempotentResponse> completed;
+
+    @Autowired
+    public IdempotencyStore(JdbcTemplate jdbcTemplate,
+                            @Value("${workshop.idempotency.ttl-minutes:1440}") long ttlMinutes,
+                            @Value("${workshop.idempotency.lease-seconds:300}") long leaseSeconds,
+                            @Value("${workshop.idempotency.memory-max-entries:10000}") long memoryMaxEntries) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.completed = Caffeine.newBuilder()
+            .maximumSize(memoryMaxEntries)
+            .expireAfterWrite(ttl)
+            .build();
+    }
+
+    // Resposta (ou reserva em andamento) ainda válida para a chave: cache local e, na falta, o banco
+    public Optional<IdempotentResponse> find(String key) {
+        IdempotentResponse cached = completed.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        List<IdempotentResponse> rows = jdbcTemplate.query(
+            "SELECT request_hash, status_code, content_type, location, response_body FROM idempotency_keys " +
+            "WHERE idempotency_key = ? AND expires_at > ?",
+            (rs, rowNum) -> new IdempotentResponse(rs.getString(1), rs.getInt(2), rs.getString(3), rs.getString(4), rs.getString(5)),
+            key, Timestamp.valueOf(LocalDateTime.now()));
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        IdempotentResponse stored = rows.get(0);
+        if (stored.completed()) {
+            completed.put(key, stored);
+        }
+        return Optional.of(stored);
+    }
+
+    // Reserva a chave antes de executar a requisição; false se outra requisição já a reservou
+    public boolean claim(String key, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        // Uma reserva vencida e ainda não expurgada não deve bloquear a chave
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE idempotency_key = ? AND expires_at <= ?",
+            key, Timestamp.valueOf(now));
+        try {
+            jdbcTemplate.update("INSERT INTO idempotency_keys (idempotency_key, request_hash, expires_at) VALUES (?, ?, ?)",
+                key, requestHash, Timestamp.valueOf(now.plus(lease)));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    // Grava a resposta e estende a validade da chave da reserva para o TTL
+    public void complete(String key, IdempotentResponse response) {
+        jdbcTemplate.update("UPDATE idempotency_keys SET status_code = ?, content_type = ?, location = ?, response_body = ?, " +
+                "expires_at = ? WHERE idempotency_key = ?",
+            response.statusCode(), response.contentType(), response.location(), response.body(),
+            Timestamp.valueOf(LocalDateTime.now().plus(ttl)), key);
+        completed.put(key, response);
+    }
+
+    // Requisição falhou: libera a chave para que o cliente possa tentar de novo
+    public void release(String key) {
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE idempotency_key = ? AND status_code IS NULL", key);
+    }
+
+    @Scheduled(fixedDelayString = "${workshop.idempotency.purge-interval-ms:3600000}")
+    public int purgeExpired() {
+        return jdbcTemplate.update("DELETE FROM idempotency_keys WHERE expires_at <= ?", Timestamp.valueOf(LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,10 @@
+package com.acme.workshop.service.idempotency;
+
+// Resposta gravada para uma Idempotency-Key. statusCode 0 indica que a primeira requisição
+// ainda está em execução; requestHash identifica o conteúdo da requisição original.
+public record IdempotentResponse(String requestHash, int statusCode, String contentType, String location, String body) {
+
+    public boolean completed() {
+        return statusCode > 0;
+    }
+}
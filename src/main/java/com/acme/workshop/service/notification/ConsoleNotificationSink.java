@@ -0,0 +1,23 @@
+package com.acme.workshop.service.notification;
+
+// Sink local padrão: simula o envio de e-mail escrevendo no console
+public class ConsoleNotificationSink implements NotificationSink {
+
+    @Override
+    public void send(NotificationDigest digest) {
+        StringBuilder message = new StringBuilder("Prezado cliente, ");
+        if (digest.transitions().size() == 1) {
+            NotificationDigest.Transition t = digest.transitions().get(0);
+            message.append(String.format("sua ordem de serviço #%d teve seu status alterado de %s para %s.",
+                t.orderId(), t.fromStatus(), t.toStatus()));
+        } else {
+            message.append("suas ordens de serviço tiveram o status alterado:");
+            for (NotificationDigest.Transition t : digest.transitions()) {
+                message.append(String.format("%n - #%d: %s -> %s", t.orderId(), t.fromStatus(), t.toStatus()));
+            }
+        }
+
+        System.out.println("Enviando e-mail para: " + digest.customerEmail());
+        System.out.println("Mensagem: " + message);
+    }
+}
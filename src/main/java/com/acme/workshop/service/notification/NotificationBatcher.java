@@ -0,0 +1,145 @@
+package com.acme.workshop.service.notification;
+
+import com.acme.workshop.model.ServiceOrder;
+import com.acme.workshop.service.observer.ServiceOrderStatusChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Agrupa as mudanças de status por cliente durante uma janela e envia um único resumo.
+// Por OS guarda só o status de origem (o primeiro da janela) e o mais recente: estados
+// intermediários são descartados e uma OS que volta ao status original não gera mensagem.
+// A janela começa na primeira mudança do cliente, então nenhuma notificação atrasa mais que ela.
+// Cada submit devolve um future que completa quando o resumo que contém a mudança foi enviado
+// (ou com erro, se o envio falhar): quem entregou o evento só o confirma depois disso.
+public class NotificationBatcher implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationBatcher.class);
+
+    private final NotificationSink sink;
+    private final long windowMs;
+    private final Map<Long, Pending> pendingByCustomer = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final Counter transitionsReceived;
+    private final Counter digestsSent;
+
+    public NotificationBatcher(NotificationSink sink, long windowMs, MeterRegistry meterRegistry) {
+        this.sink = sink;
+        this.windowMs = windowMs;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.transitionsReceived = Counter.builder("workshop.notifications.transitions")
+            .description("Mudanças de status recebidas pelo agrupador de notificações")
+            .register(meterRegistry);
+        this.digestsSent = Counter.builder("workshop.notifications.digests")
+            .description("Resumos de notificação enviados")
+            .register(meterRegistry);
+    }
+
+    public CompletableFuture<Void> submit(ServiceOrderStatusChangedEvent event) {
+        transitionsReceived.increment();
+
+        CompletableFuture<Void> sent = new CompletableFuture<>();
+        boolean[] opened = {false};
+        pendingByCustomer.compute(event.customerId(), (customerId, pending) -> {
+            if (pending == null) {
+                pending = new Pending(event.customerName(), event.customerEmail());
+                opened[0] = true;
+            }
+            pending.record(event, sent);
+            return pending;
+        });
+
+        if (opened[0]) {
+            scheduler.schedule(() -> flush(event.customerId()), windowMs, TimeUnit.MILLISECONDS);
+        }
+        return sent;
+    }
+
+    // Envia imediatamente todos os resumos pendentes (encerramento e testes)
+    public void flushAll() {
+        for (Long customerId : List.copyOf(pendingByCustomer.keySet())) {
+            flush(customerId);
+        }
+    }
+
+    public int pendingCustomers() {
+        return pendingByCustomer.size();
+    }
+
+    private void flush(Long customerId) {
+        Pending pending = pendingByCustomer.remove(customerId);
+        if (pending == null) {
+            return;
+        }
+
+        NotificationDigest digest;
+        List<CompletableFuture<Void>> waiting;
+        synchronized (pending) {
+            digest = pending.toDigest(customerId);
+            waiting = List.copyOf(pending.waiting);
+        }
+        if (digest.transitions().isEmpty()) {
+            waiting.forEach(sent -> sent.complete(null));
+            return;
+        }
+
+        try {
+            sink.send(digest);
+            digestsSent.increment();
+            waiting.forEach(sent -> sent.complete(null));
+        } catch (RuntimeException e) {
+            log.error("Falha ao enviar resumo de notificações para o cliente #{}", customerId, e);
+            waiting.forEach(sent -> sent.completeExceptionally(e));
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        flushAll();
+    }
+
+    private static final class Pending {
+        private final String customerName;
+        private final String customerEmail;
+        private final Map<Long, ServiceOrder.ServiceStatus[]> byOrder = new LinkedHashMap<>();
+        private final List<CompletableFuture<Void>> waiting = new ArrayList<>();
+
+        Pending(String customerName, String customerEmail) {
+            this.customerName = customerName;
+            this.customerEmail = customerEmail;
+        }
+
+        synchronized void record(ServiceOrderStatusChangedEvent event, CompletableFuture<Void> sent) {
+            waiting.add(sent);
+            // [0] = status antes da primeira mudança na janela, [1] = status mais recente
+            byOrder.computeIfAbsent(event.orderId(), id -> new ServiceOrder.ServiceStatus[]{event.oldStatus(), null})[1] =
+                event.newStatus();
+        }
+
+        NotificationDigest toDigest(Long customerId) {
+            List<NotificationDigest.Transition> transitions = new ArrayList<>(byOrder.size());
+            byOrder.forEach((orderId, statuses) -> {
+                if (statuses[0] != statuses[1]) {
+                    transitions.add(new NotificationDigest.Transition(orderId, statuses[0], statuses[1]));
+                }
+            });
+            return new NotificationDigest(customerId, customerName, customerEmail, transitions);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.acme.workshop.service.notification;
+
+import com.acme.workshop.model.ServiceOrder;
+
+import java.util.List;
+
+// Resumo enviado ao cliente: uma transição líquida por OS alterada dentro da janela
+public record NotificationDigest(Long customerId, String customerName, String customerEmail,
+                                 List<Transition> transitions) {
+
+    public record Transition(Long orderId, ServiceOrder.ServiceStatus fromStatus, ServiceOrder.ServiceStatus toStatus) {
+    }
+}
@@ -0,0 +1,6 @@
+package com.acme.workshop.service.notification;
+
+// Destino das notificações (e-mail, fila, console...). Trocável para testes sem rede.
+public interface NotificationSink {
+    void send(NotificationDigest digest);
+}
@@ -1,23 +1,31 @@
 package com.acme.workshop.service.observer;
 
-import com.acme.workshop.model.ServiceOrder;
+import com.acme.workshop.service.notification.NotificationBatcher;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+
 @Component
 public class EmailNotificationObserver implements ServiceOrderObserver {
+
+    private final NotificationBatcher notificationBatcher;
+
+    @Autowired
+    public EmailNotificationObserver(NotificationBatcher notificationBatcher) {
+        this.notificationBatcher = notificationBatcher;
+    }
     
     @Override
-    public void onServiceOrderStatusChange(ServiceOrder serviceOrder, ServiceOrder.ServiceStatus oldStatus) {
-        // Simulando o envio de e-mail (em um sistema real, isso seria injetado via EmailService)
-        String customerEmail = serviceOrder.getCustomer().getEmail();
-        String message = String.format(
-            "Prezado cliente, sua ordem de serviço #%d teve seu status alterado de %s para %s.",
-            serviceOrder.getId(),
-            oldStatus,
-            serviceOrder.getStatus()
-        );
-        
-        System.out.println("Enviando e-mail para: " + customerEmail);
-        System.out.println("Mensagem: " + message);
+    public void onServiceOrderStatusChange(ServiceOrderStatusChangedEvent event) {
+        deliver(event);
+    }
+
+    // O e-mail sai como resumo por cliente ao fim da janela do agrupador; o future só completa
+    // depois do envio, então o evento continua reivindicado no outbox até lá e volta se o envio falhar.
+    // Reentregas do outbox da mesma transição se fundem na mesma entrada.
+    @Override
+    public CompletableFuture<Void> deliver(ServiceOrderStatusChangedEvent event) {
+        return notificationBatcher.submit(event);
     }
-}
\ No newline at end of file
+}
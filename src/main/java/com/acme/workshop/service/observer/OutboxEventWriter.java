@@ -0,0 +1,55 @@
+package com.acme.workshop.service.observer;
+
+import com.acme.workshop.model.OutboxEvent;
+import com.acme.workshop.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.stream.Collectors;
+
+// Grava o evento no outbox dentro da transação da mudança de status:
+// ou os dois são confirmados juntos, ou nenhum é
+@Component
+public class OutboxEventWriter {
+
+    public static final String STATUS_CHANGED = "ServiceOrderStatusChanged";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public OutboxEventWriter(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onStatusChanged(ServiceOrderStatusChangedEvent event) {
+        outboxEventRepository.save(toOutboxEvent(event));
+    }
+
+    // Lote de mudanças: INSERTs agrupados em lote JDBC
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onStatusesChanged(ServiceOrderStatusBatchChangedEvent batch) {
+        outboxEventRepository.saveAll(batch.events().stream().map(this::toOutboxEvent).collect(Collectors.toList()));
+    }
+
+    private OutboxEvent toOutboxEvent(ServiceOrderStatusChangedEvent event) {
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setAggregateId(event.orderId());
+        outboxEvent.setEventType(STATUS_CHANGED);
+        try {
+            outboxEvent.setPayload(objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Não foi possível serializar o evento da OS #" + event.orderId(), e);
+        }
+        return outboxEvent;
+    }
+}
@@ -0,0 +1,180 @@
+package com.acme.workshop.service.observer;
+
+import com.acme.workshop.model.OutboxEvent;
+import com.acme.workshop.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Drena o outbox em lotes e entrega aos observers com garantia at-least-once: a linha só é marcada
+// como processada depois que todos os observers concluíram. Reivindicação e resultado são transações
+// curtas e separadas; a entrega acontece entre elas, sem conexão presa. A reivindicação reserva as
+// linhas até next_attempt_at: se a aplicação cair no meio da entrega, o lote volta a ficar disponível
+// quando o prazo vence e é reentregue, então os observers devem tolerar duplicatas.
+// Várias réplicas podem rodar o poller ao mesmo tempo: cada uma reivindica linhas diferentes.
+@Component
+public class OutboxPoller {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxPoller.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ServiceOrderEventDispatcher dispatcher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long deliveryTimeoutMs;
+    private final long retryBackoffMs;
+    private final long maxBackoffMs;
+    private final int retentionDays;
+    private final Counter delivered;
+    private final Counter failed;
+    private final Counter dead;
+
+    @Autowired
+    public OutboxPoller(OutboxEventRepository outboxEventRepository,
+                        ServiceOrderEventDispatcher dispatcher,
+                        ObjectMapper objectMapper,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry,
+                        @Value("${workshop.outbox.batch-size:100}") int batchSize,
+                        @Value("${workshop.outbox.max-attempts:10}") int maxAttempts,
+                        @Value("${workshop.outbox.delivery-timeout-ms:30000}") long deliveryTimeoutMs,
+                        @Value("${workshop.outbox.retry-backoff-ms:1000}") long retryBackoffMs,
+                        @Value("${workshop.outbox.max-backoff-ms:300000}") long maxBackoffMs,
+                        @Value("${workshop.outbox.retention-days:7}") int retentionDays) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.dispatcher = dispatcher;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.deliveryTimeoutMs = deliveryTimeoutMs;
+        this.retryBackoffMs = retryBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.retentionDays = retentionDays;
+        this.delivered = Counter.builder("workshop.outbox.delivered")
+            .description("Eventos do outbox entregues a todos os observers")
+            .register(meterRegistry);
+        this.failed = Counter.builder("workshop.outbox.failed")
+            .description("Tentativas de entrega de eventos do outbox que falharam")
+            .register(meterRegistry);
+        this.dead = Counter.builder("workshop.outbox.dead")
+            .description("Eventos do outbox que esgotaram as tentativas e não serão mais entregues")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${workshop.outbox.poll-interval-ms:500}")
+    public void poll() {
+        // Continua enquanto vierem lotes cheios entregues sem falha
+        while (drainBatch() == batchSize) {
+            // próximo lote
+        }
+    }
+
+    // Reivindica, entrega e marca um lote; retorna quantos eventos foram entregues
+    public int drainBatch() {
+        List<OutboxEvent> batch = claim();
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<Void>> deliveries = new ArrayList<>(batch.size());
+        for (OutboxEvent outboxEvent : batch) {
+            deliveries.add(dispatch(outboxEvent));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deliveryTimeoutMs);
+        List<Long> ok = new ArrayList<>(batch.size());
+        List<Throwable> errors = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Throwable error = null;
+            try {
+                deliveries.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                ok.add(batch.get(i).getId());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                error = e;
+            } catch (ExecutionException | TimeoutException e) {
+                error = e.getCause() != null ? e.getCause() : e;
+            }
+            errors.add(error);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (!ok.isEmpty()) {
+                outboxEventRepository.markProcessed(ok, now);
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                if (errors.get(i) != null) {
+                    markFailed(batch.get(i), errors.get(i), now);
+                }
+            }
+        });
+        delivered.increment(ok.size());
+        return ok.size();
+    }
+
+    @Scheduled(cron = "${workshop.outbox.purge-cron:0 0 3 * * *}")
+    public void purgeProcessed() {
+        transactionTemplate.executeWithoutResult(status ->
+            outboxEventRepository.deleteProcessedBefore(LocalDateTime.now().minusDays(retentionDays)));
+    }
+
+    // Reserva o lote pelo dobro do prazo de entrega: tempo para entregar e gravar o resultado
+    private List<OutboxEvent> claim() {
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> claimed = outboxEventRepository.claimPending(maxAttempts, now, batchSize);
+            LocalDateTime leaseUntil = now.plusNanos(TimeUnit.MILLISECONDS.toNanos(2 * deliveryTimeoutMs));
+            claimed.forEach(outboxEvent -> outboxEvent.setNextAttemptAt(leaseUntil));
+            return claimed;
+        });
+        return batch != null ? batch : List.of();
+    }
+
+    private CompletableFuture<Void> dispatch(OutboxEvent outboxEvent) {
+        try {
+            ServiceOrderStatusChangedEvent event =
+                objectMapper.readValue(outboxEvent.getPayload(), ServiceOrderStatusChangedEvent.class);
+            return dispatcher.dispatch(event);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // Backoff exponencial a partir de retryBackoffMs, limitado a maxBackoffMs
+    private void markFailed(OutboxEvent outboxEvent, Throwable error, LocalDateTime now) {
+        failed.increment();
+        int attempts = outboxEvent.getAttempts() + 1;
+        String message = String.valueOf(error.getMessage());
+        long backoffMs = Math.min(maxBackoffMs, retryBackoffMs << Math.min(attempts - 1, 30));
+        outboxEventRepository.markFailed(outboxEvent.getId(),
+            message.length() > 1000 ? message.substring(0, 1000) : message,
+            now.plusNanos(TimeUnit.MILLISECONDS.toNanos(backoffMs)));
+
+        if (attempts >= maxAttempts) {
+            // Fica no outbox para inspeção e reprocessamento manual (zerar attempts); a limpeza não a remove
+            dead.increment();
+            log.error("Evento #{} do outbox ({}, OS #{}) descartado após {} tentativas: {}",
+                outboxEvent.getId(), outboxEvent.getEventType(), outboxEvent.getAggregateId(), attempts, message);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.acme.workshop.service.observer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+// Entrega os eventos de mudança de status aos observers em um pool próprio com fila limitada.
+// Com a fila cheia, a thread que despacha entrega o evento ela mesma (CallerRunsPolicy):
+// a pressão volta para quem produz, em vez de descartar ou crescer sem limite.
+// Os eventos chegam aqui pelo OutboxPoller, depois de gravados e confirmados no outbox.
+@Component
+public class ServiceOrderEventDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(ServiceOrderEventDispatcher.class);
+
+    private final List<ServiceOrderObserver> observers = new CopyOnWriteArrayList<>();
+    private final ThreadPoolExecutor executor;
+    private final Timer deliveryLatency;
+    private final Counter failures;
+
+    @Autowired
+    public ServiceOrderEventDispatcher(List<ServiceOrderObserver> observers,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${workshop.events.pool-size:2}") int poolSize,
+                                       @Value("${workshop.events.queue-capacity:1000}") int queueCapacity) {
+        this.observers.addAll(observers);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+            poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "so-events-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+
+        Gauge.builder("workshop.events.queue.depth", executor, e -> e.getQueue().size())
+            .description("Eventos de status aguardando entrega")
+            .register(meterRegistry);
+        this.deliveryLatency = Timer.builder("workshop.events.delivery.latency")
+            .description("Tempo entre a mudança de status e a entrega do evento a um observer")
+            .register(meterRegistry);
+        this.failures = Counter.builder("workshop.events.delivery.failures")
+            .description("Entregas de evento que lançaram exceção no observer")
+            .register(meterRegistry);
+    }
+
+    public void addObserver(ServiceOrderObserver observer) {
+        observers.add(observer);
+    }
+
+    public void removeObserver(ServiceOrderObserver observer) {
+        observers.remove(observer);
+    }
+
+    // Entrega o evento a todos os observers em paralelo; o future completa com erro se algum falhar
+    public CompletableFuture<Void> dispatch(ServiceOrderStatusChangedEvent event) {
+        CompletableFuture<?>[] deliveries = observers.stream()
+            .map(observer -> CompletableFuture.supplyAsync(() -> deliver(observer, event), executor)
+                .thenCompose(Function.identity()))
+            .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(deliveries);
+    }
+
+    private CompletableFuture<Void> deliver(ServiceOrderObserver observer, ServiceOrderStatusChangedEvent event) {
+        CompletableFuture<Void> delivery;
+        try {
+            delivery = observer.deliver(event);
+        } catch (RuntimeException e) {
+            delivery = CompletableFuture.failedFuture(e);
+        }
+        return delivery.whenComplete((ignored, error) -> {
+            deliveryLatency.record(Duration.between(event.changedAt(), LocalDateTime.now()));
+            if (error != null) {
+                // Falha de um observer não afeta os demais; o evento volta a ser entregue pelo outbox
+                failures.increment();
+                log.error("Falha ao notificar {} sobre a OS #{}", observer.getClass().getSimpleName(), event.orderId(), error);
+            }
+        });
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Esvazia a fila antes de encerrar a aplicação
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -1,7 +1,14 @@
 package com.acme.workshop.service.observer;
 
-import com.acme.workshop.model.ServiceOrder;
+import java.util.concurrent.CompletableFuture;
 
 public interface ServiceOrderObserver {
-    void onServiceOrderStatusChange(ServiceOrder serviceOrder, ServiceOrder.ServiceStatus oldStatus);
-}
\ No newline at end of file
+    void onServiceOrderStatusChange(ServiceOrderStatusChangedEvent event);
+
+    // Chamado pelo dispatcher. Observers que concluem o trabalho depois de retornar (ex.: envio
+    // agrupado) devolvem um future que só completa ao fim dele: o outbox só confirma o evento então.
+    default CompletableFuture<Void> deliver(ServiceOrderStatusChangedEvent event) {
+        onServiceOrderStatusChange(event);
+        return CompletableFuture.completedFuture(null);
+    }
+}
@@ -0,0 +1,7 @@
+package com.acme.workshop.service.observer;
+
+import java.util.List;
+
+// Mudanças de status aplicadas juntas por um UPDATE em lote; gravadas no outbox de uma vez
+public record ServiceOrderStatusBatchChangedEvent(List<ServiceOrderStatusChangedEvent> events) {
+}
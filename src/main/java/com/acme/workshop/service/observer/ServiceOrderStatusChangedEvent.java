@@ -0,0 +1,43 @@
+package com.acme.workshop.service.observer;
+
+import com.acme.workshop.dto.ServiceOrderStatusSnapshot;
+import com.acme.workshop.model.ServiceOrder;
+
+import java.time.LocalDateTime;
+
+// Fotografia imutável da mudança de status: os observers não recebem a entidade gerenciada,
+// então podem rodar em outra thread, fora da transação e sem carregar relacionamentos lazy
+public record ServiceOrderStatusChangedEvent(
+        Long orderId,
+        Long customerId,
+        String customerName,
+        String customerEmail,
+        ServiceOrder.ServiceStatus oldStatus,
+        ServiceOrder.ServiceStatus newStatus,
+        LocalDateTime changedAt) {
+
+    public static ServiceOrderStatusChangedEvent of(ServiceOrder serviceOrder, ServiceOrder.ServiceStatus oldStatus) {
+        return new ServiceOrderStatusChangedEvent(
+            serviceOrder.getId(),
+            serviceOrder.getCustomer().getId(),
+            serviceOrder.getCustomer().getName(),
+            serviceOrder.getCustomer().getEmail(),
+            oldStatus,
+            serviceOrder.getStatus(),
+            LocalDateTime.now()
+        );
+    }
+
+    public static ServiceOrderStatusChangedEvent of(ServiceOrderStatusSnapshot snapshot,
+                                                    ServiceOrder.ServiceStatus newStatus, LocalDateTime changedAt) {
+        return new ServiceOrderStatusChangedEvent(
+            snapshot.id(),
+            snapshot.customerId(),
+            snapshot.customerName(),
+            snapshot.customerEmail(),
+            snapshot.status(),
+            newStatus,
+            changedAt
+        );
+    }
+}
@@ -0,0 +1,96 @@
+package com.acme.workshop.service.search;
+
+import com.acme.workshop.dto.CustomerSearchEntry;
+import com.acme.workshop.model.Customer;
+import com.acme.workshop.repository.CustomerRepository;
+import com.acme.workshop.service.support.AfterCommit;
+import com.acme.workshop.service.support.SwappableIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Busca de clientes por digitação servida pelo CustomerTrigramIndex. A primeira busca carrega o
+// índice do banco em lotes; depois o CustomerService avisa cada inclusão, alteração e exclusão
+// confirmada. Alterações feitas por fora do serviço ou em outra instância aparecem na recarga
+// periódica, que monta um índice novo em segundo plano enquanto o atual continua atendendo.
+@Component
+public class CustomerSearchIndex {
+
+    private final CustomerRepository customerRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int batchSize;
+    private final SwappableIndex<CustomerTrigramIndex> index;
+
+    @Autowired
+    public CustomerSearchIndex(CustomerRepository customerRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${workshop.customer-search.load-batch-size:10000}") int batchSize) {
+        this.customerRepository = customerRepository;
+        this.batchSize = batchSize;
+
+        // Transação própria: a carga só enxerga dados confirmados
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        this.index = new SwappableIndex<>("customer-search", this::load);
+    }
+
+    public List<Long> search(String query, int limit) {
+        return index.get().search(query, limit);
+    }
+
+    public void indexAfterCommit(Customer customer) {
+        // Estado capturado agora: a entidade ainda pode mudar antes do commit
+        long id = customer.getId();
+        String name = customer.getName();
+        String email = customer.getEmail();
+        String phone = customer.getPhone();
+        AfterCommit.run(() -> index.update(current -> {
+            current.index(id, name, email, phone);
+            return current;
+        }));
+    }
+
+    public void removeAfterCommit(Long id) {
+        AfterCommit.run(() -> index.update(current -> {
+            current.remove(id);
+            return current;
+        }));
+    }
+
+    // Recarga periódica em segundo plano
+    @Scheduled(fixedDelayString = "${workshop.customer-search.refresh-interval-ms:600000}",
+               initialDelayString = "${workshop.customer-search.refresh-interval-ms:600000}")
+    public void invalidate() {
+        rebuild();
+    }
+
+    public CompletableFuture<Void> rebuild() {
+        return index.rebuild();
+    }
+
+    private CustomerTrigramIndex load() {
+        CustomerTrigramIndex loaded = new CustomerTrigramIndex();
+        long afterId = 0L;
+        List<CustomerSearchEntry> batch;
+        do {
+            long from = afterId;
+            batch = readOnlyTransaction.execute(status ->
+                customerRepository.findSearchEntriesAfter(from, PageRequest.of(0, batchSize)));
+            for (CustomerSearchEntry entry : batch) {
+                loaded.index(entry.id(), entry.name(), entry.email(), entry.phone());
+                afterId = entry.id();
+            }
+        } while (batch.size() == batchSize);
+        return loaded;
+    }
+}
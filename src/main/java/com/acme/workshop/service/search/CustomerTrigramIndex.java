@@ -0,0 +1,415 @@
+package com.acme.workshop.service.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Índice invertido de trigramas sobre nome, email e telefone dos clientes, todo em arrays de int.
+// O texto é normalizado para um alfabeto de 37 símbolos (separador, a-z, 0-9), então cada trigrama
+// vira um inteiro < 37³ que indexa diretamente a lista de postings. Cada cliente ocupa um "slot";
+// alterar ou remover só marca o slot antigo como morto, e as listas continuam ordenadas porque
+// slots novos sempre entram no fim. Quando os mortos passam de 1/4, o índice é compactado.
+public class CustomerTrigramIndex {
+
+    private static final int ALPHABET = 37;
+    private static final int GRAM_SPACE = ALPHABET * ALPHABET * ALPHABET;
+    private static final int SEPARATOR = 0;
+
+    // Uma letra errada derruba até 3 trigramas; a busca tolera isso, mas nunca menos da metade
+    private static final int MAX_MISSED_GRAMS = 3;
+    private static final int COMPACT_MIN_DEAD = 1024;
+    private static final int MAX_QUERY_CODES = 64;
+
+    // Contagem de acertos por slot num byte: bits baixos para os trigramas, um bit para o prefixo
+    private static final int COUNT_MASK = 0x3F;
+    private static final byte PREFIX_FLAG = 0x40;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final int[][] postings = new int[GRAM_SPACE][];
+    private final int[] postingSizes = new int[GRAM_SPACE];
+
+    private long[] slotIds = new long[1024];
+    private int[] slotGramCounts = new int[1024];
+    private final BitSet dead = new BitSet();
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private int slotCount;
+    private int deadCount;
+
+    public void index(long id, String name, String email, String phone) {
+        int[] grams = documentGrams(name, email, phone);
+        lock.writeLock().lock();
+        try {
+            removeSlot(id);
+            int slot = slotCount++;
+            if (slot == slotIds.length) {
+                slotIds = Arrays.copyOf(slotIds, slot + (slot >> 1));
+                slotGramCounts = Arrays.copyOf(slotGramCounts, slotIds.length);
+            }
+            slotIds[slot] = id;
+            slotGramCounts[slot] = grams.length;
+            slotById.put(id, slot);
+            for (int gram : grams) {
+                append(gram, slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeSlot(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            Arrays.fill(postings, null);
+            Arrays.fill(postingSizes, 0);
+            slotIds = new long[1024];
+            slotGramCounts = new int[1024];
+            dead.clear();
+            slotById.clear();
+            slotCount = 0;
+            deadCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ids dos melhores clientes, do mais para o menos relevante. Critérios: quantidade de trigramas
+    // em comum, depois o texto mais curto (casamento mais "denso"), depois o id mais antigo.
+    public List<Long> search(String query, int limit) {
+        int[] codes = encodeQuery(query);
+        if (codes.length < 3 || limit <= 0) {
+            return List.of();
+        }
+        // O trigrama de início de palavra (" jo") só conta pontos; exigido apenas quando é o único,
+        // senão trechos do meio (telefone, sobrenome colado no email) nunca casariam
+        int prefixGram = gram(codes, 0);
+        boolean prefixBonus = codes.length > 3;
+        int[] grams = prefixBonus ? distinct(grams(codes, 1), codes.length - 3) : new int[] { prefixGram };
+        int minHits = Math.max(grams.length - MAX_MISSED_GRAMS, (grams.length + 1) / 2);
+
+        lock.readLock().lock();
+        try {
+            Scratch scratch = SCRATCH.get().ensureCapacity(slotCount);
+            byte[] hits = scratch.hits;
+            try {
+                // Listas mais raras primeiro. Pela casa dos pombos, quem tem minHits acertos aparece em
+                // alguma das (n - minHits + 1) primeiras: só elas criam candidatos, as demais só confirmam
+                int[] bySize = sortBySize(grams);
+                int candidateLists = grams.length - minHits + 1;
+                for (int i = 0; i < grams.length; i++) {
+                    int[] list = postings[bySize[i]];
+                    int size = postingSizes[bySize[i]];
+                    if (i < candidateLists) {
+                        for (int p = 0; p < size; p++) {
+                            int slot = list[p];
+                            if (hits[slot]++ == 0) {
+                                scratch.touch(slot);
+                            }
+                        }
+                    } else if ((long) scratch.touchedCount * 16 < size) {
+                        // Poucos candidatos numa lista longa: busca binária por candidato
+                        for (int t = 0; t < scratch.touchedCount; t++) {
+                            int slot = scratch.touched[t];
+                            if (contains(list, size, slot)) {
+                                hits[slot]++;
+                            }
+                        }
+                    } else {
+                        for (int p = 0; p < size; p++) {
+                            int slot = list[p];
+                            if (hits[slot] != 0) {
+                                hits[slot]++;
+                            }
+                        }
+                    }
+                }
+                if (prefixBonus) {
+                    markPrefix(scratch, postings[prefixGram], postingSizes[prefixGram]);
+                }
+
+                PriorityQueue<Long> top = new PriorityQueue<>(limit + 1);
+                for (int t = 0; t < scratch.touchedCount; t++) {
+                    int slot = scratch.touched[t];
+                    int score = hits[slot] & COUNT_MASK;
+                    if (score < minHits || dead.get(slot)) {
+                        continue;
+                    }
+                    if ((hits[slot] & PREFIX_FLAG) != 0) {
+                        score++;
+                    }
+                    long rank = rank(score, slotGramCounts[slot], slot);
+                    if (top.size() < limit) {
+                        top.add(rank);
+                    } else if (rank > top.peek()) {
+                        top.poll();
+                        top.add(rank);
+                    }
+                }
+
+                Long[] ranked = top.toArray(new Long[0]);
+                Arrays.sort(ranked, (a, b) -> Long.compare(b, a));
+                List<Long> ids = new ArrayList<>(ranked.length);
+                for (Long rank : ranked) {
+                    ids.add(slotIds[Integer.MAX_VALUE - (int) (rank & 0xFFFFFFFFL)]);
+                }
+                return ids;
+            } finally {
+                scratch.reset();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Pontuação empacotada num long para o heap: acertos, depois texto mais curto, depois slot menor
+    private static long rank(int hits, int gramCount, int slot) {
+        long shortness = 0xFFFF - Math.min(gramCount, 0xFFFF);
+        return ((long) hits << 48) | (shortness << 32) | (Integer.MAX_VALUE - slot);
+    }
+
+    // Marca, entre os candidatos, quem tem o trigrama de início de palavra
+    private static void markPrefix(Scratch scratch, int[] list, int size) {
+        byte[] hits = scratch.hits;
+        if ((long) scratch.touchedCount * 16 < size) {
+            for (int t = 0; t < scratch.touchedCount; t++) {
+                int slot = scratch.touched[t];
+                if (contains(list, size, slot)) {
+                    hits[slot] |= PREFIX_FLAG;
+                }
+            }
+        } else {
+            for (int p = 0; p < size; p++) {
+                int slot = list[p];
+                if (hits[slot] != 0) {
+                    hits[slot] |= PREFIX_FLAG;
+                }
+            }
+        }
+    }
+
+    private int[] sortBySize(int[] grams) {
+        long[] keyed = new long[grams.length];
+        for (int i = 0; i < grams.length; i++) {
+            keyed[i] = ((long) postingSizes[grams[i]] << 32) | grams[i];
+        }
+        Arrays.sort(keyed);
+        int[] sorted = new int[grams.length];
+        for (int i = 0; i < grams.length; i++) {
+            sorted[i] = (int) keyed[i];
+        }
+        return sorted;
+    }
+
+    private static boolean contains(int[] list, int size, int slot) {
+        return size > 0 && Arrays.binarySearch(list, 0, size, slot) >= 0;
+    }
+
+    // Contadores por slot reaproveitados entre buscas da mesma thread; só os slots tocados são zerados
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private static final class Scratch {
+        private byte[] hits = new byte[0];
+        private int[] touched = new int[1024];
+        private int touchedCount;
+
+        Scratch ensureCapacity(int slots) {
+            if (hits.length < slots) {
+                hits = new byte[slots + (slots >> 2)];
+            }
+            return this;
+        }
+
+        void touch(int slot) {
+            if (touchedCount == touched.length) {
+                touched = Arrays.copyOf(touched, touchedCount * 2);
+            }
+            touched[touchedCount++] = slot;
+        }
+
+        void reset() {
+            for (int t = 0; t < touchedCount; t++) {
+                hits[touched[t]] = 0;
+            }
+            touchedCount = 0;
+        }
+    }
+
+    // Chamado sob o write lock
+    private void removeSlot(long id) {
+        Integer slot = slotById.remove(id);
+        if (slot == null) {
+            return;
+        }
+        dead.set(slot);
+        deadCount++;
+        if (deadCount >= COMPACT_MIN_DEAD && deadCount * 4 > slotCount) {
+            compact();
+        }
+    }
+
+    private void append(int gram, int slot) {
+        int[] list = postings[gram];
+        int size = postingSizes[gram];
+        if (list == null) {
+            list = new int[4];
+            postings[gram] = list;
+        } else if (size == list.length) {
+            list = Arrays.copyOf(list, size + (size >> 1) + 1);
+            postings[gram] = list;
+        }
+        list[size] = slot;
+        postingSizes[gram] = size + 1;
+    }
+
+    // Renumera os slots vivos mantendo a ordem relativa, o que preserva as listas ordenadas
+    private void compact() {
+        int[] remap = new int[slotCount];
+        int live = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (dead.get(slot)) {
+                remap[slot] = -1;
+            } else {
+                remap[slot] = live;
+                slotIds[live] = slotIds[slot];
+                slotGramCounts[live] = slotGramCounts[slot];
+                live++;
+            }
+        }
+        for (int gram = 0; gram < GRAM_SPACE; gram++) {
+            int[] list = postings[gram];
+            if (list == null) {
+                continue;
+            }
+            int kept = 0;
+            for (int p = 0; p < postingSizes[gram]; p++) {
+                int target = remap[list[p]];
+                if (target >= 0) {
+                    list[kept++] = target;
+                }
+            }
+            if (kept == 0) {
+                postings[gram] = null;
+            } else if (kept < list.length / 2) {
+                postings[gram] = Arrays.copyOf(list, kept);
+            }
+            postingSizes[gram] = kept;
+        }
+        slotById.replaceAll((id, slot) -> remap[slot]);
+        dead.clear();
+        deadCount = 0;
+        slotCount = live;
+    }
+
+    // Trigramas distintos e ordenados dos três campos; o telefone entra só com os dígitos
+    static int[] documentGrams(String name, String email, String phone) {
+        int[] buffer = new int[64];
+        int count = 0;
+        for (String field : new String[] { name, email, phone != null ? phone.replaceAll("\\D", "") : null }) {
+            int[] codes = encode(field);
+            for (int i = 0; i + 2 < codes.length; i++) {
+                int gram = gram(codes, i);
+                if (gram == SEPARATOR) {
+                    continue;
+                }
+                if (count == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, count * 2);
+                }
+                buffer[count++] = gram;
+            }
+        }
+        return distinct(buffer, count);
+    }
+
+    // A busca não recebe separador no fim: o último termo pode estar incompleto (digitação)
+    // Limitada a MAX_QUERY_CODES símbolos, o que mantém a contagem de acertos abaixo de COUNT_MASK
+    private static int[] encodeQuery(String query) {
+        int[] codes = encode(query);
+        int length = Math.min(codes.length, MAX_QUERY_CODES);
+        while (length > 0 && codes[length - 1] == SEPARATOR) {
+            length--;
+        }
+        return Arrays.copyOf(codes, length);
+    }
+
+    private static int[] grams(int[] codes, int from) {
+        int[] grams = new int[codes.length - from - 2];
+        for (int i = from; i + 2 < codes.length; i++) {
+            grams[i - from] = gram(codes, i);
+        }
+        return grams;
+    }
+
+    private static int gram(int[] codes, int i) {
+        return (codes[i] * ALPHABET + codes[i + 1]) * ALPHABET + codes[i + 2];
+    }
+
+    // Sem acentos, minúsculo, com um separador no início e sequências de separadores colapsadas,
+    // de modo que "jo" gera o trigrama " jo" e casa com palavras que começam assim
+    private static int[] encode(String text) {
+        if (text == null || text.isBlank()) {
+            return new int[0];
+        }
+        String plain = Normalizer.normalize(text, Normalizer.Form.NFD);
+        int[] codes = new int[plain.length() + 1];
+        int length = 0;
+        codes[length++] = SEPARATOR;
+        for (int i = 0; i < plain.length(); i++) {
+            char c = Character.toLowerCase(plain.charAt(i));
+            int code;
+            if (c >= 'a' && c <= 'z') {
+                code = 1 + (c - 'a');
+            } else if (c >= '0' && c <= '9') {
+                code = 27 + (c - '0');
+            } else if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            } else {
+                code = SEPARATOR;
+            }
+            if (code == SEPARATOR && codes[length - 1] == SEPARATOR) {
+                continue;
+            }
+            codes[length++] = code;
+        }
+        return Arrays.copyOf(codes, length);
+    }
+
+    private static int[] distinct(int[] values, int count) {
+        if (count == 0) {
+            return new int[0];
+        }
+        int[] sorted = Arrays.copyOf(values, count);
+        Arrays.sort(sorted);
+        int unique = 1;
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] != sorted[unique - 1]) {
+                sorted[unique++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, unique);
+    }
+}
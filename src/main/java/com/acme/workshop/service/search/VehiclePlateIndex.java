@@ -0,0 +1,203 @@
+package com.acme.workshop.service.search;
+
+import com.acme.workshop.dto.VehiclePlateEntry;
+import com.acme.workshop.model.Vehicle;
+import com.acme.workshop.repository.VehicleRepository;
+import com.acme.workshop.service.support.AfterCommit;
+import com.acme.workshop.service.support.SwappableIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+// Busca de veículos por trecho inicial ou final da placa. Mantém dois arrays ordenados de placas
+// normalizadas (só letras e dígitos, maiúsculas): um direto, para prefixo, e um com as placas
+// invertidas, para sufixo. A busca é uma busca binária seguida de varredura contígua.
+// Os arrays são imutáveis e trocados a cada alteração confirmada vinda do VehicleService; inserir
+// custa uma cópia O(n), aceitável para a taxa de cadastro de veículos de uma oficina. A recarga
+// periódica monta as tabelas em segundo plano enquanto as atuais continuam atendendo.
+@Component
+public class VehiclePlateIndex {
+
+    private final VehicleRepository vehicleRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final SwappableIndex<Table> table;
+
+    @Autowired
+    public VehiclePlateIndex(VehicleRepository vehicleRepository, PlatformTransactionManager transactionManager) {
+        this.vehicleRepository = vehicleRepository;
+
+        // Transação própria: a carga só enxerga dados confirmados
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        this.table = new SwappableIndex<>("plate-search", this::load);
+    }
+
+    // Ids dos veículos cuja placa começa com o trecho (primeiro) ou termina com ele, sem repetição.
+    // Placa idêntica ao trecho vem antes de todas, pois é a menor na ordem do array.
+    public List<Long> search(String plate, int limit) {
+        String key = normalize(plate);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Table current = table.get();
+
+        Set<Long> ids = new LinkedHashSet<>();
+        current.byPrefix.collect(key, limit, ids);
+        if (ids.size() < limit) {
+            current.bySuffix.collect(reverse(key), limit, ids);
+        }
+        return new ArrayList<>(ids);
+    }
+
+    public void indexAfterCommit(Vehicle vehicle) {
+        long id = vehicle.getId();
+        String plate = vehicle.getLicensePlate();
+        AfterCommit.run(() -> table.update(current -> current.with(id, plate)));
+    }
+
+    public void removeAfterCommit(Long id) {
+        AfterCommit.run(() -> table.update(current -> current.with(id, null)));
+    }
+
+    // Recarga periódica em segundo plano
+    @Scheduled(fixedDelayString = "${workshop.plate-search.refresh-interval-ms:600000}",
+               initialDelayString = "${workshop.plate-search.refresh-interval-ms:600000}")
+    public void invalidate() {
+        rebuild();
+    }
+
+    public CompletableFuture<Void> rebuild() {
+        return table.rebuild();
+    }
+
+    private Table load() {
+        List<VehiclePlateEntry> entries = readOnlyTransaction.execute(status -> vehicleRepository.findAllPlates());
+        String[] plates = new String[entries.size()];
+        long[] ids = new long[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            plates[i] = normalize(entries.get(i).licensePlate());
+            ids[i] = entries.get(i).id();
+        }
+        return new Table(Sorted.of(plates, ids, false), Sorted.of(plates, ids, true));
+    }
+
+    static String normalize(String plate) {
+        if (plate == null) {
+            return "";
+        }
+        StringBuilder key = new StringBuilder(plate.length());
+        for (int i = 0; i < plate.length(); i++) {
+            char c = plate.charAt(i);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                key.append(c);
+            }
+        }
+        return key.toString().toUpperCase(Locale.ROOT);
+    }
+
+    private static String reverse(String key) {
+        return new StringBuilder(key).reverse().toString();
+    }
+
+    private record Table(Sorted byPrefix, Sorted bySuffix) {
+
+        // Cópia com a placa do veículo trocada (ou removida, com placa nula)
+        Table with(long id, String plate) {
+            String key = plate != null ? normalize(plate) : null;
+            return new Table(byPrefix.with(id, key, false), bySuffix.with(id, key, true));
+        }
+    }
+
+    // Chaves ordenadas com os ids em paralelo (empate na chave desempata pelo id)
+    private record Sorted(String[] keys, long[] ids) {
+
+        static Sorted of(String[] plates, long[] ids, boolean reversed) {
+            Integer[] order = new Integer[plates.length];
+            String[] keys = new String[plates.length];
+            for (int i = 0; i < plates.length; i++) {
+                order[i] = i;
+                keys[i] = reversed ? reverse(plates[i]) : plates[i];
+            }
+            Arrays.sort(order, (a, b) -> {
+                int byKey = keys[a].compareTo(keys[b]);
+                return byKey != 0 ? byKey : Long.compare(ids[a], ids[b]);
+            });
+            String[] sortedKeys = new String[plates.length];
+            long[] sortedIds = new long[plates.length];
+            for (int i = 0; i < order.length; i++) {
+                sortedKeys[i] = keys[order[i]];
+                sortedIds[i] = ids[order[i]];
+            }
+            return new Sorted(sortedKeys, sortedIds);
+        }
+
+        void collect(String prefix, int limit, Set<Long> out) {
+            for (int i = lowerBound(prefix); i < keys.length && out.size() < limit && keys[i].startsWith(prefix); i++) {
+                out.add(ids[i]);
+            }
+        }
+
+        // Cópia sem a entrada antiga do id e, se houver placa, com a nova na posição ordenada
+        Sorted with(long id, String plate, boolean reversed) {
+            int old = -1;
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    old = i;
+                    break;
+                }
+            }
+            String key = plate == null ? null : reversed ? reverse(plate) : plate;
+            int size = ids.length - (old >= 0 ? 1 : 0) + (key != null ? 1 : 0);
+            String[] newKeys = new String[size];
+            long[] newIds = new long[size];
+            int insertAt = key != null ? position(key, id) : -1;
+            int n = 0;
+            for (int i = 0; i <= ids.length; i++) {
+                if (i == insertAt) {
+                    newKeys[n] = key;
+                    newIds[n++] = id;
+                }
+                if (i < ids.length && i != old) {
+                    newKeys[n] = keys[i];
+                    newIds[n++] = ids[i];
+                }
+            }
+            return new Sorted(newKeys, newIds);
+        }
+
+        private int lowerBound(String key) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid].compareTo(key) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private int position(String key, long id) {
+            int i = lowerBound(key);
+            while (i < keys.length && keys[i].equals(key) && ids[i] < id) {
+                i++;
+            }
+            return i;
+        }
+    }
+}
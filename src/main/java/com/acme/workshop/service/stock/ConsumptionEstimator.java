@@ -0,0 +1,88 @@
+package com.acme.workshop.service.stock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Consumo diário estimado por peça: média móvel exponencial (EWMA) das baixas registradas no histórico
+// de estoque (stock_movements) nos últimos dias, na data em que a baixa aconteceu, com os dias sem
+// consumo contando como zero. Devoluções (OS cancelada, peça removida ou quantidade reduzida) descontam
+// o consumo do dia em que voltaram; ajustes manuais de estoque não entram.
+@Component
+public class ConsumptionEstimator {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int historyDays;
+    private final double alpha;
+    private final int coverageDays;
+
+    @Autowired
+    public ConsumptionEstimator(JdbcTemplate jdbcTemplate,
+                                @Value("${workshop.low-stock.history-days:30}") int historyDays,
+                                @Value("${workshop.low-stock.ewma-alpha:0.3}") double alpha,
+                                @Value("${workshop.low-stock.coverage-days:14}") int coverageDays) {
+        if (historyDays <= 0 || alpha <= 0 || alpha > 1) {
+            throw new IllegalArgumentException("Parâmetros inválidos para a estimativa de consumo");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.historyDays = historyDays;
+        this.alpha = alpha;
+        this.coverageDays = coverageDays;
+    }
+
+    // Uma consulta para todas as peças: soma por peça e dia, depois a EWMA do dia mais antigo ao atual.
+    // As baixas são gravadas negativas e as devoluções positivas, então o consumo é a soma com sinal trocado.
+    public Map<Long, Double> dailyConsumption(Collection<Long> partIds) {
+        if (partIds.isEmpty()) {
+            return Map.of();
+        }
+        LocalDate today = LocalDate.now();
+        LocalDate firstDay = today.minusDays(historyDays - 1L);
+
+        Map<Long, long[]> dailyByPart = new HashMap<>();
+        partIds.forEach(partId -> dailyByPart.put(partId, new long[historyDays]));
+        List<Object> args = new ArrayList<>(partIds);
+        args.add(Timestamp.valueOf(firstDay.atStartOfDay()));
+        jdbcTemplate.query(
+            "SELECT part_id, CAST(created_at AS DATE), SUM(quantity) FROM stock_movements " +
+            "WHERE part_id IN (" + String.join(",", Collections.nCopies(partIds.size(), "?")) + ") " +
+            "AND created_at >= ? AND movement_type IN ('CONSUMPTION', 'RETURN') " +
+            "GROUP BY part_id, CAST(created_at AS DATE)",
+            rs -> {
+                int day = (int) (rs.getDate(2).toLocalDate().toEpochDay() - firstDay.toEpochDay());
+                long[] daily = dailyByPart.get(rs.getLong(1));
+                // Datas futuras (relógio adiantado) entram no dia atual
+                daily[Math.min(day, historyDays - 1)] -= rs.getLong(3);
+            },
+            args.toArray());
+
+        Map<Long, Double> result = new HashMap<>();
+        // Devolução de baixas anteriores à janela pode deixar a média negativa: conta como sem consumo
+        dailyByPart.forEach((partId, daily) -> result.put(partId, Math.max(0, ewma(daily))));
+        return result;
+    }
+
+    // Quantidade para cobrir o consumo estimado dos próximos dias e voltar ao ponto de reposição
+    public int suggestedReorderQuantity(double dailyConsumption, int stock, int reorderThreshold) {
+        long needed = (long) Math.ceil(dailyConsumption * coverageDays) + reorderThreshold - stock;
+        return (int) Math.max(0, Math.min(needed, Integer.MAX_VALUE));
+    }
+
+    private double ewma(long[] daily) {
+        double value = daily[0];
+        for (int i = 1; i < daily.length; i++) {
+            value = alpha * daily[i] + (1 - alpha) * value;
+        }
+        return value;
+    }
+}
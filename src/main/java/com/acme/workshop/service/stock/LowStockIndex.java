@@ -0,0 +1,254 @@
+package com.acme.workshop.service.stock;
+
+import com.acme.workshop.service.support.AfterCommit;
+import com.acme.workshop.service.support.SwappableIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+// Peças com ponto de reposição (threshold > 0) num heap mínimo indexado, ordenado pela razão
+// estoque / ponto de reposição; alterar uma peça custa O(log n). Depois do commit de uma alteração
+// de estoque ou de cadastro, o PartService pede a releitura das peças envolvidas: o índice grava o
+// saldo absoluto lido do banco, então aplicar a mesma alteração duas vezes (na instância atual e na
+// recarga em andamento) não muda o resultado. A recarga periódica, para absorver alterações feitas
+// fora desta instância, monta um heap novo em segundo plano enquanto o atual continua atendendo.
+@Component
+public class LowStockIndex {
+
+    // Estoque gravado mais os deltas do motor de reservas ainda não aplicados em parts.stock
+    private static final String STOCK_SQL =
+        "SELECT p.id, p.stock + COALESCE((SELECT SUM(l.delta) FROM stock_reservation_log l WHERE l.part_id = p.id), 0), " +
+        "p.reorder_threshold FROM parts p WHERE ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final SwappableIndex<Heap> index;
+
+    @Autowired
+    public LowStockIndex(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+
+        // Transação própria: a carga e as releituras só enxergam dados confirmados
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        this.index = new SwappableIndex<>("low-stock", this::load);
+    }
+
+    // Até `limit` peças com estoque igual ou abaixo do ponto de reposição, da menor razão para a
+    // maior. Percorre o heap a partir da raiz com uma fila de candidatos: como um filho nunca tem
+    // razão menor que o pai, basta visitar os filhos das peças já retornadas (O(k log k)).
+    // O heap não é thread-safe: a leitura acontece sob o bloqueio das alterações.
+    public List<LowStockEntry> topAtRisk(int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        return index.read(current -> {
+            List<LowStockEntry> result = new ArrayList<>(Math.min(limit, current.size));
+            PriorityQueue<Integer> candidates = new PriorityQueue<>(current::compare);
+            if (current.size > 0) {
+                candidates.add(0);
+            }
+            while (!candidates.isEmpty() && result.size() < limit) {
+                int i = candidates.poll();
+                if (current.stock[i] > current.threshold[i]) {
+                    break;
+                }
+                result.add(new LowStockEntry(current.ids[i], (int) current.stock[i], (int) current.threshold[i]));
+                for (int child = 2 * i + 1; child <= 2 * i + 2 && child < current.size; child++) {
+                    candidates.add(child);
+                }
+            }
+            return result;
+        });
+    }
+
+    // Peças criadas, alteradas, movimentadas ou excluídas: relidas do banco depois do commit
+    public void refreshAfterCommit(Collection<Long> partIds) {
+        Set<Long> ids = new LinkedHashSet<>(partIds);
+        if (!ids.isEmpty()) {
+            AfterCommit.run(() -> refresh(ids));
+        }
+    }
+
+    public void refreshAfterCommit(Long partId) {
+        refreshAfterCommit(List.of(partId));
+    }
+
+    // Recarga periódica em segundo plano
+    @Scheduled(fixedDelayString = "${workshop.low-stock.refresh-interval-ms:600000}",
+               initialDelayString = "${workshop.low-stock.refresh-interval-ms:600000}")
+    public void invalidate() {
+        rebuild();
+    }
+
+    public CompletableFuture<Void> rebuild() {
+        return index.rebuild();
+    }
+
+    private Heap load() {
+        List<long[]> rows = query("p.reorder_threshold > 0", List.of());
+        Heap loaded = new Heap(rows.size());
+        rows.forEach(row -> loaded.put(row[0], row[1], row[2]));
+        return loaded;
+    }
+
+    // Valores absolutos: peça sem linha (excluída) ou sem ponto de reposição sai do heap
+    private void refresh(Set<Long> ids) {
+        Map<Long, long[]> rows = new HashMap<>();
+        query("p.id IN (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")", ids)
+            .forEach(row -> rows.put(row[0], row));
+        index.update(current -> {
+            for (Long id : ids) {
+                long[] row = rows.get(id);
+                if (row != null && row[2] > 0) {
+                    current.put(id, row[1], row[2]);
+                } else {
+                    current.remove(id);
+                }
+            }
+            return current;
+        });
+    }
+
+    private List<long[]> query(String condition, Collection<Long> args) {
+        return readOnlyTransaction.execute(status -> jdbcTemplate.query(STOCK_SQL + condition,
+            (rs, rowNum) -> new long[] { rs.getLong(1), rs.getLong(2), rs.getInt(3) },
+            args.toArray()));
+    }
+
+    public record LowStockEntry(Long partId, int stock, int reorderThreshold) {
+    }
+
+    // Heap binário em arrays paralelos, com a posição de cada peça para alterar sem busca linear.
+    // a < b quando stock[a] / threshold[a] < stock[b] / threshold[b], comparado em produto cruzado
+    // (sem divisão); empate desempata pelo id.
+    private static final class Heap {
+
+        private long[] ids;
+        private long[] stock;
+        private long[] threshold;
+        private int size;
+        private final Map<Long, Integer> positions;
+
+        private Heap(int capacity) {
+            int initial = Math.max(capacity, 16);
+            this.ids = new long[initial];
+            this.stock = new long[initial];
+            this.threshold = new long[initial];
+            this.positions = new HashMap<>(initial * 2);
+        }
+
+        private int compare(int a, int b) {
+            int byRatio = Long.compare(stock[a] * threshold[b], stock[b] * threshold[a]);
+            return byRatio != 0 ? byRatio : Long.compare(ids[a], ids[b]);
+        }
+
+        private void put(long id, long newStock, long newThreshold) {
+            Integer i = positions.get(id);
+            if (i == null) {
+                if (size == ids.length) {
+                    grow();
+                }
+                i = size++;
+                ids[i] = id;
+                positions.put(id, i);
+            }
+            stock[i] = newStock;
+            threshold[i] = newThreshold;
+            fix(i);
+        }
+
+        private void remove(long id) {
+            Integer i = positions.remove(id);
+            if (i == null) {
+                return;
+            }
+            int last = --size;
+            if (i != last) {
+                move(last, i);
+                fix(i);
+            }
+        }
+
+        private void fix(int i) {
+            int up = siftUp(i);
+            if (up == i) {
+                siftDown(i);
+            }
+        }
+
+        private int siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (compare(i, parent) >= 0) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+            return i;
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && compare(left, smallest) < 0) {
+                    smallest = left;
+                }
+                if (right < size && compare(right, smallest) < 0) {
+                    smallest = right;
+                }
+                if (smallest == i) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long id = ids[a];
+            long s = stock[a];
+            long t = threshold[a];
+            move(b, a);
+            ids[b] = id;
+            stock[b] = s;
+            threshold[b] = t;
+            positions.put(id, b);
+        }
+
+        private void move(int from, int to) {
+            ids[to] = ids[from];
+            stock[to] = stock[from];
+            threshold[to] = threshold[from];
+            positions.put(ids[to], to);
+        }
+
+        private void grow() {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            stock = Arrays.copyOf(stock, capacity);
+            threshold = Arrays.copyOf(threshold, capacity);
+        }
+    }
+}
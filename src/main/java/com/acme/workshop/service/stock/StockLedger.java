@@ -0,0 +1,124 @@
+package com.acme.workshop.service.stock;
+
+import com.acme.workshop.dto.PartStockAtDTO;
+import com.acme.workshop.dto.StockMovementDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Histórico de estoque só de inserção (o snapshot apenas marca os movimentos que absorveu). Os
+// movimentos são gravados na transação que altera o estoque, então somem junto com ela num rollback.
+// O snapshot periódico materializa o saldo de cada peça movimentada; consultas por data leem um
+// snapshot e só os movimentos que ele não absorveu.
+@Component
+public class StockLedger {
+
+    private static final String INSERT_MOVEMENT_SQL =
+        "INSERT INTO stock_movements (part_id, movement_type, quantity, created_at) VALUES (?, ?, ?, ?)";
+
+    // Marca os movimentos confirmados ainda fora de snapshot como absorvidos pelo snapshot novo.
+    // Movimentos de transações abertas não são visíveis aqui e ficam para o próximo.
+    private static final String MARK_SNAPSHOTTED_SQL =
+        "UPDATE stock_movements SET snapshot_at = ? WHERE snapshot_at IS NULL";
+
+    // Novo snapshot = último snapshot da peça + movimentos marcados com o novo taken_at. Só peças
+    // com movimentos novos ganham linha.
+    private static final String SNAPSHOT_SQL =
+        "INSERT INTO stock_snapshots (part_id, taken_at, stock) " +
+        "SELECT m.part_id, ?, COALESCE(MAX(s.stock), 0) + SUM(m.quantity) " +
+        "FROM stock_movements m " +
+        "LEFT JOIN stock_snapshots s ON s.part_id = m.part_id " +
+        "AND s.taken_at = (SELECT MAX(s2.taken_at) FROM stock_snapshots s2 WHERE s2.part_id = m.part_id) " +
+        "WHERE m.snapshot_at = ? " +
+        "GROUP BY m.part_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public StockLedger(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Um INSERT em lote por chamada; quantidades zero não geram linha
+    public void record(Map<Long, Integer> quantitiesByPartId, StockMovementDTO.Type type) {
+        List<Map.Entry<Long, Integer>> entries = new ArrayList<>(new TreeMap<>(quantitiesByPartId).entrySet());
+        entries.removeIf(entry -> entry.getValue() == 0);
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_MOVEMENT_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getKey());
+            ps.setString(2, type.name());
+            ps.setInt(3, entry.getValue());
+            ps.setTimestamp(4, now);
+        });
+    }
+
+    public void record(Long partId, int quantity, StockMovementDTO.Type type) {
+        record(Map.of(partId, quantity), type);
+    }
+
+    public PartStockAtDTO stockAt(Long partId, LocalDateTime at) {
+        Timestamp atTimestamp = Timestamp.valueOf(at);
+        List<Object[]> snapshots = jdbcTemplate.query(
+            "SELECT taken_at, stock FROM stock_snapshots WHERE part_id = ? AND taken_at <= ? " +
+            "ORDER BY taken_at DESC FETCH FIRST 1 ROWS ONLY",
+            (rs, rowNum) -> new Object[] { rs.getTimestamp(1).toLocalDateTime(), rs.getInt(2) },
+            partId, atTimestamp);
+        LocalDateTime snapshotAt = snapshots.isEmpty() ? null : (LocalDateTime) snapshots.get(0)[0];
+        int snapshotStock = snapshots.isEmpty() ? 0 : (Integer) snapshots.get(0)[1];
+
+        // Cauda: movimentos até a data que o snapshot não absorveu, inclusive os confirmados depois dele
+        // com created_at anterior (snapshot_at posterior ao taken_at)
+        long[] tail = snapshotAt == null
+            ? jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(quantity), 0), COUNT(*) FROM stock_movements WHERE part_id = ? AND created_at <= ?",
+                (rs, rowNum) -> new long[] { rs.getLong(1), rs.getLong(2) },
+                partId, atTimestamp)
+            : jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(quantity), 0), COUNT(*) FROM stock_movements " +
+                "WHERE part_id = ? AND created_at <= ? AND (snapshot_at IS NULL OR snapshot_at > ?)",
+                (rs, rowNum) -> new long[] { rs.getLong(1), rs.getLong(2) },
+                partId, atTimestamp, Timestamp.valueOf(snapshotAt));
+        return new PartStockAtDTO(partId, at, (int) (snapshotStock + tail[0]), snapshotAt, (int) tail[1]);
+    }
+
+    public List<StockMovementDTO> movements(Long partId, LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.query(
+            "SELECT id, part_id, movement_type, quantity, created_at FROM stock_movements " +
+            "WHERE part_id = ? AND created_at >= ? AND created_at <= ? ORDER BY created_at, id",
+            (rs, rowNum) -> new StockMovementDTO(rs.getLong(1), rs.getLong(2),
+                StockMovementDTO.Type.valueOf(rs.getString(3)), rs.getInt(4), rs.getTimestamp(5).toLocalDateTime()),
+            partId, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    // O snapshot absorve exatamente os movimentos que marcou, e não uma janela de created_at: um
+    // movimento confirmado depois do snapshot entra no próximo, seja qual for o seu created_at
+    @Scheduled(fixedDelayString = "${workshop.stock-ledger.snapshot-interval-ms:3600000}")
+    public int snapshot() {
+        // Truncado: o valor gravado em snapshot_at precisa ser igual ao comparado no INSERT
+        Timestamp takenAt = Timestamp.valueOf(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+        Integer inserted = transactionTemplate.execute(status -> {
+            if (jdbcTemplate.update(MARK_SNAPSHOTTED_SQL, takenAt) == 0) {
+                return 0;
+            }
+            return jdbcTemplate.update(SNAPSHOT_SQL, takenAt, takenAt);
+        });
+        return inserted != null ? inserted : 0;
+    }
+}
@@ -0,0 +1,258 @@
+package com.acme.workshop.service.stock;
+
+import com.acme.workshop.repository.PartRepository;
+import com.acme.workshop.service.support.AfterCommit;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Estoque disponível em memória, por peça, para tirar o UPDATE da linha da peça do caminho de cada
+// OS. A baixa é um CAS no contador da peça: a reserva vale enquanto a transação da OS estiver
+// aberta e é desfeita no rollback. Na mesma transação, o delta é gravado no log
+// stock_reservation_log (INSERT, sem disputar a linha da peça); o flush periódico soma os deltas
+// do log e aplica um UPDATE por peça em parts.stock. Após uma queda, o log restante é aplicado na
+// subida. Os contadores são desta instância: ative só com uma réplica escrevendo estoque.
+@Component
+public class StockReservationEngine {
+
+    private static final String INSERT_LOG_SQL =
+        "INSERT INTO stock_reservation_log (part_id, delta, created_at) VALUES (?, ?, ?)";
+
+    private final PartRepository partRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int flushBatchSize;
+    private final Map<Long, PartCounter> counters = new ConcurrentHashMap<>();
+    private final LongAdder unflushedTotal = new LongAdder();
+
+    @Autowired
+    public StockReservationEngine(PartRepository partRepository,
+                                  JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${workshop.stock-reservations.enabled:false}") boolean enabled,
+                                  @Value("${workshop.stock-reservations.flush-batch-size:1000}") int flushBatchSize) {
+        this.partRepository = partRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.flushBatchSize = flushBatchSize;
+        Gauge.builder("workshop.stock_reservations.unflushed", unflushedTotal, LongAdder::sum)
+            .description("Unidades confirmadas em memória ainda não gravadas em parts.stock")
+            .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Baixa tudo ou nada: se faltar saldo em alguma peça, nada é reservado e os IDs sem saldo
+    // (ou inexistentes) são retornados
+    public List<Long> reserve(Map<Long, Integer> quantitiesByPartId) {
+        Map<Long, Integer> sorted = new TreeMap<>(quantitiesByPartId);
+        Map<PartCounter, Integer> taken = new HashMap<>();
+        List<Long> insufficient = new ArrayList<>();
+        sorted.forEach((partId, quantity) -> {
+            PartCounter counter = counter(partId);
+            if (counter != null && counter.tryTake(quantity)) {
+                taken.put(counter, quantity);
+            } else {
+                insufficient.add(partId);
+            }
+        });
+
+        if (!insufficient.isEmpty()) {
+            taken.forEach(PartCounter::giveBack);
+            return insufficient;
+        }
+
+        Map<Long, Integer> deltas = new TreeMap<>();
+        sorted.forEach((partId, quantity) -> deltas.put(partId, -quantity));
+        log(deltas);
+        AfterCommit.onCompletion(
+            () -> taken.forEach((counter, quantity) -> counter.confirm(-quantity)),
+            () -> taken.forEach(PartCounter::giveBack));
+        return List.of();
+    }
+
+    // Devolução: o saldo só fica disponível depois do commit
+    public void release(Map<Long, Integer> quantitiesByPartId) {
+        Map<Long, Integer> deltas = new TreeMap<>();
+        Map<PartCounter, Integer> returned = new HashMap<>();
+        quantitiesByPartId.forEach((partId, quantity) -> {
+            PartCounter counter = counter(partId);
+            if (counter != null && quantity != 0) {
+                deltas.put(partId, quantity);
+                returned.put(counter, quantity);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        log(deltas);
+        AfterCommit.onCompletion(
+            () -> returned.forEach((counter, quantity) -> {
+                counter.giveBack(quantity);
+                counter.confirm(quantity);
+            }),
+            () -> { });
+    }
+
+    // Saldo atual do contador (carregado do banco se ainda não estiver em memória). Com o motor
+    // ligado, parts.stock fica atrás dos contadores até o flush: validações devem ler daqui.
+    public OptionalLong available(Long partId) {
+        if (!enabled) {
+            return OptionalLong.empty();
+        }
+        PartCounter counter = counter(partId);
+        return counter != null ? OptionalLong.of(counter.available.get()) : OptionalLong.empty();
+    }
+
+    public long unflushed(Long partId) {
+        PartCounter counter = counters.get(partId);
+        return counter != null ? counter.unflushed.sum() : 0;
+    }
+
+    public void forget(Long partId) {
+        counters.remove(partId);
+    }
+
+    // Aplica o log em parts.stock. Periódico só com o motor ligado (StockReservationFlusher); com ele
+    // desligado, roda uma vez na subida para não perder deltas gravados antes de desligá-lo.
+    public void flush() {
+        while (flushBatch() == flushBatchSize) {
+            // próximo lote
+        }
+    }
+
+    // Recuperação: deltas confirmados que não chegaram a parts.stock antes de uma queda
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        flush();
+    }
+
+    // Um lote do log: apaga as linhas lidas (só conta as que esta execução apagou, caso outro
+    // flush concorra) e aplica a soma por peça em um UPDATE por peça, na mesma transação.
+    // Retorna quantas linhas do log foram lidas.
+    public int flushBatch() {
+        int[] read = new int[1];
+        Map<Long, Integer> applied = transactionTemplate.execute(status -> {
+            List<long[]> rows = jdbcTemplate.query(
+                "SELECT id, part_id, delta FROM stock_reservation_log ORDER BY id FETCH FIRST ? ROWS ONLY",
+                (rs, rowNum) -> new long[] { rs.getLong(1), rs.getLong(2), rs.getInt(3) },
+                flushBatchSize);
+            read[0] = rows.size();
+            if (rows.isEmpty()) {
+                return Map.<Long, Integer>of();
+            }
+
+            int[] deleted = jdbcTemplate.batchUpdate("DELETE FROM stock_reservation_log WHERE id = ?",
+                rows, rows.size(), (ps, row) -> ps.setLong(1, row[0]))[0];
+            Map<Long, Integer> deltas = new TreeMap<>();
+            for (int i = 0; i < rows.size(); i++) {
+                if (deleted[i] == 1) {
+                    deltas.merge(rows.get(i)[1], (int) rows.get(i)[2], Integer::sum);
+                }
+            }
+            deltas.values().removeIf(delta -> delta == 0);
+            partRepository.incrementStock(deltas);
+            return deltas;
+        });
+
+        if (applied != null) {
+            applied.forEach((partId, delta) -> {
+                PartCounter counter = counters.get(partId);
+                if (counter != null) {
+                    counter.unflushed.add(-delta);
+                }
+                unflushedTotal.add(-delta);
+            });
+        }
+        return read[0];
+    }
+
+    // Carregado do banco no primeiro uso: estoque gravado mais os deltas que ainda estão no log
+    private PartCounter counter(Long partId) {
+        PartCounter counter = counters.get(partId);
+        if (counter != null) {
+            return counter;
+        }
+        List<long[]> loaded = jdbcTemplate.query(
+            "SELECT p.stock, COALESCE((SELECT SUM(l.delta) FROM stock_reservation_log l WHERE l.part_id = p.id), 0) " +
+            "FROM parts p WHERE p.id = ?",
+            (rs, rowNum) -> new long[] { rs.getLong(1), rs.getLong(2) },
+            partId);
+        if (loaded.isEmpty()) {
+            return null;
+        }
+        return counters.computeIfAbsent(partId, id -> {
+            long pending = loaded.get(0)[1];
+            unflushedTotal.add(pending);
+            return new PartCounter(loaded.get(0)[0] + pending, pending);
+        });
+    }
+
+    private void log(Map<Long, Integer> deltas) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Map.Entry<Long, Integer>> entries = new ArrayList<>(deltas.entrySet());
+        jdbcTemplate.batchUpdate(INSERT_LOG_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getKey());
+            ps.setInt(2, entry.getValue());
+            ps.setTimestamp(3, now);
+        });
+    }
+
+    // Saldo disponível (CAS, nunca negativo) e delta confirmado ainda não aplicado no banco
+    // (LongAdder: somado por muitas threads, lido só pelo flush e pelas métricas)
+    private final class PartCounter {
+
+        private final AtomicLong available;
+        private final LongAdder unflushed = new LongAdder();
+
+        private PartCounter(long available, long unflushed) {
+            this.available = new AtomicLong(available);
+            this.unflushed.add(unflushed);
+        }
+
+        private boolean tryTake(int quantity) {
+            long current;
+            do {
+                current = available.get();
+                if (current < quantity) {
+                    return false;
+                }
+            } while (!available.compareAndSet(current, current - quantity));
+            return true;
+        }
+
+        private void giveBack(int quantity) {
+            available.addAndGet(quantity);
+        }
+
+        private void confirm(int delta) {
+            unflushed.add(delta);
+            unflushedTotal.add(delta);
+        }
+    }
+}
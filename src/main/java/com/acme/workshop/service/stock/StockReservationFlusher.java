@@ -0,0 +1,25 @@
+package com.acme.workshop.service.stock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Flush periódico do log de reservas. Só existe com o motor ligado: desligado, nada novo entra no
+// log e o que sobrou de uma execução anterior é aplicado uma vez na subida (StockReservationEngine.recover).
+@Component
+@ConditionalOnProperty(name = "workshop.stock-reservations.enabled", havingValue = "true")
+public class StockReservationFlusher {
+
+    private final StockReservationEngine stockReservations;
+
+    @Autowired
+    public StockReservationFlusher(StockReservationEngine stockReservations) {
+        this.stockReservations = stockReservations;
+    }
+
+    @Scheduled(fixedDelayString = "${workshop.stock-reservations.flush-interval-ms:200}")
+    public void flush() {
+        stockReservations.flush();
+    }
+}
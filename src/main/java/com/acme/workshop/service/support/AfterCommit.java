@@ -0,0 +1,35 @@
+package com.acme.workshop.service.support;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Ações que só valem depois que a transação corrente termina, para estruturas em memória que
+// acompanham o banco (índices, caches, contadores). Sem transação, a ação roda na hora.
+public final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    // Executa a ação só depois do commit; num rollback ela é descartada
+    public static void run(Runnable action) {
+        onCompletion(action, () -> { });
+    }
+
+    // Uma ação para o commit e outra para o rollback
+    public static void onCompletion(Runnable committed, Runnable rolledBack) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            committed.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    committed.run();
+                } else {
+                    rolledBack.run();
+                }
+            }
+        });
+    }
+}
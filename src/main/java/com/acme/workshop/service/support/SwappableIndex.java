@@ -0,0 +1,113 @@
+package com.acme.workshop.service.support;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+// Estrutura em memória carregada do banco e recarregada numa thread própria: a recarga monta uma
+// instância nova enquanto a atual continua atendendo, e troca as duas no fim. Alterações que chegam
+// durante a recarga são aplicadas na atual e guardadas para serem reaplicadas na nova antes da troca,
+// pois a carga pode ter lido o valor anterior a elas. Só a primeira consulta espera pela carga.
+public class SwappableIndex<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(SwappableIndex.class);
+
+    private final String name;
+    private final Supplier<T> loader;
+    private final ExecutorService executor;
+
+    private T current;
+    // Não nulo enquanto uma recarga está em andamento
+    private List<UnaryOperator<T>> replay;
+    // Recarga pedida e ainda não iniciada: pedidos seguidos se juntam nela
+    private CompletableFuture<Void> queued;
+
+    public SwappableIndex(String name, Supplier<T> loader) {
+        this.name = name;
+        this.loader = loader;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Instância atual; na primeira consulta, espera a carga
+    public T get() {
+        CompletableFuture<Void> loading;
+        synchronized (this) {
+            if (current != null) {
+                return current;
+            }
+            loading = rebuild();
+        }
+        try {
+            loading.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        synchronized (this) {
+            return current;
+        }
+    }
+
+    // Leitura sob o mesmo bloqueio das alterações, para estruturas que não se protegem sozinhas
+    public <R> R read(Function<T, R> reader) {
+        T value = get();
+        synchronized (this) {
+            return reader.apply(current != null ? current : value);
+        }
+    }
+
+    // A alteração deve valer por si (valores absolutos), pois pode ser aplicada a duas instâncias.
+    // Ainda não carregado: a primeira carga já trará o valor confirmado.
+    public synchronized void update(UnaryOperator<T> change) {
+        if (current != null) {
+            current = change.apply(current);
+        }
+        if (replay != null) {
+            replay.add(change);
+        }
+    }
+
+    // Agenda uma recarga; a instância atual continua atendendo até a nova ficar pronta
+    public synchronized CompletableFuture<Void> rebuild() {
+        if (queued == null) {
+            queued = CompletableFuture.runAsync(this::load, executor);
+        }
+        return queued;
+    }
+
+    private void load() {
+        synchronized (this) {
+            queued = null;
+            replay = new ArrayList<>();
+        }
+        T fresh;
+        try {
+            fresh = loader.get();
+        } catch (RuntimeException e) {
+            log.error("Falha ao recarregar o índice {}", name, e);
+            synchronized (this) {
+                replay = null;
+            }
+            throw e;
+        }
+        synchronized (this) {
+            for (UnaryOperator<T> change : replay) {
+                fresh = change.apply(fresh);
+            }
+            current = fresh;
+            replay = null;
+        }
+    }
+}
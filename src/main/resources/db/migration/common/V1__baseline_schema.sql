@@ -1,32 +1,24 @@
--- Drop tables if they exist (useful for clean setup)
-DROP TABLE IF EXISTS service_order_parts;
-DROP TABLE IF EXISTS service_items;
-DROP TABLE IF EXISTS parts;
-DROP TABLE IF EXISTS service_orders;
-DROP TABLE IF EXISTS vehicles;
-DROP TABLE IF EXISTS technicians;
-DROP TABLE IF EXISTS customers;
+-- Esquema base (antigo schema.sql). SQL comum a PostgreSQL e H2: identidade padrão SQL
+-- em vez de BIGSERIAL e nenhum índice parcial. Roda sempre num esquema vazio: não há baseline
+-- para bancos criados pelo schema.sql antigo (veja spring.flyway em application.properties).
 
--- Create customers table
 CREATE TABLE customers (
-    id BIGSERIAL PRIMARY KEY,
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
     email VARCHAR(255) NOT NULL UNIQUE,
     phone VARCHAR(20) NOT NULL,
     address VARCHAR(255) NOT NULL
 );
 
--- Create technicians table
 CREATE TABLE technicians (
-    id BIGSERIAL PRIMARY KEY,
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
     email VARCHAR(255) NOT NULL UNIQUE,
     specialization VARCHAR(100) NOT NULL
 );
 
--- Create vehicles table
 CREATE TABLE vehicles (
-    id BIGSERIAL PRIMARY KEY,
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     brand VARCHAR(100) NOT NULL,
     model VARCHAR(100) NOT NULL,
     model_year INTEGER NOT NULL,
@@ -39,9 +31,8 @@ CREATE TABLE vehicles (
         ON UPDATE CASCADE
 );
 
--- Create service_orders table
 CREATE TABLE service_orders (
-    id BIGSERIAL PRIMARY KEY,
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     customer_id BIGINT NOT NULL,
     vehicle_id BIGINT NOT NULL,
     technician_id BIGINT NOT NULL,
@@ -50,6 +41,7 @@ CREATE TABLE service_orders (
     created_at TIMESTAMP NOT NULL,
     completed_at TIMESTAMP,
     total_cost DECIMAL(10,2) NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
     CONSTRAINT fk_service_order_customer
         FOREIGN KEY (customer_id)
         REFERENCES customers (id)
@@ -69,18 +61,17 @@ CREATE TABLE service_orders (
         CHECK (status IN ('PENDING', 'IN_PROGRESS', 'COMPLETED', 'CANCELED'))
 );
 
--- Create parts table
 CREATE TABLE parts (
-    id BIGSERIAL PRIMARY KEY,
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
     code VARCHAR(100) NOT NULL UNIQUE,
     unit_price DECIMAL(10,2) NOT NULL,
-    stock INTEGER NOT NULL DEFAULT 0
+    stock INTEGER NOT NULL DEFAULT 0,
+    version BIGINT NOT NULL DEFAULT 0
 );
 
--- Create service_items table
 CREATE TABLE service_items (
-    id BIGSERIAL PRIMARY KEY,
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     service_order_id BIGINT NOT NULL,
     description VARCHAR(500) NOT NULL,
     labor_cost DECIMAL(10,2) NOT NULL,
@@ -92,13 +83,13 @@ CREATE TABLE service_items (
         ON UPDATE CASCADE
 );
 
--- Create service_order_parts table (Many-to-Many relationship)
 CREATE TABLE service_order_parts (
-    id BIGSERIAL PRIMARY KEY,
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     service_order_id BIGINT NOT NULL,
     part_id BIGINT NOT NULL,
     quantity INTEGER NOT NULL DEFAULT 1,
     unit_price DECIMAL(10,2) NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
     CONSTRAINT fk_service_order_part_order
         FOREIGN KEY (service_order_id)
         REFERENCES service_orders (id)
@@ -111,13 +102,34 @@ CREATE TABLE service_order_parts (
         ON UPDATE CASCADE
 );
 
--- Create indexes for better performance
+-- Antes criada só pelo ddl-auto=update
+CREATE TABLE work_services (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    description VARCHAR(255) NOT NULL,
+    standard_price DECIMAL(10,2) NOT NULL
+);
+
+-- Outbox: eventos gravados na mesma transação da mudança de status, entregues por um poller
+CREATE TABLE outbox (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    aggregate_id BIGINT NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    processed_at TIMESTAMP,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    last_error VARCHAR(1000)
+);
+
 CREATE INDEX idx_vehicles_customer ON vehicles(customer_id);
-CREATE INDEX idx_service_orders_customer ON service_orders(customer_id);
 CREATE INDEX idx_service_orders_vehicle ON service_orders(vehicle_id);
-CREATE INDEX idx_service_orders_technician ON service_orders(technician_id);
-CREATE INDEX idx_service_orders_status ON service_orders(status);
+
+-- Índices compostos para a paginação por keyset (created_at, id) com e sem filtros
+CREATE INDEX idx_service_orders_created ON service_orders(created_at DESC, id DESC);
+CREATE INDEX idx_service_orders_status_created ON service_orders(status, created_at DESC, id DESC);
+CREATE INDEX idx_service_orders_technician_created ON service_orders(technician_id, created_at DESC, id DESC);
+CREATE INDEX idx_service_orders_customer_created ON service_orders(customer_id, created_at DESC, id DESC);
 CREATE INDEX idx_parts_code ON parts(code);
 CREATE INDEX idx_service_items_order ON service_items(service_order_id);
 CREATE INDEX idx_service_order_parts_order ON service_order_parts(service_order_id);
-CREATE INDEX idx_service_order_parts_part ON service_order_parts(part_id);
\ No newline at end of file
+CREATE INDEX idx_service_order_parts_part ON service_order_parts(part_id);
@@ -0,0 +1,20 @@
+-- Um índice para cada finder dos repositórios que ainda dependia de varredura sequencial.
+-- Roda logo após a V1, num esquema criado por ela (veja spring.flyway em application.properties).
+
+-- findByCustomerIdAndStatus / findByTechnicianIdAndStatus: igualdade nas duas colunas
+CREATE INDEX IF NOT EXISTS idx_service_orders_customer_status ON service_orders(customer_id, status);
+CREATE INDEX IF NOT EXISTS idx_service_orders_technician_status ON service_orders(technician_id, status);
+
+-- Cobrem findByServiceOrderId e as somas do reconciliador de totais sem ler a tabela
+CREATE INDEX IF NOT EXISTS idx_service_items_order_cost ON service_items(service_order_id, labor_cost, quantity);
+CREATE INDEX IF NOT EXISTS idx_service_order_parts_order_cost ON service_order_parts(service_order_id, unit_price, quantity);
+DROP INDEX IF EXISTS idx_service_items_order;
+DROP INDEX IF EXISTS idx_service_order_parts_order;
+
+-- findBySpecialization, findByBrandAndModel, findByModelYear
+CREATE INDEX IF NOT EXISTS idx_technicians_specialization ON technicians(specialization);
+CREATE INDEX IF NOT EXISTS idx_vehicles_brand_model ON vehicles(brand, model);
+CREATE INDEX IF NOT EXISTS idx_vehicles_model_year ON vehicles(model_year);
+
+-- Redundante: a restrição UNIQUE de parts.code já cria um índice
+DROP INDEX IF EXISTS idx_parts_code;
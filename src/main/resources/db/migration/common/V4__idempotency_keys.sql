@@ -0,0 +1,13 @@
+-- Respostas de requisições com Idempotency-Key, compartilhadas entre réplicas.
+-- status_code nulo = requisição ainda em execução (chave reservada).
+CREATE TABLE idempotency_keys (
+    idempotency_key VARCHAR(512) PRIMARY KEY,
+    request_hash VARCHAR(64) NOT NULL,
+    status_code INTEGER,
+    content_type VARCHAR(255),
+    location VARCHAR(1024),
+    response_body TEXT,
+    expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
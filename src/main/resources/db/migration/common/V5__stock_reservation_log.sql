@@ -0,0 +1,13 @@
+-- Log de escrita antecipada do motor de reservas de estoque: cada baixa ou devolução confirmada
+-- grava aqui o delta da peça, na mesma transação da OS. O flush aplica os deltas em parts.stock
+-- e apaga as linhas; as que sobrarem após uma queda são aplicadas na subida seguinte.
+-- Sem FK para parts: a exclusão de uma peça não depende do flush.
+CREATE TABLE stock_reservation_log (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    part_id BIGINT NOT NULL,
+    delta INTEGER NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+-- Carga do contador de uma peça: estoque gravado + deltas ainda no log
+CREATE INDEX idx_stock_reservation_log_part ON stock_reservation_log(part_id, delta);
@@ -0,0 +1,24 @@
+-- Histórico de estoque: cada baixa, devolução ou ajuste vira uma linha imutável em stock_movements
+-- (quantidade com sinal). stock_snapshots guarda o saldo acumulado de cada peça até taken_at;
+-- o saldo numa data é o último snapshot até ela mais os movimentos posteriores a ele.
+-- Sem FK para parts: o histórico sobrevive à exclusão da peça.
+CREATE TABLE stock_movements (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    part_id BIGINT NOT NULL,
+    movement_type VARCHAR(20) NOT NULL,
+    quantity INTEGER NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_stock_movements_part_created ON stock_movements(part_id, created_at);
+
+CREATE TABLE stock_snapshots (
+    part_id BIGINT NOT NULL,
+    taken_at TIMESTAMP NOT NULL,
+    stock INTEGER NOT NULL,
+    PRIMARY KEY (part_id, taken_at)
+);
+
+-- Ponto de partida do histórico: o estoque atual das peças já cadastradas
+INSERT INTO stock_snapshots (part_id, taken_at, stock)
+SELECT id, CURRENT_TIMESTAMP, stock FROM parts;
@@ -0,0 +1,3 @@
+-- Ponto de reposição por peça: estoque igual ou abaixo dele entra no alerta de estoque baixo.
+-- Zero (padrão) deixa a peça fora do alerta.
+ALTER TABLE parts ADD COLUMN reorder_threshold INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,3 @@
+-- Momento a partir do qual o evento pode ser reivindicado de novo: fim do prazo da entrega em
+-- andamento (reivindicação) ou da espera após uma falha (backoff). Nulo = disponível.
+ALTER TABLE outbox ADD COLUMN next_attempt_at TIMESTAMP;
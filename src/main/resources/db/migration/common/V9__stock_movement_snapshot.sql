@@ -0,0 +1,12 @@
+-- Snapshot que absorveu o movimento (taken_at); nulo = ainda não entrou em nenhum snapshot.
+-- Um movimento de transação longa pode ser confirmado depois de um snapshot com taken_at posterior
+-- ao seu created_at: ele fica nulo e entra no próximo, em vez de se perder entre os dois.
+ALTER TABLE stock_movements ADD COLUMN snapshot_at TIMESTAMP;
+
+-- Movimentos já cobertos pelos snapshots existentes: o primeiro snapshot da peça depois deles
+UPDATE stock_movements SET snapshot_at = (
+    SELECT MIN(s.taken_at) FROM stock_snapshots s
+    WHERE s.part_id = stock_movements.part_id AND s.taken_at >= stock_movements.created_at
+);
+
+CREATE INDEX idx_stock_movements_snapshot_at ON stock_movements(snapshot_at);
@@ -0,0 +1,2 @@
+-- O H2 não tem índice parcial: um índice completo atende o poller (pendentes) e a limpeza (processadas)
+CREATE INDEX IF NOT EXISTS idx_outbox_pending ON outbox(processed_at, id);
@@ -0,0 +1,38 @@
+-- Troca IDENTITY por sequências com incremento 50 (allocationSize das entidades).
+-- No H2 (só testes) as tabelas estão vazias neste ponto, então as sequências começam em 1.
+
+ALTER TABLE customers ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE customers_id_seq START WITH 1 INCREMENT BY 50;
+ALTER TABLE customers ALTER COLUMN id SET DEFAULT NEXT VALUE FOR customers_id_seq;
+
+ALTER TABLE technicians ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE technicians_id_seq START WITH 1 INCREMENT BY 50;
+ALTER TABLE technicians ALTER COLUMN id SET DEFAULT NEXT VALUE FOR technicians_id_seq;
+
+ALTER TABLE vehicles ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE vehicles_id_seq START WITH 1 INCREMENT BY 50;
+ALTER TABLE vehicles ALTER COLUMN id SET DEFAULT NEXT VALUE FOR vehicles_id_seq;
+
+ALTER TABLE service_orders ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE service_orders_id_seq START WITH 1 INCREMENT BY 50;
+ALTER TABLE service_orders ALTER COLUMN id SET DEFAULT NEXT VALUE FOR service_orders_id_seq;
+
+ALTER TABLE parts ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE parts_id_seq START WITH 1 INCREMENT BY 50;
+ALTER TABLE parts ALTER COLUMN id SET DEFAULT NEXT VALUE FOR parts_id_seq;
+
+ALTER TABLE service_items ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE service_items_id_seq START WITH 1 INCREMENT BY 50;
+ALTER TABLE service_items ALTER COLUMN id SET DEFAULT NEXT VALUE FOR service_items_id_seq;
+
+ALTER TABLE service_order_parts ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE service_order_parts_id_seq START WITH 1 INCREMENT BY 50;
+ALTER TABLE service_order_parts ALTER COLUMN id SET DEFAULT NEXT VALUE FOR service_order_parts_id_seq;
+
+ALTER TABLE work_services ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE work_services_id_seq START WITH 1 INCREMENT BY 50;
+ALTER TABLE work_services ALTER COLUMN id SET DEFAULT NEXT VALUE FOR work_services_id_seq;
+
+ALTER TABLE outbox ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE outbox_id_seq START WITH 1 INCREMENT BY 50;
+ALTER TABLE outbox ALTER COLUMN id SET DEFAULT NEXT VALUE FOR outbox_id_seq;
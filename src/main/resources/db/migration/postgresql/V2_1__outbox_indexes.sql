@@ -0,0 +1,3 @@
+-- Só as linhas pendentes interessam ao poller; a limpeza só olha as já processadas
+CREATE INDEX IF NOT EXISTS idx_outbox_pending ON outbox(id) WHERE processed_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_outbox_processed ON outbox(processed_at) WHERE processed_at IS NOT NULL;
@@ -0,0 +1,59 @@
+-- Troca as colunas IDENTITY criadas pela V1 por sequências com incremento 50 (allocationSize
+-- das entidades). O Hibernate reserva o bloco (valor - 49 .. valor) a cada nextval; INSERTs em
+-- SQL puro usam o próprio nextval como id, que também cai num bloco exclusivo, então os dois convivem.
+-- O DROP IDENTITY remove a sequência interna da identidade; <tabela>_id_seq é criada em seguida.
+-- O setval deixa o próximo bloco acima do maior id existente.
+
+ALTER TABLE customers ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS customers_id_seq;
+ALTER SEQUENCE customers_id_seq INCREMENT BY 50 OWNED BY customers.id;
+SELECT setval('customers_id_seq', MAX(id) + 50, false) FROM customers HAVING MAX(id) IS NOT NULL;
+ALTER TABLE customers ALTER COLUMN id SET DEFAULT nextval('customers_id_seq');
+
+ALTER TABLE technicians ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS technicians_id_seq;
+ALTER SEQUENCE technicians_id_seq INCREMENT BY 50 OWNED BY technicians.id;
+SELECT setval('technicians_id_seq', MAX(id) + 50, false) FROM technicians HAVING MAX(id) IS NOT NULL;
+ALTER TABLE technicians ALTER COLUMN id SET DEFAULT nextval('technicians_id_seq');
+
+ALTER TABLE vehicles ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS vehicles_id_seq;
+ALTER SEQUENCE vehicles_id_seq INCREMENT BY 50 OWNED BY vehicles.id;
+SELECT setval('vehicles_id_seq', MAX(id) + 50, false) FROM vehicles HAVING MAX(id) IS NOT NULL;
+ALTER TABLE vehicles ALTER COLUMN id SET DEFAULT nextval('vehicles_id_seq');
+
+ALTER TABLE service_orders ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS service_orders_id_seq;
+ALTER SEQUENCE service_orders_id_seq INCREMENT BY 50 OWNED BY service_orders.id;
+SELECT setval('service_orders_id_seq', MAX(id) + 50, false) FROM service_orders HAVING MAX(id) IS NOT NULL;
+ALTER TABLE service_orders ALTER COLUMN id SET DEFAULT nextval('service_orders_id_seq');
+
+ALTER TABLE parts ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS parts_id_seq;
+ALTER SEQUENCE parts_id_seq INCREMENT BY 50 OWNED BY parts.id;
+SELECT setval('parts_id_seq', MAX(id) + 50, false) FROM parts HAVING MAX(id) IS NOT NULL;
+ALTER TABLE parts ALTER COLUMN id SET DEFAULT nextval('parts_id_seq');
+
+ALTER TABLE service_items ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS service_items_id_seq;
+ALTER SEQUENCE service_items_id_seq INCREMENT BY 50 OWNED BY service_items.id;
+SELECT setval('service_items_id_seq', MAX(id) + 50, false) FROM service_items HAVING MAX(id) IS NOT NULL;
+ALTER TABLE service_items ALTER COLUMN id SET DEFAULT nextval('service_items_id_seq');
+
+ALTER TABLE service_order_parts ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS service_order_parts_id_seq;
+ALTER SEQUENCE service_order_parts_id_seq INCREMENT BY 50 OWNED BY service_order_parts.id;
+SELECT setval('service_order_parts_id_seq', MAX(id) + 50, false) FROM service_order_parts HAVING MAX(id) IS NOT NULL;
+ALTER TABLE service_order_parts ALTER COLUMN id SET DEFAULT nextval('service_order_parts_id_seq');
+
+ALTER TABLE work_services ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS work_services_id_seq;
+ALTER SEQUENCE work_services_id_seq INCREMENT BY 50 OWNED BY work_services.id;
+SELECT setval('work_services_id_seq', MAX(id) + 50, false) FROM work_services HAVING MAX(id) IS NOT NULL;
+ALTER TABLE work_services ALTER COLUMN id SET DEFAULT nextval('work_services_id_seq');
+
+ALTER TABLE outbox ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS outbox_id_seq;
+ALTER SEQUENCE outbox_id_seq INCREMENT BY 50 OWNED BY outbox.id;
+SELECT setval('outbox_id_seq', MAX(id) + 50, false) FROM outbox HAVING MAX(id) IS NOT NULL;
+ALTER TABLE outbox ALTER COLUMN id SET DEFAULT nextval('outbox_id_seq');
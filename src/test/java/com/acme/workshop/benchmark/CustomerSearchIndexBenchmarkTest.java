@@ -0,0 +1,63 @@
+package com.acme.workshop.benchmark;
+
+import com.acme.workshop.service.search.CustomerTrigramIndex;
+import com.acme.workshop.util.TestReportExtension;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+// Latência da busca por digitação sobre uma base sintética. O tamanho padrão cabe no heap dos
+// testes; rode com -Dbenchmark.customers=1000000 para a escala alvo.
+@TestReportExtension
+public class CustomerSearchIndexBenchmarkTest {
+
+    private static final String[] FIRST_NAMES = { "Ana", "Bruno", "Carla", "Daniel", "Eduarda", "Felipe", "Gabriela",
+        "Henrique", "Isabela", "João", "Larissa", "Marcelo", "Natália", "Otávio", "Patrícia", "Rafael", "Sofia", "Thiago" };
+    private static final String[] LAST_NAMES = { "Silva", "Santos", "Oliveira", "Souza", "Rodrigues", "Ferreira", "Alves",
+        "Pereira", "Lima", "Gomes", "Costa", "Ribeiro", "Martins", "Carvalho", "Almeida", "Lopes", "Soares", "Fernandes" };
+    private static final String[] QUERIES = { "jo", "joao", "joão silv", "patricia ol", "marcelo.lima", "gabriela fern",
+        "9876", "thiago r", "oliveria", "santos", "carla123", "11 95" };
+
+    @Test
+    void shouldAnswerTypeaheadQueriesWithinMilliseconds() {
+        int customers = Integer.getInteger("benchmark.customers", 200_000);
+        Random random = new Random(42);
+        CustomerTrigramIndex index = new CustomerTrigramIndex();
+
+        long buildStart = System.nanoTime();
+        for (long id = 1; id <= customers; id++) {
+            String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            index.index(id, first + " " + last + " " + id,
+                first.toLowerCase() + "." + last.toLowerCase() + id + "@email.com",
+                String.format("(11) 9%04d-%04d", random.nextInt(10_000), random.nextInt(10_000)));
+        }
+        double buildSeconds = (System.nanoTime() - buildStart) / 1e9;
+
+        // Aquecimento do JIT antes de medir
+        for (int i = 0; i < 200; i++) {
+            index.search(QUERIES[i % QUERIES.length], 10);
+        }
+
+        int rounds = 50;
+        long[] latencies = new long[rounds * QUERIES.length];
+        int n = 0;
+        for (int round = 0; round < rounds; round++) {
+            for (String query : QUERIES) {
+                long start = System.nanoTime();
+                assertFalse(index.search(query, 10).isEmpty(), query);
+                latencies[n++] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(latencies);
+
+        System.out.printf("Busca por digitação (%d clientes, índice em %.1f s): p50 %.2f ms, p99 %.2f ms, máx %.2f ms%n",
+            customers, buildSeconds,
+            latencies[latencies.length / 2] / 1e6,
+            latencies[(int) (latencies.length * 0.99)] / 1e6,
+            latencies[latencies.length - 1] / 1e6);
+    }
+}
@@ -0,0 +1,112 @@
+package com.acme.workshop.benchmark;
+
+import com.acme.workshop.model.Part;
+import com.acme.workshop.repository.PartRepository;
+import com.acme.workshop.service.PartService;
+import com.acme.workshop.util.TestReportExtension;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Várias threads disputando o estoque da mesma peça: sem transação de teste, cada chamada faz commit
+@SpringBootTest
+@ActiveProfiles("test")
+@TestReportExtension
+public class PartStockContentionBenchmarkTest {
+
+    private static final int THREADS = 8;
+    private static final int UPDATES_PER_THREAD = 25;
+    private static final int INITIAL_STOCK = 10_000;
+
+    @Autowired
+    private PartService partService;
+
+    @Autowired
+    private PartRepository partRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Part part;
+
+    @BeforeEach
+    void setUp() {
+        part = new Part();
+        part.setName("Filtro de óleo");
+        part.setCode("CONT-FIL-001");
+        part.setUnitPrice(new BigDecimal("25.00"));
+        part.setStock(INITIAL_STOCK);
+        part = partRepository.save(part);
+    }
+
+    @AfterEach
+    void tearDown() {
+        partRepository.deleteById(part.getId());
+    }
+
+    @Test
+    void concurrentStockUpdatesShouldNotLoseWrites() throws Exception {
+        double conflictsBefore = counter("workshop.optimistic_lock.conflicts");
+        double exhaustedBefore = counter("workshop.optimistic_lock.exhausted");
+
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < UPDATES_PER_THREAD; i++) {
+                    try {
+                        partService.updateStock(part.getId(), 1);
+                        succeeded.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        failed.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(60, TimeUnit.SECONDS);
+        }
+        double elapsedSeconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+        executor.shutdown();
+
+        int total = THREADS * UPDATES_PER_THREAD;
+        double conflicts = counter("workshop.optimistic_lock.conflicts") - conflictsBefore;
+        double exhausted = counter("workshop.optimistic_lock.exhausted") - exhaustedBefore;
+        System.out.printf("Contenção em uma peça (%d threads): %.1f ops/s, %d ok, %d falhas, %.0f conflitos (%.1f%% de abortos), %.0f esgotadas%n",
+                THREADS, succeeded.get() / elapsedSeconds, succeeded.get(), failed.get(),
+                conflicts, 100.0 * conflicts / (total + conflicts), exhausted);
+
+        assertEquals(total, succeeded.get() + failed.get());
+        int stock = partRepository.findById(part.getId()).orElseThrow().getStock();
+        assertEquals(INITIAL_STOCK - succeeded.get(), stock);
+    }
+
+    private double counter(String name) {
+        return meterRegistry.counter(name).count();
+    }
+}
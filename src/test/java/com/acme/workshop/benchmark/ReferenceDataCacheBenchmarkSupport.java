@@ -0,0 +1,115 @@
+package com.acme.workshop.benchmark;
+
+import com.acme.workshop.model.Customer;
+import com.acme.workshop.model.Technician;
+import com.acme.workshop.model.Vehicle;
+import com.acme.workshop.repository.CustomerRepository;
+import com.acme.workshop.repository.TechnicianRepository;
+import com.acme.workshop.repository.VehicleRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Base comum aos benchmarks com e sem cache de segundo nível: mesma massa e mesma carga
+// sobre as listagens de cadastros (findAll). Sem @Transactional para que cada requisição tenha
+// sua própria sessão. Os /select não entram aqui: são servidos pelo SelectOptionsSnapshot.
+abstract class ReferenceDataCacheBenchmarkSupport {
+
+    static final int CUSTOMERS = 200;
+    static final int TECHNICIANS = 20;
+    static final int ROUNDS = 50;
+
+    private static final String[] ENDPOINTS = {
+        "/api/customers", "/api/vehicles", "/api/technicians"
+    };
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected CustomerRepository customerRepository;
+
+    @Autowired
+    protected VehicleRepository vehicleRepository;
+
+    @Autowired
+    protected TechnicianRepository technicianRepository;
+
+    @Autowired
+    protected EntityManagerFactory entityManagerFactory;
+
+    protected Statistics statistics;
+
+    @BeforeEach
+    void seed() {
+        for (int t = 0; t < TECHNICIANS; t++) {
+            Technician technician = new Technician();
+            technician.setName("Técnico " + t);
+            technician.setEmail("tecnico" + t + "@cache.com");
+            technician.setSpecialization("Motor");
+            technicianRepository.save(technician);
+        }
+        for (int c = 0; c < CUSTOMERS; c++) {
+            Customer customer = new Customer();
+            customer.setName("Cliente " + c);
+            customer.setEmail("cliente" + c + "@cache.com");
+            customer.setPhone("11999999999");
+            customer.setAddress("Rua " + c);
+            customer = customerRepository.save(customer);
+
+            Vehicle vehicle = new Vehicle();
+            vehicle.setBrand("Honda");
+            vehicle.setModel("Civic");
+            vehicle.setModelYear(2021);
+            vehicle.setLicensePlate("CCH" + c);
+            vehicle.setCustomer(customer);
+            vehicleRepository.save(vehicle);
+        }
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        vehicleRepository.deleteAll();
+        customerRepository.deleteAll();
+        technicianRepository.deleteAll();
+    }
+
+    // Executa a carga e devolve o resultado (requisições/s e statements por requisição)
+    protected Result run(String label) throws Exception {
+        // Aquecimento: JIT e, com o perfil l2cache, o preenchimento do cache
+        for (String endpoint : ENDPOINTS) {
+            mockMvc.perform(get(endpoint)).andExpect(status().isOk());
+        }
+
+        statistics.clear();
+        int requests = ROUNDS * ENDPOINTS.length;
+        long start = System.nanoTime();
+        for (int r = 0; r < ROUNDS; r++) {
+            for (String endpoint : ENDPOINTS) {
+                mockMvc.perform(get(endpoint)).andExpect(status().isOk());
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        Result result = new Result(requests / seconds,
+            (double) statistics.getPrepareStatementCount() / requests,
+            statistics.getSecondLevelCacheHitCount(),
+            statistics.getQueryCacheHitCount());
+        System.out.printf("Listagens de cadastros (%s, %d requisições): %.1f req/s, %.2f statements/req, %d hits L2, %d hits de query cache%n",
+            label, requests, result.requestsPerSecond(), result.statementsPerRequest(),
+            result.secondLevelHits(), result.queryCacheHits());
+        return result;
+    }
+
+    record Result(double requestsPerSecond, double statementsPerRequest, long secondLevelHits, long queryCacheHits) {
+    }
+}
@@ -0,0 +1,42 @@
+package com.acme.workshop.benchmark;
+
+import com.acme.workshop.util.TestReportExtension;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+
+// Carga com o perfil l2cache: após o aquecimento, as listagens não devem ir ao banco
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles({"test", "l2cache"})
+@TestReportExtension
+public class ReferenceDataL2CacheBenchmarkTest extends ReferenceDataCacheBenchmarkSupport {
+
+    @Test
+    void shouldServeListingsFromSecondLevelCache() throws Exception {
+        Result result = run("cache L2 ligado");
+
+        assertEquals(0.0, result.statementsPerRequest());
+        assertTrue(result.queryCacheHits() > 0);
+        assertTrue(result.secondLevelHits() > 0);
+    }
+
+    @Test
+    void shouldInvalidateCachedQueryOnWrite() throws Exception {
+        run("cache L2 ligado, antes da escrita");
+
+        customerRepository.findAll().stream().findFirst().ifPresent(customer -> {
+            customer.setName("Cliente Renomeado");
+            customerRepository.save(customer);
+        });
+
+        // A escrita invalida o resultado em cache da consulta e a entrada do cliente
+        mockMvc.perform(get("/api/customers"))
+            .andExpect(jsonPath("$[?(@.name == 'Cliente Renomeado')]").exists());
+    }
+}
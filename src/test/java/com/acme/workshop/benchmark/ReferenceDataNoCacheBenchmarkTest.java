@@ -0,0 +1,25 @@
+package com.acme.workshop.benchmark;
+
+import com.acme.workshop.util.TestReportExtension;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Mesma carga de ReferenceDataL2CacheBenchmarkTest sem o cache de segundo nível (linha de base)
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestReportExtension
+public class ReferenceDataNoCacheBenchmarkTest extends ReferenceDataCacheBenchmarkSupport {
+
+    @Test
+    void shouldHitDatabaseOnEveryListingRequest() throws Exception {
+        Result result = run("cache L2 desligado");
+
+        assertTrue(result.statementsPerRequest() >= 1.0);
+        assertEquals(0, result.secondLevelHits());
+    }
+}
@@ -0,0 +1,165 @@
+package com.acme.workshop.benchmark;
+
+import com.acme.workshop.dto.CustomerDTO;
+import com.acme.workshop.dto.ServiceItemDTO;
+import com.acme.workshop.dto.ServiceOrderPartDTO;
+import com.acme.workshop.dto.ServiceOrderRequestDTO;
+import com.acme.workshop.dto.TechnicianDTO;
+import com.acme.workshop.dto.VehicleDTO;
+import com.acme.workshop.facade.WorkshopFacade;
+import com.acme.workshop.model.Part;
+import com.acme.workshop.repository.CustomerRepository;
+import com.acme.workshop.repository.PartRepository;
+import com.acme.workshop.repository.ServiceOrderRepository;
+import com.acme.workshop.repository.TechnicianRepository;
+import com.acme.workshop.repository.VehicleRepository;
+import com.acme.workshop.util.TestReportExtension;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Criação de uma OS com muitas linhas, com e sem lote JDBC. Os comandos preparados contam as idas ao
+// banco: sem lote cada INSERT é um comando; com lote, um por tabela a cada 50 linhas.
+@SpringBootTest
+@ActiveProfiles("test")
+@TestReportExtension
+public class ServiceOrderBatchInsertBenchmarkTest {
+
+    private static final int LINES = 50;
+
+    @Autowired
+    private WorkshopFacade workshopFacade;
+
+    @Autowired
+    private PartRepository partRepository;
+
+    @Autowired
+    private ServiceOrderRepository serviceOrderRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private TechnicianRepository technicianRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+    private ServiceOrderRequestDTO request;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        CustomerDTO customer = new CustomerDTO();
+        customer.setName("Cliente Lote");
+        customer.setEmail("lote@email.com");
+        customer.setPhone("(11) 90000-0000");
+        customer.setAddress("Rua do Lote, 50");
+        customer = workshopFacade.createCustomer(customer);
+
+        VehicleDTO vehicle = new VehicleDTO();
+        vehicle.setBrand("Volkswagen");
+        vehicle.setModel("Gol");
+        vehicle.setModelYear(2018);
+        vehicle.setLicensePlate("LOT5E00");
+        vehicle.setCustomerId(customer.getId());
+        vehicle = workshopFacade.createVehicle(vehicle);
+
+        TechnicianDTO technician = new TechnicianDTO();
+        technician.setName("Técnico Lote");
+        technician.setEmail("tecnico.lote@email.com");
+        technician.setSpecialization("Motor");
+        technician = workshopFacade.createTechnician(technician);
+
+        request = new ServiceOrderRequestDTO();
+        request.setCustomerId(customer.getId());
+        request.setVehicleId(vehicle.getId());
+        request.setTechnicianId(technician.getId());
+        request.setDescription("Revisão completa");
+
+        List<ServiceItemDTO> items = new ArrayList<>();
+        List<ServiceOrderPartDTO> parts = new ArrayList<>();
+        for (int i = 0; i < LINES; i++) {
+            ServiceItemDTO item = new ServiceItemDTO();
+            item.setDescription("Serviço " + i);
+            item.setLaborCost(new BigDecimal("40.00"));
+            item.setQuantity(1);
+            items.add(item);
+
+            Part part = new Part();
+            part.setName("Peça Lote " + i);
+            part.setCode("LOTE-" + i);
+            part.setUnitPrice(new BigDecimal("12.50"));
+            part.setStock(100);
+            ServiceOrderPartDTO orderPart = new ServiceOrderPartDTO();
+            orderPart.setPartId(partRepository.save(part).getId());
+            orderPart.setQuantity(1);
+            parts.add(orderPart);
+        }
+        request.setServiceItems(items);
+        request.setParts(parts);
+    }
+
+    @AfterEach
+    void tearDown() {
+        serviceOrderRepository.deleteAll();
+        vehicleRepository.deleteAll();
+        customerRepository.deleteAll();
+        technicianRepository.deleteAll();
+        partRepository.deleteAll();
+    }
+
+    @Test
+    void createServiceOrderShouldBatchLineInserts() {
+        createOrder(1); // aquecimento: planos de consulta e caches de catálogo
+
+        long unbatched = createOrder(1);
+        long batched = createOrder(null);
+
+        int inserts = 1 + 2 * LINES;
+        System.out.printf("Criação de OS com %d linhas: %d comandos sem lote, %d com lote (%.1fx menos idas ao banco)%n",
+            2 * LINES, unbatched, batched, (double) unbatched / batched);
+
+        assertTrue(unbatched >= inserts, "Sem lote, cada INSERT deveria ser um comando");
+        assertTrue(batched <= unbatched - 2 * (LINES - 1), "As linhas da OS deveriam sair em lote");
+    }
+
+    // Tamanho de lote da sessão: 1 desliga o lote, null usa hibernate.jdbc.batch_size
+    private long createOrder(Integer jdbcBatchSize) {
+        statistics.clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+            workshopFacade.createServiceOrder(request);
+        });
+        assertEquals(1 + 2 * LINES, statistics.getEntityInsertCount());
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,139 @@
+package com.acme.workshop.benchmark;
+
+import com.acme.workshop.dto.ServiceOrderFilterDTO;
+import com.acme.workshop.dto.ServiceOrderSummaryDTO;
+import com.acme.workshop.model.*;
+import com.acme.workshop.repository.*;
+import com.acme.workshop.util.TestReportExtension;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Compara o caminho antigo (entidades + conversão em Java) com a projeção do repositório
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@TestReportExtension
+public class ServiceOrderSummaryBenchmarkTest {
+
+    private static final int CUSTOMERS = 20;
+    private static final int ORDERS_PER_CUSTOMER = 10;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private TechnicianRepository technicianRepository;
+
+    @Autowired
+    private ServiceOrderRepository serviceOrderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Technician technician = new Technician();
+        technician.setName("Técnico Benchmark");
+        technician.setEmail("tecnico.benchmark@test.com");
+        technician.setSpecialization("Motor");
+        technician = technicianRepository.save(technician);
+
+        for (int c = 0; c < CUSTOMERS; c++) {
+            Customer customer = new Customer();
+            customer.setName("Cliente " + c);
+            customer.setEmail("cliente" + c + "@benchmark.com");
+            customer.setPhone("11999999999");
+            customer.setAddress("Rua " + c);
+            customer = customerRepository.save(customer);
+
+            Vehicle vehicle = new Vehicle();
+            vehicle.setBrand("Toyota");
+            vehicle.setModel("Corolla");
+            vehicle.setModelYear(2020);
+            vehicle.setLicensePlate("BEN" + c);
+            vehicle.setCustomer(customer);
+            vehicle = vehicleRepository.save(vehicle);
+
+            for (int o = 0; o < ORDERS_PER_CUSTOMER; o++) {
+                serviceOrderRepository.save(new ServiceOrderBuilder()
+                        .withCustomer(customer)
+                        .withVehicle(vehicle)
+                        .withTechnician(technician)
+                        .withDescription("OS " + c + "-" + o)
+                        .withTotalCost(BigDecimal.TEN)
+                        .build());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    void projectionShouldUseSingleQueryAndLessHeap() {
+        Measurement entities = measure(() -> serviceOrderRepository.findAll().stream()
+                .map(order -> new ServiceOrderSummaryDTO(
+                        order.getId(),
+                        order.getCustomer().getName(),
+                        order.getVehicle().getBrand() + " " + order.getVehicle().getModel() + " (" + order.getVehicle().getLicensePlate() + ")",
+                        order.getTechnician().getName(),
+                        order.getDescription(),
+                        order.getStatus(),
+                        order.getCreatedAt(),
+                        order.getTotalCost()))
+                .toList());
+
+        Measurement projection = measure(() -> serviceOrderRepository.findSummaryPage(
+                new ServiceOrderFilterDTO(), null, null, CUSTOMERS * ORDERS_PER_CUSTOMER));
+
+        System.out.printf("Resumo de OS (%d linhas) - entidades: %d queries, %d bytes | projeção: %d queries, %d bytes%n",
+                projection.rows, entities.queries, entities.allocatedBytes, projection.queries, projection.allocatedBytes);
+
+        assertEquals(CUSTOMERS * ORDERS_PER_CUSTOMER, projection.rows);
+        assertEquals(entities.rows, projection.rows);
+        assertEquals(1, projection.queries);
+        assertTrue(projection.queries < entities.queries);
+        assertEquals(0, projection.loadedEntities);
+    }
+
+    private Measurement measure(Supplier<List<ServiceOrderSummaryDTO>> query) {
+        entityManager.clear();
+        statistics.clear();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+
+        List<ServiceOrderSummaryDTO> rows = query.get();
+
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        return new Measurement(rows.size(), statistics.getPrepareStatementCount(), statistics.getEntityLoadCount(), allocated);
+    }
+
+    private record Measurement(int rows, long queries, long loadedEntities, long allocatedBytes) {
+    }
+}
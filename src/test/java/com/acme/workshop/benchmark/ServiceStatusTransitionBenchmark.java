@@ -0,0 +1,59 @@
+package com.acme.workshop.benchmark;
+
+import com.acme.workshop.model.ServiceOrder.ServiceStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Microbenchmark JMH da validação de transição: a tabela EnumSet do ServiceStatus contra um
+// Map<status, Set<status>> genérico. Cada chamada valida os 16 pares origem/destino.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ServiceStatusTransitionBenchmark {
+
+    private static final ServiceStatus[] STATUSES = ServiceStatus.values();
+
+    private final Map<ServiceStatus, Set<ServiceStatus>> mapTable = new EnumMap<>(ServiceStatus.class);
+
+    public ServiceStatusTransitionBenchmark() {
+        mapTable.put(ServiceStatus.PENDING, Set.of(ServiceStatus.IN_PROGRESS, ServiceStatus.COMPLETED, ServiceStatus.CANCELED));
+        mapTable.put(ServiceStatus.IN_PROGRESS, Set.of(ServiceStatus.COMPLETED, ServiceStatus.CANCELED));
+        mapTable.put(ServiceStatus.COMPLETED, Set.of());
+        mapTable.put(ServiceStatus.CANCELED, Set.of());
+    }
+
+    @Benchmark
+    public int enumSetTable() {
+        int allowed = 0;
+        for (ServiceStatus from : STATUSES) {
+            for (ServiceStatus to : STATUSES) {
+                if (from.canTransitionTo(to)) {
+                    allowed++;
+                }
+            }
+        }
+        return allowed;
+    }
+
+    @Benchmark
+    public int mapOfSets() {
+        int allowed = 0;
+        for (ServiceStatus from : STATUSES) {
+            for (ServiceStatus to : STATUSES) {
+                if (mapTable.get(from).contains(to)) {
+                    allowed++;
+                }
+            }
+        }
+        return allowed;
+    }
+}
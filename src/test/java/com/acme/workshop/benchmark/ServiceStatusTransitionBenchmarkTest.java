@@ -0,0 +1,52 @@
+package com.acme.workshop.benchmark;
+
+import com.acme.workshop.util.TestReportExtension;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Roda o microbenchmark JMH dentro da suíte com poucas iterações, no mesmo processo, e exige que a
+// validação pela tabela EnumSet não aloque. Para números estáveis, rode a classe
+// ServiceStatusTransitionBenchmark com fork e mais iterações.
+@TestReportExtension
+public class ServiceStatusTransitionBenchmarkTest {
+
+    @Test
+    void transitionValidationShouldNotAllocate() throws Exception {
+        Options options = new OptionsBuilder()
+            .include(ServiceStatusTransitionBenchmark.class.getName())
+            .forks(0)
+            .warmupIterations(2)
+            .warmupTime(TimeValue.milliseconds(200))
+            .measurementIterations(3)
+            .measurementTime(TimeValue.milliseconds(200))
+            .addProfiler(GCProfiler.class)
+            .shouldFailOnError(true)
+            .verbosity(VerboseMode.SILENT)
+            .build();
+
+        Collection<RunResult> results = new Runner(options).run();
+
+        for (RunResult run : results) {
+            String benchmark = run.getParams().getBenchmark();
+            String method = benchmark.substring(benchmark.lastIndexOf('.') + 1);
+            Result<?> allocation = run.getSecondaryResults().get("gc.alloc.rate.norm");
+            System.out.printf("Validação de transição (%s): %.1f ns para 16 pares, %.2f bytes alocados por chamada%n",
+                method, run.getPrimaryResult().getScore(), allocation.getScore());
+
+            if (method.equals("enumSetTable")) {
+                assertTrue(allocation.getScore() < 1.0, "A tabela EnumSet não deveria alocar: " + allocation.getScore());
+            }
+        }
+    }
+}
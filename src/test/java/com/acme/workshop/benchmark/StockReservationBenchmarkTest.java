@@ -0,0 +1,130 @@
+package com.acme.workshop.benchmark;
+
+import com.acme.workshop.model.Part;
+import com.acme.workshop.repository.PartRepository;
+import com.acme.workshop.service.PartService;
+import com.acme.workshop.service.stock.StockReservationEngine;
+import com.acme.workshop.util.TestReportExtension;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Criação concorrente de OS que consomem a mesma peça: UPDATE condicional da linha da peça
+// (bloqueada até o commit) contra a reserva por CAS do motor, com o delta gravado no log.
+// O restante da transação da OS (INSERT das linhas) é simulado por uma espera fixa.
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:stockreservationdb",
+    "workshop.stock-reservations.enabled=true"
+})
+@ActiveProfiles("test")
+@TestReportExtension
+public class StockReservationBenchmarkTest {
+
+    private static final int THREADS = 8;
+    private static final int ORDERS_PER_THREAD = 25;
+    private static final long ORDER_WORK_MS = 2;
+    private static final int INITIAL_STOCK = 10_000;
+
+    @Autowired
+    private PartService partService;
+
+    @Autowired
+    private PartRepository partRepository;
+
+    @Autowired
+    private StockReservationEngine stockReservations;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Part part;
+
+    @BeforeEach
+    void setUp() {
+        part = new Part();
+        part.setName("Filtro de óleo");
+        part.setCode("BENCH-RES-001");
+        part.setUnitPrice(new BigDecimal("25.00"));
+        part.setStock(INITIAL_STOCK);
+        part = partRepository.save(part);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM stock_reservation_log");
+        partService.deleteById(part.getId());
+    }
+
+    @Test
+    void reservationsShouldOutperformRowUpdatesOnHotPart() throws Exception {
+        Map<Long, Integer> line = Map.of(part.getId(), 1);
+        run(quantities -> partRepository.decrementStock(quantities), line); // aquecimento
+        run(partService::reserveStock, line);
+        stockReservations.flush();
+
+        double rowUpdates = run(quantities -> partRepository.decrementStock(quantities), line);
+        double reservations = run(partService::reserveStock, line);
+        stockReservations.flush();
+
+        System.out.printf("Peça disputada por %d threads: %.0f OS/s com UPDATE por linha, %.0f OS/s com reservas (%.1fx)%n",
+            THREADS, rowUpdates, reservations, reservations / rowUpdates);
+
+        int orders = 4 * THREADS * ORDERS_PER_THREAD;
+        assertEquals(INITIAL_STOCK - orders, partRepository.findStockById(part.getId()).orElseThrow());
+        assertTrue(reservations > rowUpdates, "As reservas deveriam superar o UPDATE por linha");
+    }
+
+    // OS por segundo: cada OS é uma transação que baixa a peça e depois grava as linhas
+    private double run(Consumer<Map<Long, Integer>> reserve, Map<Long, Integer> line) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        reserve.accept(line);
+                        try {
+                            Thread.sleep(ORDER_WORK_MS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    });
+                }
+                return null;
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(60, TimeUnit.SECONDS);
+        }
+        double elapsedSeconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+        executor.shutdown();
+        return THREADS * ORDERS_PER_THREAD / elapsedSeconds;
+    }
+}
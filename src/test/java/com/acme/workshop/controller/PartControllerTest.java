@@ -2,6 +2,8 @@ package com.acme.workshop.controller;
 
 import com.acme.workshop.model.Part;
 import com.acme.workshop.repository.PartRepository;
+import com.acme.workshop.service.PartCatalog;
+import com.github.benmanes.caffeine.cache.Cache;
 import com.acme.workshop.util.TestReportExtension;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,13 +11,17 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -35,6 +41,9 @@ public class PartControllerTest {
     @Autowired
     private PartRepository partRepository;
 
+    @Autowired
+    private CacheManager cacheManager;
+
     private Part testPart;
 
     @BeforeEach
@@ -98,6 +107,20 @@ public class PartControllerTest {
                 .andExpect(jsonPath("$.name").value("Filtro de óleo atualizado"));
     }
 
+    @Test
+    void shouldNotOverwriteStockOnPartUpdate() throws Exception {
+        // Baixa feita depois que o cliente leu a peça
+        mockMvc.perform(put("/api/parts/{id}/stock", testPart.getId())
+                .param("quantity", "30"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(put("/api/parts/{id}", testPart.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testPart)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stock").value(70));
+    }
+
     @Test
     void shouldUpdateStock() throws Exception {
         mockMvc.perform(put("/api/parts/{id}/stock", testPart.getId())
@@ -106,10 +129,107 @@ public class PartControllerTest {
                 .andExpect(jsonPath("$.stock").value(50));
     }
 
+    @Test
+    void shouldRecordStockMovementsAndAnswerStockAtDate() throws Exception {
+        Part newPart = new Part();
+        newPart.setName("Correia dentada");
+        newPart.setCode("COR-001");
+        newPart.setUnitPrice(new BigDecimal("80.00"));
+        newPart.setStock(100);
+        String created = mockMvc.perform(post("/api/parts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(newPart)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Long partId = objectMapper.readTree(created).get("id").asLong();
+        String beforeAdjustment = LocalDateTime.now().toString();
+
+        mockMvc.perform(put("/api/parts/{id}/stock", partId)
+                .param("quantity", "30"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/parts/{id}/stock", partId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stock").value(70))
+                .andExpect(jsonPath("$.tailMovements").value(2));
+        mockMvc.perform(get("/api/parts/{id}/stock", partId).param("at", beforeAdjustment))
+                .andExpect(jsonPath("$.stock").value(100));
+        mockMvc.perform(get("/api/parts/{id}/movements", partId)
+                .param("from", LocalDateTime.now().minusDays(1).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].type").value("ADJUSTMENT"))
+                .andExpect(jsonPath("$[0].quantity").value(100))
+                .andExpect(jsonPath("$[1].quantity").value(-30));
+    }
+
+    @Test
+    void shouldReturnNotFoundForStockHistoryOfUnknownPart() throws Exception {
+        mockMvc.perform(get("/api/parts/{id}/stock", 999999L))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/parts/{id}/movements", 999999L)
+                .param("from", LocalDateTime.now().minusDays(1).toString()))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void shouldDeletePart() throws Exception {
         mockMvc.perform(delete("/api/parts/{id}", testPart.getId()))
                 .andExpect(status().isNoContent());
     }
-}
 
+    @Test
+    void shouldCacheCatalogDataButReadStockFromDatabase() throws Exception {
+        mockMvc.perform(get("/api/parts/{id}", testPart.getId()))
+                .andExpect(jsonPath("$.stock").value(100));
+
+        // Estoque alterado direto no banco, sem passar pelo serviço
+        testPart.setStock(7);
+        partRepository.saveAndFlush(testPart);
+
+        mockMvc.perform(get("/api/parts/{id}", testPart.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Filtro de óleo"))
+                .andExpect(jsonPath("$.stock").value(7));
+
+        Cache<?, ?> byId = (Cache<?, ?>) cacheManager.getCache(PartCatalog.BY_ID).getNativeCache();
+        assertTrue(byId.stats().hitCount() > 0);
+    }
+
+    @Test
+    void shouldEvictCatalogWhenPartIsUpdated() throws Exception {
+        mockMvc.perform(get("/api/parts/code/{code}", "FIL-001"))
+                .andExpect(jsonPath("$.name").value("Filtro de óleo"));
+
+        testPart.setName("Filtro de óleo sintético");
+        testPart.setCode("FIL-002");
+        mockMvc.perform(put("/api/parts/{id}", testPart.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testPart)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/parts/{id}", testPart.getId()))
+                .andExpect(jsonPath("$.name").value("Filtro de óleo sintético"));
+        mockMvc.perform(get("/api/parts/code/{code}", "FIL-001"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/parts/code/{code}", "FIL-002"))
+                .andExpect(jsonPath("$.id").value(testPart.getId()));
+    }
+
+    @Test
+    void shouldEvictPreviousCodeWhenIdEntryIsGone() throws Exception {
+        mockMvc.perform(get("/api/parts/code/{code}", "FIL-001"))
+                .andExpect(jsonPath("$.name").value("Filtro de óleo"));
+        // Entrada por id já expirada: só a entrada por código antigo continua no cache
+        cacheManager.getCache(PartCatalog.BY_ID).evict(testPart.getId());
+
+        // Corpo montado sem tocar na entidade gerenciada pelo teste, que ainda tem o código antigo
+        String body = objectMapper.writeValueAsString(testPart).replace("FIL-001", "FIL-002");
+        mockMvc.perform(put("/api/parts/{id}", testPart.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isOk());
+
+        assertNull(cacheManager.getCache(PartCatalog.BY_CODE).get("FIL-001"));
+    }
+}
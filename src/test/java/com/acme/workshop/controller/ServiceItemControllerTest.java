@@ -164,4 +164,43 @@ public class ServiceItemControllerTest {
         mockMvc.perform(delete("/api/service-items/{id}", serviceItem.getId()))
                 .andExpect(status().isNoContent());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldKeepOrderTotalInSyncOnItemChanges() throws Exception {
+        // Parte de um total consistente com o item criado no setUp (50.00)
+        serviceOrder.setTotalCost(new BigDecimal("50.00"));
+        serviceOrder = serviceOrderRepository.save(serviceOrder);
+
+        Map<String, Object> request = new HashMap<>();
+        request.put("serviceOrderId", serviceOrder.getId());
+        request.put("description", "Alinhamento");
+        request.put("laborCost", 80.00);
+        request.put("quantity", 1);
+
+        mockMvc.perform(post("/api/service-items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/service-orders/{id}", serviceOrder.getId()))
+                .andExpect(jsonPath("$.totalCost").value(130.0));
+
+        request.put("description", "Troca de óleo sintético");
+        request.put("laborCost", 60.00);
+        request.put("quantity", 2);
+
+        mockMvc.perform(put("/api/service-items/{id}", serviceItem.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/service-orders/{id}", serviceOrder.getId()))
+                .andExpect(jsonPath("$.totalCost").value(200.0));
+
+        mockMvc.perform(delete("/api/service-items/{id}", serviceItem.getId()))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/service-orders/{id}", serviceOrder.getId()))
+                .andExpect(jsonPath("$.totalCost").value(80.0));
+    }
+}
@@ -2,22 +2,39 @@ package com.acme.workshop.controller;
 
 import com.acme.workshop.model.*;
 import com.acme.workshop.repository.*;
+import com.acme.workshop.service.idempotency.IdempotencyStore;
+import com.acme.workshop.service.idempotency.IdempotentResponse;
 import com.acme.workshop.util.TestReportExtension;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.servlet.ServletException;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -46,6 +63,18 @@ public class ServiceOrderControllerTest {
     @Autowired
     private ServiceOrderRepository serviceOrderRepository;
 
+    @Autowired
+    private PartRepository partRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
     private Customer customer;
     private Vehicle vehicle;
     private Technician technician;
@@ -111,6 +140,234 @@ public class ServiceOrderControllerTest {
                 .andExpect(jsonPath("$.status").value("PENDING"));
     }
 
+    @Test
+    void shouldCreateServiceOrderWithPartsAndDecrementStock() throws Exception {
+        Part filter = savePart("Filtro de óleo", "SO-FIL-001", 10);
+        Part pad = savePart("Pastilha de freio", "SO-PAS-001", 5);
+
+        Map<String, Object> request = new HashMap<>();
+        request.put("customerId", customer.getId());
+        request.put("vehicleId", vehicle.getId());
+        request.put("technicianId", technician.getId());
+        request.put("description", "Revisão com peças");
+        request.put("parts", List.of(
+                Map.of("partId", filter.getId(), "quantity", 2),
+                Map.of("partId", pad.getId(), "quantity", 4),
+                Map.of("partId", filter.getId(), "quantity", 1)));
+
+        mockMvc.perform(post("/api/service-orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.parts.length()").value(3))
+                .andExpect(jsonPath("$.totalCost").value(175.0));
+
+        entityManager.clear();
+        assertEquals(7, partRepository.findById(filter.getId()).orElseThrow().getStock());
+        assertEquals(1, partRepository.findById(pad.getId()).orElseThrow().getStock());
+    }
+
+    @Test
+    void shouldRejectServiceOrderWithInsufficientStock() throws Exception {
+        Part pad = savePart("Pastilha de freio", "SO-PAS-002", 1);
+
+        Map<String, Object> request = new HashMap<>();
+        request.put("customerId", customer.getId());
+        request.put("vehicleId", vehicle.getId());
+        request.put("technicianId", technician.getId());
+        request.put("description", "Troca de pastilhas");
+        request.put("parts", List.of(Map.of("partId", pad.getId(), "quantity", 2)));
+
+        ServletException error = assertThrows(ServletException.class, () -> mockMvc.perform(post("/api/service-orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request))));
+        assertEquals("Estoque insuficiente: Pastilha de freio", error.getRootCause().getMessage());
+
+        entityManager.clear();
+        assertEquals(1, partRepository.findById(pad.getId()).orElseThrow().getStock());
+    }
+
+    @Test
+    void shouldImportServiceOrdersWithPerRowResults() throws Exception {
+        Part pad = savePart("Pastilha de freio", "SO-PAS-003", 3);
+
+        List<Map<String, Object>> rows = List.of(
+                importRow("Frota 1", vehicle.getId(), List.of(Map.of("partId", pad.getId(), "quantity", 2))),
+                importRow("Frota 2", 999_999L, List.of()),
+                importRow("Frota 3", vehicle.getId(), List.of(Map.of("partId", pad.getId(), "quantity", 2))),
+                importRow("", vehicle.getId(), List.of()),
+                importRow("Frota 5", vehicle.getId(), List.of(Map.of("partId", pad.getId(), "quantity", 1))));
+
+        mockMvc.perform(post("/api/service-orders/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(rows)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5))
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[0].totalCost").value(50.0))
+                .andExpect(jsonPath("$[1].status").value("FAILED"))
+                .andExpect(jsonPath("$[1].error").value("Veículo não encontrado"))
+                .andExpect(jsonPath("$[2].status").value("FAILED"))
+                .andExpect(jsonPath("$[2].error").value("Estoque insuficiente: Pastilha de freio"))
+                .andExpect(jsonPath("$[3].status").value("FAILED"))
+                .andExpect(jsonPath("$[3].error").value("Descrição é obrigatória"))
+                .andExpect(jsonPath("$[4].status").value("CREATED"))
+                .andExpect(jsonPath("$[4].index").value(4));
+
+        entityManager.flush();
+        entityManager.clear();
+        assertEquals(0, partRepository.findById(pad.getId()).orElseThrow().getStock());
+        assertEquals(3, serviceOrderRepository.findByCustomerId(customer.getId()).size());
+    }
+
+    @Test
+    void shouldImportServiceOrdersFromNdjson() throws Exception {
+        String body = objectMapper.writeValueAsString(importRow("Frota NDJSON", vehicle.getId(), List.of())) + "\n"
+                + "{ isto não é json\n"
+                + "\n"
+                + objectMapper.writeValueAsString(importRow("Frota NDJSON 2", vehicle.getId(), List.of())) + "\n";
+
+        mockMvc.perform(post("/api/service-orders/bulk")
+                        .contentType("application/x-ndjson")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[1].status").value("FAILED"))
+                .andExpect(jsonPath("$[1].error").value("Linha vazia ou com JSON inválido"))
+                .andExpect(jsonPath("$[2].status").value("CREATED"));
+    }
+
+    @Test
+    void shouldReplayServiceOrderCreationWithSameIdempotencyKey() throws Exception {
+        Part filter = savePart("Filtro de óleo", "SO-FIL-IDEM", 10);
+        String body = objectMapper.writeValueAsString(importRow("OS com chave", vehicle.getId(),
+                List.of(Map.of("partId", filter.getId(), "quantity", 2))));
+
+        MvcResult first = mockMvc.perform(post("/api/service-orders")
+                        .header("Idempotency-Key", "os-replay-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                .andReturn();
+
+        mockMvc.perform(post("/api/service-orders")
+                        .header("Idempotency-Key", "os-replay-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(header().string("Location", first.getResponse().getHeader("Location")))
+                .andExpect(content().json(first.getResponse().getContentAsString(StandardCharsets.UTF_8), true));
+
+        // Mesma chave com outro conteúdo é erro do cliente, não uma nova OS
+        mockMvc.perform(post("/api/service-orders")
+                        .header("Idempotency-Key", "os-replay-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body.replace("OS com chave", "Outra OS")))
+                .andExpect(status().isUnprocessableEntity());
+
+        entityManager.flush();
+        entityManager.clear();
+        assertEquals(2, serviceOrderRepository.findByCustomerId(customer.getId()).size());
+        assertEquals(8, partRepository.findById(filter.getId()).orElseThrow().getStock());
+    }
+
+    @Test
+    void shouldReplayResponseStoredByAnotherInstance() throws Exception {
+        String body = objectMapper.writeValueAsString(importRow("OS de outra réplica", vehicle.getId(), List.of()));
+        String hash = HexFormat.of().formatHex(
+                MessageDigest.getInstance("SHA-256").digest(body.getBytes(StandardCharsets.UTF_8)));
+        jdbcTemplate.update("INSERT INTO idempotency_keys (idempotency_key, request_hash, status_code, content_type, " +
+                        "location, response_body, expires_at) VALUES (?, ?, 201, 'application/json', ?, ?, ?)",
+                "/api/service-orders os-replica-1", hash, "http://localhost/api/service-orders/" + serviceOrder.getId(),
+                "{\"id\":" + serviceOrder.getId() + "}", Timestamp.valueOf(LocalDateTime.now().plusHours(1)));
+
+        mockMvc.perform(post("/api/service-orders")
+                        .header("Idempotency-Key", "os-replica-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.id").value(serviceOrder.getId()));
+
+        assertEquals(1, serviceOrderRepository.findByCustomerId(customer.getId()).size());
+    }
+
+    @Test
+    void shouldReleaseIdempotencyKeyWhenRequestFails() throws Exception {
+        Part pad = savePart("Pastilha de freio", "SO-PAS-IDEM", 1);
+        String body = objectMapper.writeValueAsString(importRow("Troca de pastilhas", vehicle.getId(),
+                List.of(Map.of("partId", pad.getId(), "quantity", 2))));
+
+        assertThrows(ServletException.class, () -> mockMvc.perform(post("/api/service-orders")
+                .header("Idempotency-Key", "os-falha-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body)));
+
+        // Com a causa corrigida, a mesma chave executa de novo em vez de repetir o erro
+        pad.setStock(5);
+        partRepository.saveAndFlush(pad);
+        mockMvc.perform(post("/api/service-orders")
+                        .header("Idempotency-Key", "os-falha-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+    }
+
+    @Test
+    void shouldHoldClaimOnlyForTheLeaseUntilResponseIsStored() {
+        String key = "/api/service-orders os-lease-1";
+        assertTrue(idempotencyStore.claim(key, "hash"));
+        // Reserva de uma requisição em execução: prazo curto, não o TTL de 24 horas
+        assertTrue(expiresAt(key).isBefore(LocalDateTime.now().plusMinutes(10)));
+
+        idempotencyStore.complete(key, new IdempotentResponse("hash", 201, "application/json", null, "{}"));
+        assertTrue(expiresAt(key).isAfter(LocalDateTime.now().plusHours(23)));
+    }
+
+    @Test
+    void shouldNotBufferNdjsonImportForIdempotency() throws Exception {
+        String body = objectMapper.writeValueAsString(importRow("Frota NDJSON", vehicle.getId(), List.of())) + "\n";
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/service-orders/bulk")
+                            .header("Idempotency-Key", "os-ndjson-1")
+                            .contentType("application/x-ndjson")
+                            .content(body))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist("Idempotent-Replayed"));
+        }
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM idempotency_keys WHERE idempotency_key LIKE '%os-ndjson-1'", Integer.class));
+    }
+
+    private LocalDateTime expiresAt(String key) {
+        return jdbcTemplate.queryForObject("SELECT expires_at FROM idempotency_keys WHERE idempotency_key = ?",
+                Timestamp.class, key).toLocalDateTime();
+    }
+
+    private Map<String, Object> importRow(String description, Long vehicleId, List<Map<String, Object>> parts) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("customerId", customer.getId());
+        row.put("vehicleId", vehicleId);
+        row.put("technicianId", technician.getId());
+        row.put("description", description);
+        row.put("parts", parts);
+        return row;
+    }
+
+    private Part savePart(String name, String code, int stock) {
+        Part part = new Part();
+        part.setName(name);
+        part.setCode(code);
+        part.setUnitPrice(new BigDecimal("25.00"));
+        part.setStock(stock);
+        return partRepository.save(part);
+    }
+
     @Test
     void shouldGetAllServiceOrders() throws Exception {
         mockMvc.perform(get("/api/service-orders"))
@@ -119,6 +376,99 @@ public class ServiceOrderControllerTest {
                 .andExpect(jsonPath("$[0].description").value("Revisão completa"));
     }
 
+    @Test
+    void shouldPaginateServiceOrdersWithCursor() throws Exception {
+        for (int i = 1; i <= 2; i++) {
+            serviceOrderRepository.save(new ServiceOrderBuilder()
+                    .withCustomer(customer)
+                    .withVehicle(vehicle)
+                    .withTechnician(technician)
+                    .withDescription("Ordem " + i)
+                    .withTotalCost(BigDecimal.ZERO)
+                    .build());
+        }
+
+        MvcResult firstPage = mockMvc.perform(get("/api/service-orders").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andReturn();
+
+        mockMvc.perform(get("/api/service-orders")
+                        .param("limit", "2")
+                        .param("cursor", firstPage.getResponse().getHeader("X-Next-Cursor")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void shouldFilterServiceOrdersByStatus() throws Exception {
+        mockMvc.perform(get("/api/service-orders").param("status", "COMPLETED"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+
+        mockMvc.perform(get("/api/service-orders")
+                        .param("status", "PENDING")
+                        .param("customerId", customer.getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(serviceOrder.getId()));
+    }
+
+    @Test
+    void shouldRejectInvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/service-orders").param("cursor", "invalido"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldExportServiceOrdersAsNdjson() throws Exception {
+        ServiceOrder second = serviceOrderRepository.save(new ServiceOrderBuilder()
+                .withCustomer(customer)
+                .withVehicle(vehicle)
+                .withTechnician(technician)
+                .withDescription("Troca de óleo")
+                .withTotalCost(BigDecimal.ZERO)
+                .build());
+        Part part = savePart("Filtro de óleo", "EXP-001", 10);
+        for (ServiceOrder order : List.of(serviceOrder, second)) {
+            ServiceItem item = new ServiceItem();
+            item.setServiceOrder(order);
+            item.setDescription("Mão de obra");
+            item.setLaborCost(new BigDecimal("80.00"));
+            item.setQuantity(1);
+            entityManager.persist(item);
+
+            ServiceOrderPart line = new ServiceOrderPart();
+            line.setServiceOrder(order);
+            line.setPart(part);
+            line.setQuantity(2);
+            line.setUnitPrice(part.getUnitPrice());
+            entityManager.persist(line);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        MvcResult result = mockMvc.perform(get("/api/service-orders/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn();
+
+        // Ordens com cliente, veículo e técnico + itens do lote + peças do lote, sem SELECT por OS
+        assertEquals(3, statistics.getPrepareStatementCount());
+
+        String[] lines = result.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Revisão completa", objectMapper.readTree(lines[0]).get("description").asText());
+        assertEquals(customer.getId(), objectMapper.readTree(lines[1]).get("customer").get("id").asLong());
+        assertEquals(1, objectMapper.readTree(lines[1]).get("serviceItems").size());
+        assertEquals("EXP-001", objectMapper.readTree(lines[1]).get("parts").get(0).get("partCode").asText());
+    }
+
     @Test
     void shouldUpdateServiceOrderStatus() throws Exception {
         mockMvc.perform(put("/api/service-orders/{id}/status", serviceOrder.getId())
@@ -128,6 +478,87 @@ public class ServiceOrderControllerTest {
                 .andExpect(jsonPath("$.status").value("IN_PROGRESS"));
     }
 
+    @Test
+    void shouldReturnPartsToStockWhenCanceled() throws Exception {
+        Part filter = savePart("Filtro de óleo", "SO-FIL-002", 10);
+        Part pad = savePart("Pastilha de freio", "SO-PAS-004", 5);
+
+        Map<String, Object> request = new HashMap<>();
+        request.put("customerId", customer.getId());
+        request.put("vehicleId", vehicle.getId());
+        request.put("technicianId", technician.getId());
+        request.put("description", "Revisão cancelada");
+        request.put("parts", List.of(
+                Map.of("partId", filter.getId(), "quantity", 2),
+                Map.of("partId", pad.getId(), "quantity", 3),
+                Map.of("partId", filter.getId(), "quantity", 1)));
+
+        MvcResult created = mockMvc.perform(post("/api/service-orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        long orderId = objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asLong();
+
+        mockMvc.perform(put("/api/service-orders/{id}/status", orderId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("\"CANCELED\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CANCELED"));
+
+        entityManager.clear();
+        assertEquals(10, partRepository.findById(filter.getId()).orElseThrow().getStock());
+        assertEquals(5, partRepository.findById(pad.getId()).orElseThrow().getStock());
+    }
+
+    @Test
+    void shouldRejectTransitionOutOfFinalStatus() throws Exception {
+        mockMvc.perform(put("/api/service-orders/{id}/status", serviceOrder.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("\"COMPLETED\""))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(put("/api/service-orders/{id}/status", serviceOrder.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("\"PENDING\""))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldUpdateStatusOfManyServiceOrders() throws Exception {
+        ServiceOrder other = serviceOrderRepository.save(new ServiceOrderBuilder()
+                .withCustomer(customer)
+                .withVehicle(vehicle)
+                .withTechnician(technician)
+                .withDescription("Troca de óleo")
+                .withTotalCost(BigDecimal.ZERO)
+                .build());
+
+        Map<String, Object> request = Map.of(
+                "ids", List.of(serviceOrder.getId(), other.getId()),
+                "status", "IN_PROGRESS");
+
+        mockMvc.perform(put("/api/service-orders/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].status").value("UPDATED"))
+                .andExpect(jsonPath("$[1].status").value("UPDATED"));
+
+        mockMvc.perform(put("/api/service-orders/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("REJECTED"))
+                .andExpect(jsonPath("$[0].previousStatus").value("IN_PROGRESS"));
+
+        mockMvc.perform(put("/api/service-orders/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": [], \"status\": \"COMPLETED\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void shouldGetServiceOrdersByCustomer() throws Exception {
         mockMvc.perform(get("/api/service-orders/customer/{customerId}", customer.getId()))
@@ -8,6 +8,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
@@ -45,6 +46,9 @@ public class ServiceOrderPartControllerTest {
     @Autowired
     private ServiceOrderPartRepository serviceOrderPartRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     private ServiceOrder serviceOrder;
     private Part part;
 
@@ -155,4 +159,32 @@ public class ServiceOrderPartControllerTest {
                         serviceOrder.getId(), orderPart.getId()))
                 .andExpect(status().isNoContent());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldRejectPartChangesOnCompletedOrder() throws Exception {
+        serviceOrder.setStatus(ServiceOrder.ServiceStatus.COMPLETED);
+        serviceOrderRepository.save(serviceOrder);
+
+        mockMvc.perform(post("/api/service-orders/{orderId}/parts", serviceOrder.getId())
+                        .param("partId", part.getId().toString())
+                        .param("quantity", "1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldCheckStatusReadUnderLockWhenRemovingPart() throws Exception {
+        ServiceOrderPart orderPart = new ServiceOrderPart();
+        orderPart.setServiceOrder(serviceOrder);
+        orderPart.setPart(part);
+        orderPart.setQuantity(1);
+        orderPart.setUnitPrice(part.getUnitPrice());
+        orderPart = serviceOrderPartRepository.saveAndFlush(orderPart);
+
+        // Cancelamento gravado depois que a OS foi carregada: a entidade em memória ainda diz PENDING
+        jdbcTemplate.update("UPDATE service_orders SET status = 'CANCELED' WHERE id = ?", serviceOrder.getId());
+
+        mockMvc.perform(delete("/api/service-orders/{orderId}/parts/{orderPartId}",
+                        serviceOrder.getId(), orderPart.getId()))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,298 @@
+package com.acme.workshop.facade;
+
+import com.acme.workshop.dto.ServiceItemDTO;
+import com.acme.workshop.dto.ServiceOrderImportResultDTO;
+import com.acme.workshop.dto.ServiceOrderPartDTO;
+import com.acme.workshop.dto.ServiceOrderRequestDTO;
+import com.acme.workshop.dto.ServiceOrderResponseDTO;
+import com.acme.workshop.model.*;
+import com.acme.workshop.repository.*;
+import com.acme.workshop.service.ServiceOrderService;
+import com.acme.workshop.util.TestReportExtension;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Garante que a conversão de N ordens em DTO usa um número constante de queries (sem N+1)
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@TestReportExtension
+public class WorkshopFacadeQueryCountTest {
+
+    private static final long EXPECTED_QUERIES = 2;
+
+    @Autowired
+    private WorkshopFacade workshopFacade;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private TechnicianRepository technicianRepository;
+
+    @Autowired
+    private PartRepository partRepository;
+
+    @Autowired
+    private ServiceOrderRepository serviceOrderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Customer customer;
+    private Vehicle vehicle;
+    private Technician technician;
+    private Part oilFilter;
+    private Part brakePad;
+    private int created;
+
+    @BeforeEach
+    void setUp() {
+        customer = new Customer();
+        customer.setName("Cliente Frota");
+        customer.setEmail("frota@test.com");
+        customer.setPhone("11999999999");
+        customer.setAddress("Rua Teste, 123");
+        customer = customerRepository.save(customer);
+
+        vehicle = new Vehicle();
+        vehicle.setBrand("Toyota");
+        vehicle.setModel("Corolla");
+        vehicle.setModelYear(2020);
+        vehicle.setLicensePlate("FRT-0001");
+        vehicle.setCustomer(customer);
+        vehicle = vehicleRepository.save(vehicle);
+
+        technician = new Technician();
+        technician.setName("Técnico Frota");
+        technician.setEmail("tecnico.frota@test.com");
+        technician.setSpecialization("Motor");
+        technician = technicianRepository.save(technician);
+
+        oilFilter = savePart("Filtro de óleo", "QC-FIL-001");
+        brakePad = savePart("Pastilha de freio", "QC-PAS-001");
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    void customerOrdersShouldUseConstantQueries() {
+        createOrders(3);
+        assertEquals(EXPECTED_QUERIES, countQueries(3, () -> workshopFacade.getCustomerServiceOrders(customer.getId())));
+
+        createOrders(12);
+        assertEquals(EXPECTED_QUERIES, countQueries(15, () -> workshopFacade.getCustomerServiceOrders(customer.getId())));
+    }
+
+    @Test
+    void technicianOrdersShouldUseConstantQueries() {
+        createOrders(10);
+        assertEquals(EXPECTED_QUERIES, countQueries(10, () -> workshopFacade.getTechnicianServiceOrders(technician.getId())));
+    }
+
+    @Test
+    void allOrdersShouldUseConstantQueries() {
+        createOrders(10);
+        assertEquals(EXPECTED_QUERIES, countQueries(10, () -> workshopFacade.getAllServiceOrders()));
+    }
+
+    // Acima de FETCH_PARTS_BATCH_SIZE ordens, as peças vêm em um IN por lote de ids
+    @Test
+    void allOrdersShouldChunkThePartsLookup() {
+        int orders = ServiceOrderService.FETCH_PARTS_BATCH_SIZE + 1;
+        createOrders(orders);
+        assertEquals(EXPECTED_QUERIES + 1, countQueries(orders, () -> workshopFacade.getAllServiceOrders()));
+    }
+
+    // Importação em lote: consultas IN por tabela, uma reserva de estoque e INSERTs em lote JDBC.
+    // 40 OS com 80 itens e 80 peças não podem custar um comando por linha.
+    @Test
+    void importShouldResolveAndInsertRowsInBatches() {
+        List<ServiceOrderRequestDTO> rows = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            ServiceOrderRequestDTO row = new ServiceOrderRequestDTO();
+            row.setCustomerId(customer.getId());
+            row.setVehicleId(vehicle.getId());
+            row.setTechnicianId(technician.getId());
+            row.setDescription("Frota " + i);
+            row.setServiceItems(List.of(itemDto("Mão de obra"), itemDto("Diagnóstico")));
+            row.setParts(List.of(partDto(oilFilter), partDto(brakePad)));
+            rows.add(row);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<ServiceOrderImportResultDTO> results = workshopFacade.importServiceOrders(rows);
+        entityManager.flush();
+
+        assertTrue(results.stream().allMatch(r -> r.status() == ServiceOrderImportResultDTO.Status.CREATED));
+        assertEquals(200, statistics.getEntityInsertCount());
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= 20, "Comandos na importação: " + statements);
+    }
+
+    // Edição de uma OS com 200 linhas: só o que mudou vai para o banco, e o estoque se move só
+    // pela diferença líquida por peça
+    @Test
+    void updateShouldWriteOnlyChangedLines() {
+        ServiceOrderRequestDTO request = new ServiceOrderRequestDTO();
+        request.setCustomerId(customer.getId());
+        request.setVehicleId(vehicle.getId());
+        request.setTechnicianId(technician.getId());
+        request.setDescription("Revisão de frota");
+        List<ServiceItemDTO> items = new ArrayList<>();
+        List<ServiceOrderPartDTO> parts = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            items.add(itemDto("Serviço " + i));
+            parts.add(partDto(i % 2 == 0 ? oilFilter : brakePad));
+        }
+        request.setServiceItems(items);
+        request.setParts(parts);
+        ServiceOrderResponseDTO order = workshopFacade.createServiceOrder(request);
+
+        request.setDescription("Revisão de frota - cliente aprovou");
+        request.setServiceItems(order.getServiceItems());
+        request.setParts(order.getParts());
+        assertEquals(1, countWrites(() -> workshopFacade.updateServiceOrder(order.getId(), request))[1]);
+        assertEquals(0, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityDeleteCount());
+        assertEquals(50, stock(oilFilter));
+        assertEquals(50, stock(brakePad));
+
+        // Filtro: +1 numa linha. Pastilha: uma linha sai e outra entra, saldo líquido zero.
+        List<ServiceOrderPartDTO> editedParts = new ArrayList<>(order.getParts());
+        ServiceOrderPartDTO filterLine = editedParts.stream()
+                .filter(line -> line.getPartId().equals(oilFilter.getId())).findFirst().orElseThrow();
+        filterLine.setQuantity(2);
+        editedParts.remove(editedParts.stream()
+                .filter(line -> line.getPartId().equals(brakePad.getId())).findFirst().orElseThrow());
+        editedParts.add(partDto(brakePad));
+        request.setParts(editedParts);
+        long[] writes = countWrites(() -> workshopFacade.updateServiceOrder(order.getId(), request));
+        assertEquals(1, writes[0]);
+        assertEquals(1, statistics.getEntityDeleteCount());
+        assertTrue(writes[1] <= 2, "UPDATEs na edição: " + writes[1]);
+        assertEquals(49, stock(oilFilter));
+        assertEquals(50, stock(brakePad));
+    }
+
+    // INSERTs e UPDATEs de entidades feitos pela chamada
+    private long[] countWrites(Runnable call) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        call.run();
+        entityManager.flush();
+        return new long[] { statistics.getEntityInsertCount(), statistics.getEntityUpdateCount() };
+    }
+
+    private int stock(Part part) {
+        return partRepository.findStockById(part.getId()).orElseThrow();
+    }
+
+    private ServiceItemDTO itemDto(String description) {
+        ServiceItemDTO item = new ServiceItemDTO();
+        item.setDescription(description);
+        item.setLaborCost(new BigDecimal("100.00"));
+        item.setQuantity(1);
+        return item;
+    }
+
+    private ServiceOrderPartDTO partDto(Part part) {
+        ServiceOrderPartDTO orderPart = new ServiceOrderPartDTO();
+        orderPart.setPartId(part.getId());
+        orderPart.setQuantity(1);
+        return orderPart;
+    }
+
+    private long countQueries(int expectedOrders, Supplier<List<ServiceOrderResponseDTO>> call) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<ServiceOrderResponseDTO> orders = call.get();
+
+        assertEquals(expectedOrders, orders.size());
+        orders.forEach(order -> {
+            assertEquals(2, order.getServiceItems().size());
+            assertEquals(2, order.getParts().size());
+        });
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void createOrders(int count) {
+        customer = customerRepository.findById(customer.getId()).orElseThrow();
+        vehicle = vehicleRepository.findById(vehicle.getId()).orElseThrow();
+        technician = technicianRepository.findById(technician.getId()).orElseThrow();
+        oilFilter = partRepository.findById(oilFilter.getId()).orElseThrow();
+        brakePad = partRepository.findById(brakePad.getId()).orElseThrow();
+
+        for (int i = 0; i < count; i++) {
+            ServiceOrder order = new ServiceOrderBuilder()
+                    .withCustomer(customer)
+                    .withVehicle(vehicle)
+                    .withTechnician(technician)
+                    .withDescription("Revisão " + (++created))
+                    .withTotalCost(BigDecimal.ZERO)
+                    .build();
+            order.getServiceItems().add(item(order, "Mão de obra"));
+            order.getServiceItems().add(item(order, "Diagnóstico"));
+            order.getParts().add(orderPart(order, oilFilter));
+            order.getParts().add(orderPart(order, brakePad));
+            order.updateTotalCost();
+            serviceOrderRepository.save(order);
+        }
+    }
+
+    private Part savePart(String name, String code) {
+        Part part = new Part();
+        part.setName(name);
+        part.setCode(code);
+        part.setUnitPrice(new BigDecimal("25.00"));
+        part.setStock(100);
+        return partRepository.save(part);
+    }
+
+    private ServiceItem item(ServiceOrder order, String description) {
+        ServiceItem item = new ServiceItem();
+        item.setServiceOrder(order);
+        item.setDescription(description);
+        item.setLaborCost(new BigDecimal("100.00"));
+        item.setQuantity(1);
+        return item;
+    }
+
+    private ServiceOrderPart orderPart(ServiceOrder order, Part part) {
+        ServiceOrderPart orderPart = new ServiceOrderPart();
+        orderPart.setServiceOrder(order);
+        orderPart.setPart(part);
+        orderPart.setQuantity(1);
+        orderPart.setUnitPrice(part.getUnitPrice());
+        return orderPart;
+    }
+}
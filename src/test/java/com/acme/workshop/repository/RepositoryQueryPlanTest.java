@@ -0,0 +1,184 @@
+package com.acme.workshop.repository;
+
+import com.acme.workshop.dto.ServiceOrderFilterDTO;
+import com.acme.workshop.model.ServiceOrder.ServiceStatus;
+import com.acme.workshop.util.TestReportExtension;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Executa cada finder dos repositórios, captura o SQL gerado pelo Hibernate e roda EXPLAIN sobre ele
+// numa base com volume de carga inicial. Falha se algum plano fizer varredura completa de tabela.
+// Banco próprio: as estatísticas (ANALYZE) e o volume não interferem nos demais testes.
+// Os planos são os do H2, com as migrações de db/migration/h2: os índices só do PostgreSQL (parciais,
+// em db/migration/postgresql) e os planos que o PostgreSQL escolheria não são verificados aqui.
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:queryplandb",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "com.acme.workshop.repository.RepositoryQueryPlanTest$RecordingInspector"
+})
+@ActiveProfiles("test")
+@TestReportExtension
+public class RepositoryQueryPlanTest {
+
+    private static final List<String> CAPTURED = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ServiceOrderRepository serviceOrderRepository;
+
+    @Autowired
+    private ServiceOrderPartRepository serviceOrderPartRepository;
+
+    @Autowired
+    private ServiceItemRepository serviceItemRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private TechnicianRepository technicianRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    // Fora de propósito: findAll* e streamAllForExport leem a tabela inteira por definição.
+    // findSummaryPage sem filtro também: o H2 não usa o índice (created_at, id) para ORDER BY com
+    // FETCH FIRST quando há joins, então só as variantes filtradas são verificadas aqui.
+    @Test
+    void everyFinderShouldUseAnIndex() throws Exception {
+        seed();
+        LocalDateTime now = LocalDateTime.now();
+
+        Map<String, Runnable> finders = new LinkedHashMap<>();
+        finders.put("ServiceOrder.findByCustomerId", () -> serviceOrderRepository.findByCustomerId(1L));
+        finders.put("ServiceOrder.findByVehicleId", () -> serviceOrderRepository.findByVehicleId(1L));
+        finders.put("ServiceOrder.findByTechnicianId", () -> serviceOrderRepository.findByTechnicianId(1L));
+        finders.put("ServiceOrder.findByStatus", () -> serviceOrderRepository.findByStatus(ServiceStatus.PENDING));
+        finders.put("ServiceOrder.findByCreatedAtBetween", () -> serviceOrderRepository.findByCreatedAtBetween(now.minusDays(1), now));
+        finders.put("ServiceOrder.findByCustomerIdAndStatus", () -> serviceOrderRepository.findByCustomerIdAndStatus(1L, ServiceStatus.PENDING));
+        finders.put("ServiceOrder.findByTechnicianIdAndStatus", () -> serviceOrderRepository.findByTechnicianIdAndStatus(1L, ServiceStatus.PENDING));
+        finders.put("ServiceOrder.findWithItemsByCustomerId", () -> serviceOrderRepository.findWithItemsByCustomerId(1L));
+        finders.put("ServiceOrder.findWithItemsByTechnicianId", () -> serviceOrderRepository.findWithItemsByTechnicianId(1L));
+        finders.put("ServiceOrder.fetchItemsByIdIn", () -> serviceOrderRepository.fetchItemsByIdIn(List.of(1L, 2L)));
+        finders.put("ServiceOrder.fetchPartsByIdIn", () -> serviceOrderRepository.fetchPartsByIdIn(List.of(1L, 2L)));
+        finders.put("ServiceOrder.findSummaryPage(status)", () -> serviceOrderRepository.findSummaryPage(summaryFilter(ServiceStatus.PENDING, null, null), now, 1L, 50));
+        finders.put("ServiceOrder.findSummaryPage(technician)", () -> serviceOrderRepository.findSummaryPage(summaryFilter(null, 1L, null), null, null, 50));
+        finders.put("ServiceOrder.findSummaryPage(customer)", () -> serviceOrderRepository.findSummaryPage(summaryFilter(null, null, 1L), now, 1L, 50));
+        finders.put("ServiceOrder.findIdsWithInconsistentTotal", () -> serviceOrderRepository.findIdsWithInconsistentTotal(0L, PageRequest.of(0, 100)));
+        finders.put("ServiceOrderPart.findByServiceOrderId", () -> serviceOrderPartRepository.findByServiceOrderId(1L));
+        finders.put("ServiceOrderPart.findByPartId", () -> serviceOrderPartRepository.findByPartId(1L));
+        finders.put("ServiceItem.findByServiceOrderId", () -> serviceItemRepository.findByServiceOrderId(1L));
+        finders.put("Vehicle.findByCustomerId", () -> vehicleRepository.findByCustomerId(1L));
+        finders.put("Vehicle.findByBrandAndModel", () -> vehicleRepository.findByBrandAndModel("Fiat", "Uno"));
+        finders.put("Vehicle.findByModelYear", () -> vehicleRepository.findByModelYear(2020));
+        finders.put("Technician.findBySpecialization", () -> technicianRepository.findBySpecialization("Elétrica"));
+        finders.put("Outbox.findByProcessedAtIsNull", () -> outboxEventRepository.findByProcessedAtIsNull());
+
+        // Inclui os SELECTs secundários (relacionamentos carregados por id) disparados pelo finder
+        List<String> scans = new ArrayList<>();
+        Set<String> explained = new HashSet<>();
+        for (Map.Entry<String, Runnable> finder : finders.entrySet()) {
+            CAPTURED.clear();
+            finder.getValue().run();
+            for (String sql : new ArrayList<>(CAPTURED)) {
+                if (!explained.add(sql)) {
+                    continue;
+                }
+                String plan = explain(sql);
+                if (plan.contains(".tableScan")) {
+                    scans.add(finder.getKey() + ":\n" + plan);
+                }
+            }
+        }
+
+        assertTrue(scans.isEmpty(), "Varredura completa de tabela:\n" + String.join("\n\n", scans));
+    }
+
+    private static ServiceOrderFilterDTO summaryFilter(ServiceStatus status, Long technicianId, Long customerId) {
+        ServiceOrderFilterDTO filter = new ServiceOrderFilterDTO();
+        filter.setStatus(status);
+        filter.setTechnicianId(technicianId);
+        filter.setCustomerId(customerId);
+        return filter;
+    }
+
+    // Parâmetros sem valor: o H2 monta o plano pelas estatísticas da coluna, não pelo valor
+    private String explain(String sql) throws Exception {
+        return jdbcTemplate.execute((java.sql.Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                int parameters = statement.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parameters; i++) {
+                    statement.setObject(i, null);
+                }
+                try (ResultSet rs = statement.executeQuery()) {
+                    StringBuilder plan = new StringBuilder();
+                    while (rs.next()) {
+                        plan.append(rs.getString(1));
+                    }
+                    return plan.toString();
+                }
+            }
+        });
+    }
+
+    // Volume da carga inicial de uma oficina média, gerado direto em SQL
+    private void seed() {
+        jdbcTemplate.update("INSERT INTO customers (name, email, phone, address) " +
+            "SELECT 'Cliente ' || x, 'cliente' || x || '@plan.com', '(11) 90000-0000', 'Rua ' || x FROM SYSTEM_RANGE(1, 2000)");
+        jdbcTemplate.update("INSERT INTO technicians (name, email, specialization) " +
+            "SELECT 'Técnico ' || x, 'tecnico' || x || '@plan.com', 'Especialidade ' || MOD(x, 25) FROM SYSTEM_RANGE(1, 100)");
+        jdbcTemplate.update("INSERT INTO vehicles (brand, model, model_year, license_plate, customer_id) " +
+            "SELECT 'Marca ' || MOD(x, 40), 'Modelo ' || MOD(x, 200), 1990 + MOD(x, 35), 'PLN' || x, c.id " +
+            "FROM SYSTEM_RANGE(1, 3000) JOIN " + ranked("customers") + " c ON c.rn = MOD(x, 2000) + 1");
+        jdbcTemplate.update("INSERT INTO service_orders (customer_id, vehicle_id, technician_id, description, status, created_at, total_cost) " +
+            "SELECT v.customer_id, v.id, t.id, 'OS ' || v.id, " +
+            "CASE WHEN MOD(v.id, 10) = 0 THEN 'PENDING' WHEN MOD(v.id, 10) = 1 THEN 'IN_PROGRESS' ELSE 'COMPLETED' END, " +
+            "DATEADD('HOUR', -v.id, CURRENT_TIMESTAMP), 0 FROM vehicles v " +
+            "JOIN " + ranked("technicians") + " t ON t.rn = MOD(v.id, 100) + 1 CROSS JOIN SYSTEM_RANGE(1, 3)");
+        jdbcTemplate.update("INSERT INTO parts (name, code, unit_price, stock) " +
+            "SELECT 'Peça ' || x, 'PLAN-' || x, 10, 100 FROM SYSTEM_RANGE(1, 500)");
+        jdbcTemplate.update("INSERT INTO service_items (service_order_id, description, labor_cost, quantity) " +
+            "SELECT o.id, 'Serviço', 50, 1 FROM service_orders o CROSS JOIN SYSTEM_RANGE(1, 2)");
+        jdbcTemplate.update("INSERT INTO service_order_parts (service_order_id, part_id, quantity, unit_price) " +
+            "SELECT o.id, p.id, 1, 10 FROM service_orders o CROSS JOIN SYSTEM_RANGE(1, 2) " +
+            "JOIN " + ranked("parts") + " p ON p.rn = MOD(o.id * x, 500) + 1");
+        jdbcTemplate.update("INSERT INTO outbox (aggregate_id, event_type, payload, processed_at) " +
+            "SELECT x, 'STATUS_CHANGED', '{}', CASE WHEN MOD(x, 50) = 0 THEN NULL ELSE CURRENT_TIMESTAMP END FROM SYSTEM_RANGE(1, 5000)");
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    // Os ids vêm de sequências com incremento 50, então as FKs são escolhidas pela posição da linha
+    private static String ranked(String table) {
+        return "(SELECT id, ROW_NUMBER() OVER (ORDER BY id) AS rn FROM " + table + ")";
+    }
+
+    public static class RecordingInspector implements StatementInspector {
+        @Override
+        public String inspect(String sql) {
+            if (sql.trim().toLowerCase().startsWith("select")) {
+                CAPTURED.add(sql);
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.acme.workshop.service;
+
+import com.acme.workshop.model.Customer;
+import com.acme.workshop.repository.CustomerRepository;
+import com.acme.workshop.util.TestReportExtension;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+// Sem @Transactional: o snapshot só recebe alterações confirmadas
+@TestReportExtension
+public class SelectOptionsSnapshotTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SelectOptionsSnapshot selectOptionsSnapshot;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        customer = customerRepository.save(customer("Cliente Snapshot", "snapshot@test.com"));
+        selectOptionsSnapshot.invalidateAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        customerRepository.deleteAll();
+        selectOptionsSnapshot.invalidateAll();
+    }
+
+    @Test
+    void shouldReturnNotModifiedWithoutTouchingDatabase() throws Exception {
+        MvcResult first = mockMvc.perform(get("/api/customers/select"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$[0].name").value("Cliente Snapshot"))
+                .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(get("/api/customers/select").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+        mockMvc.perform(get("/api/customers/select"))
+                .andExpect(status().isOk());
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldApplyCommittedChangesIncrementally() throws Exception {
+        String etag = mockMvc.perform(get("/api/customers/select"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        customer.setName("Cliente Renomeado");
+        customer = customerRepository.save(customer);
+        Customer other = customerRepository.save(customer("Outro Cliente", "outro@test.com"));
+
+        String updatedEtag = mockMvc.perform(get("/api/customers/select").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].name").value("Cliente Renomeado"))
+                .andExpect(jsonPath("$[1].name").value("Outro Cliente"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, updatedEtag);
+
+        customerRepository.delete(other);
+
+        mockMvc.perform(get("/api/customers/select"))
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void shouldIgnoreRolledBackChanges() throws Exception {
+        String etag = mockMvc.perform(get("/api/customers/select"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            customerRepository.save(customer("Cliente Desfeito", "desfeito@test.com"));
+            status.setRollbackOnly();
+        });
+
+        mockMvc.perform(get("/api/customers/select").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    private Customer customer(String name, String email) {
+        Customer c = new Customer();
+        c.setName(name);
+        c.setEmail(email);
+        c.setPhone("(11) 98888-8888");
+        c.setAddress("Rua Snapshot");
+        return c;
+    }
+}
@@ -0,0 +1,287 @@
+package com.acme.workshop.service;
+
+import com.acme.workshop.dto.ServiceOrderStatusResultDTO;
+import com.acme.workshop.model.*;
+import com.acme.workshop.repository.*;
+import com.acme.workshop.service.observer.OutboxPoller;
+import com.acme.workshop.service.observer.ServiceOrderEventDispatcher;
+import com.acme.workshop.service.observer.ServiceOrderObserver;
+import com.acme.workshop.service.observer.ServiceOrderStatusChangedEvent;
+import com.acme.workshop.util.TestReportExtension;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+// Sem @Transactional: a entrega depende do commit
+@TestReportExtension
+public class ServiceOrderOutboxTest {
+
+    @Autowired
+    private ServiceOrderService serviceOrderService;
+
+    @Autowired
+    private ServiceOrderEventDispatcher dispatcher;
+
+    @Autowired
+    private OutboxPoller outboxPoller;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private TechnicianRepository technicianRepository;
+
+    @Autowired
+    private ServiceOrderRepository serviceOrderRepository;
+
+    private final BlockingQueue<ServiceOrderStatusChangedEvent> received = new LinkedBlockingQueue<>();
+    private final BlockingQueue<String> threads = new LinkedBlockingQueue<>();
+    private final ServiceOrderObserver recorder = event -> {
+        threads.add(Thread.currentThread().getName());
+        received.add(event);
+    };
+
+    private ServiceOrder serviceOrder;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+
+        Customer customer = new Customer();
+        customer.setName("Cliente Eventos");
+        customer.setEmail("eventos@test.com");
+        customer.setPhone("(11) 91111-1111");
+        customer.setAddress("Rua Teste");
+        customer = customerRepository.save(customer);
+
+        Vehicle vehicle = new Vehicle();
+        vehicle.setBrand("VW");
+        vehicle.setModel("Gol");
+        vehicle.setModelYear(2018);
+        vehicle.setLicensePlate("EVT-0001");
+        vehicle.setCustomer(customer);
+        vehicle = vehicleRepository.save(vehicle);
+
+        Technician technician = new Technician();
+        technician.setName("Técnico Eventos");
+        technician.setEmail("tecnico.eventos@test.com");
+        technician.setSpecialization("Elétrica");
+        technician = technicianRepository.save(technician);
+
+        serviceOrder = serviceOrderRepository.save(new ServiceOrderBuilder()
+                .withCustomer(customer)
+                .withVehicle(vehicle)
+                .withTechnician(technician)
+                .withDescription("Diagnóstico")
+                .withTotalCost(BigDecimal.ZERO)
+                .build());
+
+        dispatcher.addObserver(recorder);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.removeObserver(recorder);
+        outboxEventRepository.deleteAll();
+        serviceOrderRepository.deleteAll();
+        vehicleRepository.deleteAll();
+        technicianRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void shouldDeliverSnapshotOnlyAfterOutboxIsDrained() throws Exception {
+        transactionTemplate.executeWithoutResult(status -> {
+            serviceOrderService.updateStatus(serviceOrder.getId(), ServiceOrder.ServiceStatus.IN_PROGRESS);
+            // Ainda dentro da transação: nada foi entregue
+            assertTrue(received.isEmpty());
+        });
+
+        // Confirmado, o evento está no outbox e ainda não foi entregue
+        List<OutboxEvent> pending = outboxEventRepository.findByProcessedAtIsNull();
+        assertEquals(1, pending.size());
+        assertEquals(serviceOrder.getId(), pending.get(0).getAggregateId());
+        assertTrue(received.isEmpty());
+
+        assertEquals(1, outboxPoller.drainBatch());
+
+        ServiceOrderStatusChangedEvent event = received.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event);
+        assertEquals(serviceOrder.getId(), event.orderId());
+        assertEquals("eventos@test.com", event.customerEmail());
+        assertEquals(ServiceOrder.ServiceStatus.PENDING, event.oldStatus());
+        assertEquals(ServiceOrder.ServiceStatus.IN_PROGRESS, event.newStatus());
+        assertTrue(threads.take().startsWith("so-events-"));
+        assertTrue(outboxEventRepository.findByProcessedAtIsNull().isEmpty());
+        assertTrue(meterRegistry.get("workshop.events.delivery.latency").timer().count() > 0);
+        assertNotNull(meterRegistry.get("workshop.events.queue.depth").gauge());
+    }
+
+    @Test
+    void shouldApplyBatchTransitionAndPublishEventsTogether() throws Exception {
+        ServiceOrder second = serviceOrderRepository.save(new ServiceOrderBuilder()
+                .withCustomer(serviceOrder.getCustomer())
+                .withVehicle(serviceOrder.getVehicle())
+                .withTechnician(serviceOrder.getTechnician())
+                .withDescription("Alinhamento")
+                .withTotalCost(BigDecimal.ZERO)
+                .build());
+        serviceOrderService.updateStatus(second.getId(), ServiceOrder.ServiceStatus.CANCELED);
+        assertEquals(1, outboxPoller.drainBatch());
+        received.clear();
+
+        List<ServiceOrderStatusResultDTO> results = transactionTemplate.execute(status ->
+                serviceOrderService.updateStatuses(List.of(serviceOrder.getId(), second.getId(), -1L),
+                        ServiceOrder.ServiceStatus.COMPLETED));
+
+        assertEquals(ServiceOrderStatusResultDTO.Status.UPDATED, results.get(0).status());
+        assertEquals(ServiceOrder.ServiceStatus.PENDING, results.get(0).previousStatus());
+        assertEquals(ServiceOrderStatusResultDTO.Status.REJECTED, results.get(1).status());
+        assertEquals("Transição de CANCELED para COMPLETED não permitida", results.get(1).error());
+        assertEquals("Ordem de serviço não encontrada", results.get(2).error());
+
+        ServiceOrder completed = serviceOrderRepository.findById(serviceOrder.getId()).orElseThrow();
+        assertEquals(ServiceOrder.ServiceStatus.COMPLETED, completed.getStatus());
+        assertNotNull(completed.getCompletedAt());
+        assertEquals(ServiceOrder.ServiceStatus.CANCELED,
+                serviceOrderRepository.findById(second.getId()).orElseThrow().getStatus());
+
+        assertEquals(1, outboxPoller.drainBatch());
+        ServiceOrderStatusChangedEvent event = received.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event);
+        assertEquals(serviceOrder.getId(), event.orderId());
+        assertEquals("eventos@test.com", event.customerEmail());
+        assertEquals(ServiceOrder.ServiceStatus.PENDING, event.oldStatus());
+        assertEquals(ServiceOrder.ServiceStatus.COMPLETED, event.newStatus());
+    }
+
+    @Test
+    void shouldNotWriteOutboxWhenTransactionRollsBack() {
+        transactionTemplate.executeWithoutResult(status -> {
+            serviceOrderService.updateStatus(serviceOrder.getId(), ServiceOrder.ServiceStatus.COMPLETED);
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, outboxEventRepository.count());
+        assertEquals(0, outboxPoller.drainBatch());
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    void shouldRedeliverWhenObserverFails() throws Exception {
+        AtomicBoolean failNext = new AtomicBoolean(true);
+        ServiceOrderObserver flaky = event -> {
+            if (failNext.getAndSet(false)) {
+                throw new IllegalStateException("Servidor de e-mail indisponível");
+            }
+        };
+        dispatcher.addObserver(flaky);
+        try {
+            serviceOrderService.updateStatus(serviceOrder.getId(), ServiceOrder.ServiceStatus.IN_PROGRESS);
+
+            assertEquals(0, outboxPoller.drainBatch());
+            OutboxEvent retry = outboxEventRepository.findByProcessedAtIsNull().get(0);
+            assertEquals(1, retry.getAttempts());
+            assertEquals("Servidor de e-mail indisponível", retry.getLastError());
+            assertTrue(retry.getNextAttemptAt().isAfter(LocalDateTime.now()));
+
+            // Ainda no backoff: não é reivindicado de novo
+            assertEquals(0, outboxPoller.drainBatch());
+
+            retry.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+            outboxEventRepository.save(retry);
+            assertEquals(1, outboxPoller.drainBatch());
+            assertTrue(outboxEventRepository.findByProcessedAtIsNull().isEmpty());
+            // At-least-once: os observers que já tinham recebido recebem de novo
+            assertEquals(2, received.size());
+        } finally {
+            dispatcher.removeObserver(flaky);
+        }
+    }
+
+    @Test
+    void shouldStopRetryingAndCountDeadEvents() {
+        ServiceOrderObserver broken = event -> {
+            throw new IllegalStateException("Destinatário inválido");
+        };
+        dispatcher.addObserver(broken);
+        try {
+            serviceOrderService.updateStatus(serviceOrder.getId(), ServiceOrder.ServiceStatus.IN_PROGRESS);
+            // Última tentativa disponível
+            OutboxEvent last = outboxEventRepository.findByProcessedAtIsNull().get(0);
+            last.setAttempts(9);
+            outboxEventRepository.save(last);
+            double deadBefore = meterRegistry.get("workshop.outbox.dead").counter().count();
+
+            assertEquals(0, outboxPoller.drainBatch());
+
+            assertEquals(deadBefore + 1, meterRegistry.get("workshop.outbox.dead").counter().count());
+            OutboxEvent dead = outboxEventRepository.findByProcessedAtIsNull().get(0);
+            assertEquals(10, dead.getAttempts());
+            dead.setNextAttemptAt(null);
+            outboxEventRepository.save(dead);
+            assertTrue(outboxEventRepository.claimPending(10, LocalDateTime.now(), 100).isEmpty());
+        } finally {
+            dispatcher.removeObserver(broken);
+        }
+    }
+
+    @Test
+    void shouldSkipRowsClaimedByAnotherPoller() throws Exception {
+        serviceOrderService.updateStatus(serviceOrder.getId(), ServiceOrder.ServiceStatus.IN_PROGRESS);
+
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService otherReplica = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> held = otherReplica.submit(() -> transactionTemplate.execute(status -> {
+                int size = outboxEventRepository.claimPending(10, LocalDateTime.now(), 100).size();
+                claimed.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return size;
+            }));
+
+            assertTrue(claimed.await(5, TimeUnit.SECONDS));
+            // A linha está bloqueada pela outra "réplica": este poller não a vê e não espera
+            assertEquals(0, outboxPoller.drainBatch());
+            release.countDown();
+            assertEquals(1, held.get(5, TimeUnit.SECONDS));
+
+            assertEquals(1, outboxPoller.drainBatch());
+        } finally {
+            release.countDown();
+            otherReplica.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.acme.workshop.service;
+
+import com.acme.workshop.model.*;
+import com.acme.workshop.repository.*;
+import com.acme.workshop.util.TestReportExtension;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@TestReportExtension
+public class ServiceOrderTotalReconcilerTest {
+
+    @Autowired
+    private ServiceOrderTotalReconciler reconciler;
+
+    @Autowired
+    private ServiceItemService serviceItemService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private TechnicianRepository technicianRepository;
+
+    @Autowired
+    private ServiceOrderRepository serviceOrderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private ServiceOrder serviceOrder;
+
+    @BeforeEach
+    void setUp() {
+        Customer customer = new Customer();
+        customer.setName("Cliente Reconciliação");
+        customer.setEmail("reconciliacao@test.com");
+        customer.setPhone("(11) 90000-0000");
+        customer.setAddress("Rua Teste");
+        customer = customerRepository.save(customer);
+
+        Vehicle vehicle = new Vehicle();
+        vehicle.setBrand("Fiat");
+        vehicle.setModel("Uno");
+        vehicle.setModelYear(2015);
+        vehicle.setLicensePlate("REC-0001");
+        vehicle.setCustomer(customer);
+        vehicle = vehicleRepository.save(vehicle);
+
+        Technician technician = new Technician();
+        technician.setName("Técnico Reconciliação");
+        technician.setEmail("tecnico.rec@test.com");
+        technician.setSpecialization("Motor");
+        technician = technicianRepository.save(technician);
+
+        serviceOrder = serviceOrderRepository.save(new ServiceOrderBuilder()
+                .withCustomer(customer)
+                .withVehicle(vehicle)
+                .withTechnician(technician)
+                .withDescription("Revisão")
+                .withTotalCost(BigDecimal.ZERO)
+                .build());
+
+        serviceItemService.addServiceItem(serviceOrder.getId(), item("Troca de óleo", "50.00", 2));
+        serviceItemService.addServiceItem(serviceOrder.getId(), item("Alinhamento", "80.00", 1));
+    }
+
+    @Test
+    void shouldMaintainTotalWithoutDrift() {
+        assertEquals(0, reconciler.reconcile());
+        assertEquals(0, new BigDecimal("180.00").compareTo(reloadTotal()));
+    }
+
+    @Test
+    void shouldCorrectDriftedTotal() {
+        serviceOrderRepository.addToTotalCost(serviceOrder.getId(), new BigDecimal("999.00"));
+        entityManager.clear(); // o reconciliador roda em transação própria, sem as entidades do teste
+
+        assertEquals(1, reconciler.reconcile());
+        assertEquals(0, new BigDecimal("180.00").compareTo(reloadTotal()));
+        assertEquals(0, reconciler.reconcile());
+    }
+
+    @Test
+    void shouldApplyDeltaWhenOrderLinesAreLoaded() {
+        // Com a coleção de itens já inicializada no contexto, a remoção continua aplicando o delta
+        entityManager.flush();
+        entityManager.clear();
+        ServiceOrder loaded = serviceOrderRepository.findById(serviceOrder.getId()).orElseThrow();
+        ServiceItem first = loaded.getServiceItems().get(0);
+        Long version = loaded.getVersion();
+
+        serviceItemService.deleteById(first.getId());
+
+        assertEquals(0, new BigDecimal("80.00").compareTo(loaded.getTotalCost()));
+        // O total em memória não conta como alteração: o flush não regrava a OS
+        entityManager.flush();
+        assertEquals(version, loaded.getVersion());
+        assertEquals(0, new BigDecimal("80.00").compareTo(reloadTotal()));
+    }
+
+    private ServiceItem item(String description, String laborCost, int quantity) {
+        ServiceItem item = new ServiceItem();
+        item.setDescription(description);
+        item.setLaborCost(new BigDecimal(laborCost));
+        item.setQuantity(quantity);
+        return item;
+    }
+
+    private BigDecimal reloadTotal() {
+        entityManager.flush();
+        entityManager.clear();
+        return serviceOrderRepository.findById(serviceOrder.getId()).orElseThrow().getTotalCost();
+    }
+}
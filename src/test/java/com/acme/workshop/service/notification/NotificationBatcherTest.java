@@ -0,0 +1,106 @@
+package com.acme.workshop.service.notification;
+
+import com.acme.workshop.model.ServiceOrder.ServiceStatus;
+import com.acme.workshop.service.observer.ServiceOrderStatusChangedEvent;
+import com.acme.workshop.util.TestReportExtension;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestReportExtension
+public class NotificationBatcherTest {
+
+    private final BlockingQueue<NotificationDigest> sent = new LinkedBlockingQueue<>();
+    private NotificationBatcher batcher;
+
+    @AfterEach
+    void tearDown() {
+        if (batcher != null) {
+            batcher.close();
+        }
+    }
+
+    @Test
+    void shouldCoalesceTransitionsPerCustomerIntoOneDigest() {
+        batcher = new NotificationBatcher(sent::add, 60_000, new SimpleMeterRegistry());
+
+        batcher.submit(event(1L, 10L, ServiceStatus.PENDING, ServiceStatus.IN_PROGRESS));
+        batcher.submit(event(2L, 10L, ServiceStatus.PENDING, ServiceStatus.IN_PROGRESS));
+        batcher.submit(event(1L, 10L, ServiceStatus.IN_PROGRESS, ServiceStatus.COMPLETED));
+        batcher.submit(event(3L, 20L, ServiceStatus.PENDING, ServiceStatus.CANCELED));
+        batcher.flushAll();
+
+        assertEquals(2, sent.size());
+        NotificationDigest first = sent.stream().filter(d -> d.customerId() == 10L).findFirst().orElseThrow();
+        assertEquals(List.of(
+                new NotificationDigest.Transition(1L, ServiceStatus.PENDING, ServiceStatus.COMPLETED),
+                new NotificationDigest.Transition(2L, ServiceStatus.PENDING, ServiceStatus.IN_PROGRESS)),
+            first.transitions());
+    }
+
+    @Test
+    void shouldDropOrdersThatReturnToOriginalStatus() {
+        batcher = new NotificationBatcher(sent::add, 60_000, new SimpleMeterRegistry());
+
+        batcher.submit(event(1L, 10L, ServiceStatus.PENDING, ServiceStatus.IN_PROGRESS));
+        batcher.submit(event(1L, 10L, ServiceStatus.IN_PROGRESS, ServiceStatus.PENDING));
+        batcher.flushAll();
+
+        assertTrue(sent.isEmpty());
+    }
+
+    @Test
+    void shouldFlushWhenWindowElapses() throws Exception {
+        batcher = new NotificationBatcher(sent::add, 50, new SimpleMeterRegistry());
+
+        batcher.submit(event(1L, 10L, ServiceStatus.PENDING, ServiceStatus.IN_PROGRESS));
+
+        NotificationDigest digest = sent.poll(5, TimeUnit.SECONDS);
+        assertNotNull(digest);
+        assertEquals("cliente10@test.com", digest.customerEmail());
+        assertEquals(0, batcher.pendingCustomers());
+    }
+
+    @Test
+    void shouldCompleteSubmissionsOnlyAfterDigestIsSent() {
+        batcher = new NotificationBatcher(sent::add, 60_000, new SimpleMeterRegistry());
+
+        CompletableFuture<Void> first = batcher.submit(event(1L, 10L, ServiceStatus.PENDING, ServiceStatus.IN_PROGRESS));
+        CompletableFuture<Void> second = batcher.submit(event(1L, 10L, ServiceStatus.IN_PROGRESS, ServiceStatus.PENDING));
+        assertFalse(first.isDone());
+
+        batcher.flushAll();
+
+        // Nada a enviar (voltou ao status original), mas as duas mudanças estão resolvidas
+        assertTrue(first.isDone() && !first.isCompletedExceptionally());
+        assertTrue(second.isDone() && !second.isCompletedExceptionally());
+    }
+
+    @Test
+    void shouldFailSubmissionsWhenDigestCannotBeSent() {
+        batcher = new NotificationBatcher(digest -> {
+            throw new IllegalStateException("SMTP indisponível");
+        }, 60_000, new SimpleMeterRegistry());
+
+        CompletableFuture<Void> submitted = batcher.submit(event(1L, 10L, ServiceStatus.PENDING, ServiceStatus.COMPLETED));
+        batcher.flushAll();
+
+        ExecutionException error = assertThrows(ExecutionException.class, submitted::get);
+        assertEquals("SMTP indisponível", error.getCause().getMessage());
+    }
+
+    private ServiceOrderStatusChangedEvent event(Long orderId, Long customerId, ServiceStatus from, ServiceStatus to) {
+        return new ServiceOrderStatusChangedEvent(orderId, customerId, "Cliente " + customerId,
+            "cliente" + customerId + "@test.com", from, to, LocalDateTime.now());
+    }
+}
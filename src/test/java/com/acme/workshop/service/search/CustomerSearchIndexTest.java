@@ -0,0 +1,105 @@
+package com.acme.workshop.service.search;
+
+import com.acme.workshop.model.Customer;
+import com.acme.workshop.repository.CustomerRepository;
+import com.acme.workshop.service.CustomerService;
+import com.acme.workshop.util.TestReportExtension;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+// Sem @Transactional: o índice só recebe alterações confirmadas
+@TestReportExtension
+public class CustomerSearchIndexTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerSearchIndex customerSearchIndex;
+
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        customer = customerService.save(customer("Patrícia Andrade", "patricia@test.com", "(11) 97777-1234"));
+        customerSearchIndex.rebuild().join();
+    }
+
+    @AfterEach
+    void tearDown() {
+        customerRepository.deleteAll();
+        customerSearchIndex.rebuild().join();
+    }
+
+    @Test
+    void shouldServeRankedSearchFromIndex() throws Exception {
+        customerService.save(customer("Patrício Andrade Neto", "neto@test.com", "(11) 96666-0000"));
+
+        mockMvc.perform(get("/api/customers/search").param("q", "patricia").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Patrícia Andrade"));
+        mockMvc.perform(get("/api/customers/search").param("q", "97777"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].email").value("patricia@test.com"));
+    }
+
+    @Test
+    void shouldFollowUpdatesAndDeletesThroughService() throws Exception {
+        mockMvc.perform(get("/api/customers/search").param("q", "andrade"))
+                .andExpect(jsonPath("$.length()").value(1));
+
+        customerService.update(customer.getId(), customer("Patrícia Moreira", "patricia@test.com", "(11) 97777-1234"));
+        mockMvc.perform(get("/api/customers/search").param("q", "andrade"))
+                .andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(get("/api/customers/search").param("q", "moreira"))
+                .andExpect(jsonPath("$[0].id").value(customer.getId()));
+
+        customerService.delete(customer.getId());
+        mockMvc.perform(get("/api/customers/search").param("q", "moreira"))
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void shouldRejectLimitOutOfRange() throws Exception {
+        mockMvc.perform(get("/api/customers/search").param("q", "patricia").param("limit", "51"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/customers/search").param("q", "patricia").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/customers/search"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldKeepNameSearchAvailable() throws Exception {
+        mockMvc.perform(get("/api/customers/search").param("name", "Patrícia"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Patrícia Andrade"));
+    }
+
+    private Customer customer(String name, String email, String phone) {
+        Customer c = new Customer();
+        c.setName(name);
+        c.setEmail(email);
+        c.setPhone(phone);
+        c.setAddress("Rua da Busca");
+        return c;
+    }
+}
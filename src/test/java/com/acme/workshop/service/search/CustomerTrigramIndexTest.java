@@ -0,0 +1,74 @@
+package com.acme.workshop.service.search;
+
+import com.acme.workshop.util.TestReportExtension;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestReportExtension
+public class CustomerTrigramIndexTest {
+
+    private final CustomerTrigramIndex index = new CustomerTrigramIndex();
+
+    @Test
+    void shouldRankByMatchedTrigramsIgnoringAccentsAndCase() {
+        index.index(1L, "Maria Joana Souza", "maria@test.com", "(11) 90000-0001");
+        index.index(2L, "João Silva", "joao.silva@test.com", "(11) 90000-0002");
+        index.index(3L, "Joaquim Pereira", "joaquim@test.com", "(11) 90000-0003");
+
+        List<Long> result = index.search("JOAO", 10);
+        assertEquals(3, result.size());
+        assertEquals(2L, result.get(0));
+        assertEquals(List.of(2L), index.search("silva", 10));
+        assertEquals(List.of(3L), index.search("pereira", 10));
+    }
+
+    @Test
+    void shouldMatchEmailAndPhoneDigits() {
+        index.index(1L, "Ana Lima", "ana.lima@oficina.com", "(11) 98765-4321");
+        index.index(2L, "Bruno Costa", "bruno@oficina.com", "(21) 91234-5678");
+
+        assertEquals(List.of(2L), index.search("bruno@", 10));
+        assertEquals(List.of(1L), index.search("98765", 10));
+        assertEquals(List.of(2L), index.search("912345678", 10));
+    }
+
+    @Test
+    void shouldTolerateTypoAndHonourLimit() {
+        index.index(1L, "Fernanda Oliveira", "fernanda@test.com", null);
+        index.index(2L, "Fernando Oliveira", "fernando@test.com", null);
+        index.index(3L, "Carlos Mendes", "carlos@test.com", null);
+
+        List<Long> result = index.search("olivera", 10);
+        assertEquals(2, result.size());
+        assertFalse(result.contains(3L));
+        assertEquals(1, index.search("oliveira", 1).size());
+    }
+
+    @Test
+    void shouldIgnoreQueriesShorterThanTwoCharacters() {
+        index.index(1L, "Ana Lima", "ana@test.com", null);
+
+        assertTrue(index.search("a", 10).isEmpty());
+        assertEquals(List.of(1L), index.search("an", 10));
+    }
+
+    @Test
+    void shouldReplaceAndRemoveEntriesAcrossCompaction() {
+        for (long id = 1; id <= 5000; id++) {
+            index.index(id, "Cliente " + id, "cliente" + id + "@test.com", null);
+        }
+        index.index(42L, "Roberta Nogueira", "roberta@test.com", null);
+        for (long id = 1000; id <= 4000; id++) {
+            index.remove(id);
+        }
+
+        assertEquals(1999, index.size());
+        assertEquals(List.of(42L), index.search("nogueira", 10));
+        assertTrue(index.search("cliente 42", 10).stream().noneMatch(id -> id == 42L));
+        assertTrue(index.search("cliente2500", 10).stream().noneMatch(id -> id >= 1000 && id <= 4000));
+        assertEquals(4999L, index.search("cliente4999", 1).get(0));
+    }
+}
@@ -0,0 +1,131 @@
+package com.acme.workshop.service.search;
+
+import com.acme.workshop.model.Customer;
+import com.acme.workshop.model.Vehicle;
+import com.acme.workshop.repository.CustomerRepository;
+import com.acme.workshop.repository.VehicleRepository;
+import com.acme.workshop.service.VehicleService;
+import com.acme.workshop.util.TestReportExtension;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+// Sem @Transactional: o índice só recebe alterações confirmadas
+@TestReportExtension
+public class VehiclePlateIndexTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private VehicleService vehicleService;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private VehiclePlateIndex vehiclePlateIndex;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Customer owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = new Customer();
+        owner.setName("Rita Campos");
+        owner.setEmail("rita@test.com");
+        owner.setPhone("(11) 95555-0000");
+        owner.setAddress("Rua das Placas");
+        owner = customerRepository.save(owner);
+
+        vehicleService.save(vehicle("ABC-1234"));
+        vehicleService.save(vehicle("ABC1D23"));
+        vehicleService.save(vehicle("XYZ-9123"));
+        vehiclePlateIndex.rebuild().join();
+    }
+
+    @AfterEach
+    void tearDown() {
+        vehicleRepository.deleteAll();
+        customerRepository.deleteAll();
+        vehiclePlateIndex.rebuild().join();
+    }
+
+    @Test
+    void shouldMatchPrefixThenSuffixWithOwnerName() throws Exception {
+        mockMvc.perform(get("/api/vehicles/search/plate").param("plate", "abc1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].licensePlate").value("ABC-1234"))
+                .andExpect(jsonPath("$[1].licensePlate").value("ABC1D23"))
+                .andExpect(jsonPath("$[0].customerName").value("Rita Campos"));
+
+        mockMvc.perform(get("/api/vehicles/search/plate").param("plate", "23"))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].licensePlate").value("XYZ-9123"))
+                .andExpect(jsonPath("$[1].licensePlate").value("ABC1D23"));
+    }
+
+    @Test
+    void shouldRejectLimitOutOfRange() throws Exception {
+        mockMvc.perform(get("/api/vehicles/search/plate").param("plate", "ABC").param("limit", "51"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/vehicles/search/plate").param("plate", "ABC").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldUseSingleQueryPerSearch() throws Exception {
+        mockMvc.perform(get("/api/vehicles/search/plate").param("plate", "A"));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(get("/api/vehicles/search/plate").param("plate", "ABC").param("limit", "5"))
+                .andExpect(jsonPath("$.length()").value(2));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void shouldFollowChangesThroughService() throws Exception {
+        Vehicle added = vehicleService.save(vehicle("ABC-7777"));
+        mockMvc.perform(get("/api/vehicles/search/plate").param("plate", "7777"))
+                .andExpect(jsonPath("$[0].id").value(added.getId()));
+
+        vehicleService.delete(added.getId());
+        mockMvc.perform(get("/api/vehicles/search/plate").param("plate", "7777"))
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    private Vehicle vehicle(String plate) {
+        Vehicle v = new Vehicle();
+        v.setBrand("Fiat");
+        v.setModel("Uno");
+        v.setModelYear(2015);
+        v.setLicensePlate(plate);
+        v.setCustomer(owner);
+        return v;
+    }
+}
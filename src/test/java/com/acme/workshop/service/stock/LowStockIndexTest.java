@@ -0,0 +1,157 @@
+package com.acme.workshop.service.stock;
+
+import com.acme.workshop.model.Part;
+import com.acme.workshop.service.PartService;
+import com.acme.workshop.util.TestReportExtension;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+// Sem @Transactional: o índice só recebe alterações confirmadas
+@TestReportExtension
+public class LowStockIndexTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PartService partService;
+
+    @Autowired
+    private LowStockIndex lowStockIndex;
+
+    @Autowired
+    private ConsumptionEstimator consumptionEstimator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> partIds = new ArrayList<>();
+    private Part critical;
+    private Part low;
+    private Part healthy;
+
+    @BeforeEach
+    void setUp() {
+        critical = part("LOW-001", "Pastilha de freio", 2, 10);
+        low = part("LOW-002", "Filtro de ar", 5, 10);
+        healthy = part("LOW-003", "Vela de ignição", 50, 10);
+        // Sem ponto de reposição: nunca entra no alerta
+        part("LOW-004", "Palheta", 0, 0);
+        lowStockIndex.rebuild().join();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM stock_movements WHERE part_id IN (?, ?, ?, ?)", partIds.toArray());
+        partIds.forEach(partService::deleteById);
+        lowStockIndex.rebuild().join();
+    }
+
+    @Test
+    void shouldFollowCommittedStockChanges() throws Exception {
+        mockMvc.perform(get("/api/parts/low-stock"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].code").value("LOW-001"))
+                .andExpect(jsonPath("$[1].code").value("LOW-002"));
+
+        // Baixa por OS: 50 -> 5, mesma razão da LOW-002 (empate desempata pelo id)
+        partService.reserveStock(Map.of(healthy.getId(), 45));
+        // Devolução tira a LOW-001 do alerta
+        partService.returnStock(Map.of(critical.getId(), 20));
+        assertEquals(List.of(low.getId(), healthy.getId()), atRisk(10));
+        assertEquals(List.of(low.getId()), atRisk(1));
+
+        // A releitura grava o saldo absoluto: repeti-la não aplica a baixa de novo
+        lowStockIndex.refreshAfterCommit(healthy.getId());
+        lowStockIndex.refreshAfterCommit(healthy.getId());
+        assertEquals(5, lowStockIndex.topAtRisk(10).get(1).stock());
+
+        // Ponto de reposição zerado no cadastro: sai do índice
+        Part details = new Part();
+        details.setName(low.getName());
+        details.setCode(low.getCode());
+        details.setUnitPrice(low.getUnitPrice());
+        details.setStock(5);
+        details.setReorderThreshold(0);
+        partService.update(low.getId(), details);
+        assertEquals(List.of(healthy.getId()), atRisk(10));
+
+        // A recarga do banco chega ao mesmo resultado
+        lowStockIndex.rebuild().join();
+        assertEquals(List.of(healthy.getId()), atRisk(10));
+    }
+
+    @Test
+    void shouldSuggestReorderFromRecentConsumption() throws Exception {
+        movement("CONSUMPTION", LocalDateTime.now(), -7);
+        // Baixa devolvida (OS cancelada): não conta como consumo
+        movement("CONSUMPTION", LocalDateTime.now(), -100);
+        movement("RETURN", LocalDateTime.now(), 100);
+        // Ajuste manual de estoque não é consumo
+        movement("ADJUSTMENT", LocalDateTime.now(), -40);
+        // Fora da janela de 30 dias
+        movement("CONSUMPTION", LocalDateTime.now().minusDays(40), -500);
+
+        double daily = consumptionEstimator.dailyConsumption(List.of(low.getId())).get(low.getId());
+        assertEquals(0.3 * 7, daily, 1e-9);
+
+        // ceil(2,1 * 14 dias) + ponto de reposição 10 - estoque 5
+        mockMvc.perform(get("/api/parts/low-stock").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[1].partId").value(low.getId()))
+                .andExpect(jsonPath("$[1].suggestedReorderQuantity").value(35))
+                .andExpect(jsonPath("$[0].dailyConsumption").value(0.0))
+                .andExpect(jsonPath("$[0].suggestedReorderQuantity").value(8));
+    }
+
+    @Test
+    void shouldRejectLimitOutOfRange() throws Exception {
+        mockMvc.perform(get("/api/parts/low-stock").param("limit", "51"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/parts/low-stock").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private List<Long> atRisk(int limit) {
+        return lowStockIndex.topAtRisk(limit).stream().map(LowStockIndex.LowStockEntry::partId).toList();
+    }
+
+    private Part part(String code, String name, int stock, int reorderThreshold) {
+        Part part = new Part();
+        part.setName(name);
+        part.setCode(code);
+        part.setUnitPrice(new BigDecimal("30.00"));
+        part.setStock(stock);
+        part.setReorderThreshold(reorderThreshold);
+        Part saved = partService.save(part);
+        partIds.add(saved.getId());
+        return saved;
+    }
+
+    private void movement(String type, LocalDateTime createdAt, int quantity) {
+        jdbcTemplate.update("INSERT INTO stock_movements (part_id, movement_type, quantity, created_at) VALUES (?, ?, ?, ?)",
+            low.getId(), type, quantity, Timestamp.valueOf(createdAt));
+    }
+}
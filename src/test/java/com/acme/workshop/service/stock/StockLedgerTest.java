@@ -0,0 +1,104 @@
+package com.acme.workshop.service.stock;
+
+import com.acme.workshop.dto.PartStockAtDTO;
+import com.acme.workshop.dto.StockMovementDTO;
+import com.acme.workshop.util.TestReportExtension;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@TestReportExtension
+public class StockLedgerTest {
+
+    // O histórico não tem FK para parts: qualquer ID serve
+    private static final long PART_ID = 990_001L;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM stock_movements");
+        jdbcTemplate.update("DELETE FROM stock_snapshots");
+        now = LocalDateTime.now();
+        movement(StockMovementDTO.Type.ADJUSTMENT, 10, now.minusHours(3));
+        movement(StockMovementDTO.Type.CONSUMPTION, -3, now.minusHours(2));
+        movement(StockMovementDTO.Type.CONSUMPTION, -2, now.minusHours(1));
+        movement(StockMovementDTO.Type.RETURN, 5, now.minusMinutes(10));
+    }
+
+    @Test
+    void stockAtShouldReplayOnlyTheTailAfterTheSnapshot() {
+        PartStockAtDTO beforeSnapshot = stockLedger.stockAt(PART_ID, now.minusMinutes(90));
+        assertEquals(7, beforeSnapshot.stock());
+        assertNull(beforeSnapshot.snapshotAt());
+        assertEquals(2, beforeSnapshot.tailMovements());
+
+        assertEquals(1, stockLedger.snapshot());
+        PartStockAtDTO current = stockLedger.stockAt(PART_ID, LocalDateTime.now());
+        assertEquals(10, current.stock());
+        assertEquals(0, current.tailMovements());
+
+        stockLedger.record(PART_ID, -4, StockMovementDTO.Type.CONSUMPTION);
+        current = stockLedger.stockAt(PART_ID, LocalDateTime.now());
+        assertEquals(6, current.stock());
+        assertEquals(1, current.tailMovements());
+
+        // O movimento já confirmado entra no próximo snapshot
+        assertEquals(1, stockLedger.snapshot());
+        assertEquals(0, stockLedger.snapshot());
+        current = stockLedger.stockAt(PART_ID, LocalDateTime.now());
+        assertEquals(6, current.stock());
+        assertEquals(0, current.tailMovements());
+        // Datas anteriores ao snapshot continuam corretas
+        assertEquals(7, stockLedger.stockAt(PART_ID, now.minusMinutes(90)).stock());
+    }
+
+    @Test
+    void movementCommittedAfterSnapshotShouldNotBeLost() {
+        assertEquals(1, stockLedger.snapshot());
+
+        // Transação longa: created_at anterior ao snapshot, mas confirmada depois dele
+        movement(StockMovementDTO.Type.CONSUMPTION, -4, now.minusMinutes(5));
+        PartStockAtDTO current = stockLedger.stockAt(PART_ID, LocalDateTime.now());
+        assertEquals(6, current.stock());
+        assertEquals(1, current.tailMovements());
+
+        assertEquals(1, stockLedger.snapshot());
+        current = stockLedger.stockAt(PART_ID, LocalDateTime.now());
+        assertEquals(6, current.stock());
+        assertEquals(0, current.tailMovements());
+        // Antes do primeiro snapshot, na data do movimento, ele já conta
+        assertEquals(6, stockLedger.stockAt(PART_ID, now.minusMinutes(1)).stock());
+    }
+
+    @Test
+    void movementsShouldListTheRequestedWindow() {
+        assertEquals(2, stockLedger.movements(PART_ID, now.minusMinutes(150), now.minusMinutes(30)).size());
+        assertEquals(StockMovementDTO.Type.RETURN,
+            stockLedger.movements(PART_ID, now.minusMinutes(30), now).get(0).type());
+    }
+
+    private void movement(StockMovementDTO.Type type, int quantity, LocalDateTime createdAt) {
+        jdbcTemplate.update("INSERT INTO stock_movements (part_id, movement_type, quantity, created_at) VALUES (?, ?, ?, ?)",
+            PART_ID, type.name(), quantity, Timestamp.valueOf(createdAt));
+    }
+}
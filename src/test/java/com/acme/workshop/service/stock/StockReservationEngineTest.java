@@ -0,0 +1,183 @@
+package com.acme.workshop.service.stock;
+
+import com.acme.workshop.model.Part;
+import com.acme.workshop.repository.PartRepository;
+import com.acme.workshop.service.PartService;
+import com.acme.workshop.util.TestReportExtension;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Motor de reservas ligado, em banco próprio. Sem @Transactional: a reserva depende do commit.
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:stockreservationdb",
+    "workshop.stock-reservations.enabled=true"
+})
+@ActiveProfiles("test")
+@TestReportExtension
+public class StockReservationEngineTest {
+
+    @Autowired
+    private StockReservationEngine stockReservations;
+
+    @Autowired
+    private PartService partService;
+
+    @Autowired
+    private PartRepository partRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Part part;
+
+    @BeforeEach
+    void setUp() {
+        part = new Part();
+        part.setName("Filtro de óleo");
+        part.setCode("RES-FIL-001");
+        part.setUnitPrice(new BigDecimal("25.00"));
+        part.setStock(10);
+        part = partRepository.save(part);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM stock_reservation_log");
+        partService.deleteById(part.getId());
+    }
+
+    @Test
+    void reservationShouldReachDatabaseOnlyOnFlush() {
+        transactionTemplate.executeWithoutResult(status -> {
+            partService.reserveStock(Map.of(part.getId(), 3));
+            assertEquals(7, stockReservations.available(part.getId()).orElseThrow());
+        });
+
+        assertEquals(10, storedStock());
+        assertEquals(-3, stockReservations.unflushed(part.getId()));
+        assertEquals(7, partService.findCatalogPartById(part.getId()).orElseThrow().getStock());
+
+        stockReservations.flush();
+        assertEquals(7, storedStock());
+        assertEquals(0, stockReservations.unflushed(part.getId()));
+        assertEquals(0, logRows());
+    }
+
+    @Test
+    void rollbackShouldReleaseReservation() {
+        transactionTemplate.executeWithoutResult(status -> {
+            partService.reserveStock(Map.of(part.getId(), 4));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(10, stockReservations.available(part.getId()).orElseThrow());
+        assertEquals(0, logRows());
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+            () -> partService.reserveStock(Map.of(part.getId(), 11)));
+        assertEquals("Estoque insuficiente: Filtro de óleo", error.getMessage());
+        assertEquals(10, stockReservations.available(part.getId()).orElseThrow());
+    }
+
+    @Test
+    void returnsAndManualAdjustmentsShouldGoThroughTheLog() {
+        partService.reserveStock(Map.of(part.getId(), 6));
+        partService.returnStock(Map.of(part.getId(), 2));
+        // Ajuste manual: quantidade negativa devolve ao estoque
+        assertEquals(20, partService.updateStock(part.getId(), -14).getStock());
+
+        stockReservations.flush();
+        assertEquals(20, storedStock());
+    }
+
+    @Test
+    void availableStockShouldComeFromCountersBeforeFlush() {
+        partService.reserveStock(Map.of(part.getId(), 4));
+
+        // A linha da peça ainda tem o saldo anterior à baixa
+        Part stored = partRepository.findById(part.getId()).orElseThrow();
+        assertEquals(10, stored.getStock());
+        assertEquals(6, partService.availableStock(stored));
+    }
+
+    @Test
+    void loggedDeltasShouldSurviveRestart() {
+        // Deltas confirmados por uma instância que caiu antes do flush
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO stock_reservation_log (part_id, delta, created_at) VALUES (?, ?, ?)", part.getId(), -4, now);
+        jdbcTemplate.update("INSERT INTO stock_reservation_log (part_id, delta, created_at) VALUES (?, ?, ?)", part.getId(), -1, now);
+
+        // O contador carregado já desconta o log: restam 5, não 10
+        partService.reserveStock(Map.of(part.getId(), 5));
+        assertThrows(IllegalArgumentException.class, () -> partService.reserveStock(Map.of(part.getId(), 1)));
+        assertEquals(0, partService.findCatalogPartById(part.getId()).orElseThrow().getStock());
+
+        stockReservations.recover();
+        assertEquals(0, storedStock());
+        assertEquals(0, logRows());
+    }
+
+    @Test
+    void concurrentReservationsShouldNeverOversell() throws Exception {
+        AtomicInteger reserved = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 5; i++) {
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> partService.reserveStock(Map.of(part.getId(), 1)));
+                        reserved.incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        // sem saldo
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(10, reserved.get());
+        stockReservations.flush();
+        assertEquals(0, storedStock());
+    }
+
+    private int storedStock() {
+        return partRepository.findStockById(part.getId()).orElseThrow();
+    }
+
+    private int logRows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_reservation_log", Integer.class);
+    }
+}
@@ -0,0 +1,83 @@
+package com.acme.workshop.service.support;
+
+import com.acme.workshop.util.TestReportExtension;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestReportExtension
+public class SwappableIndexTest {
+
+    @Test
+    void shouldKeepServingCurrentInstanceAndReplayChangesMadeDuringRebuild() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SwappableIndex<List<String>> index = new SwappableIndex<>("test", () -> {
+            List<String> loaded = new ArrayList<>(List.of("carga-" + loads.incrementAndGet()));
+            if (loads.get() == 2) {
+                // Segunda carga: já leu o banco e fica parada até o teste liberar
+                reading.countDown();
+                await(release);
+            }
+            return loaded;
+        });
+
+        List<String> first = index.get();
+        assertEquals(List.of("carga-1"), first);
+
+        CompletableFuture<Void> rebuild = index.rebuild();
+        assertTrue(reading.await(5, TimeUnit.SECONDS));
+        // Alteração confirmada depois da leitura da carga em andamento
+        index.update(current -> {
+            current.add("alteração");
+            return current;
+        });
+        // A consulta não espera a recarga e já vê a alteração
+        assertSame(first, index.get());
+        assertEquals(List.of("carga-1", "alteração"), index.get());
+
+        release.countDown();
+        rebuild.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("carga-2", "alteração"), index.get());
+    }
+
+    @Test
+    void shouldCoalesceRebuildsRequestedBeforeTheNextOneStarts() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SwappableIndex<Integer> index = new SwappableIndex<>("test", () -> {
+            started.countDown();
+            await(release);
+            return loads.incrementAndGet();
+        });
+
+        CompletableFuture<Void> running = index.rebuild();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        // Pedidos durante a carga: uma única recarga depois dela
+        CompletableFuture<Void> next = index.rebuild();
+        assertNotSame(running, next);
+        assertSame(next, index.rebuild());
+        release.countDown();
+
+        CompletableFuture.allOf(running, next).get(5, TimeUnit.SECONDS);
+        assertEquals(2, loads.get());
+        assertEquals(2, index.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}